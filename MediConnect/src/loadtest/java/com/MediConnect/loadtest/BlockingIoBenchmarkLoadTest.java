@@ -0,0 +1,109 @@
+package com.MediConnect.loadtest;
+
+import com.MediConnect.util.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares executors for many concurrent requests that each block on a slow dependency.
+ *
+ * Every request sleeps for the simulated dependency latency (as an SMTP, Cloudinary or OpenAI call would).
+ * The same load runs on a bounded platform thread pool (Tomcat's default of 200 threads), on one virtual
+ * thread per request, and on virtual threads behind a {@link Bulkhead}; the test logs wall time,
+ * throughput and the peak number of calls in flight toward the dependency. The virtual-thread runs need a
+ * JDK 21+ runtime and are skipped otherwise.
+ *
+ * Run with: mvn -Ploadtest test -Dtest=BlockingIoBenchmarkLoadTest [-Dloadtest.io.requests=1000
+ * -Dloadtest.io.latency-ms=200 -Dloadtest.io.platform-threads=200 -Dloadtest.io.bulkhead=50]
+ */
+@Slf4j
+public class BlockingIoBenchmarkLoadTest {
+
+    private final int requests = Integer.getInteger("loadtest.io.requests", 1000);
+    private final long latencyMillis = Long.getLong("loadtest.io.latency-ms", 200);
+    private final int platformThreads = Integer.getInteger("loadtest.io.platform-threads", 200);
+    private final int bulkheadLimit = Integer.getInteger("loadtest.io.bulkhead", 50);
+
+    @Test
+    void platformThreadPool() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(platformThreads);
+        run("platform pool (" + platformThreads + " threads)", executor, null);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        run("virtual threads", virtualThreadExecutor(), null);
+    }
+
+    @Test
+    void virtualThreadsWithBulkhead() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("benchmark", bulkheadLimit, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        run("virtual threads + bulkhead(" + bulkheadLimit + ")", virtualThreadExecutor(), bulkhead);
+    }
+
+    private void run(String label, ExecutorService executor, Bulkhead bulkhead) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        Runnable slowCall = () -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    if (bulkhead == null) {
+                        slowCall.run();
+                    } else {
+                        bulkhead.callUnchecked(() -> {
+                            slowCall.run();
+                            return null;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        log.info("{}: {} requests x {} ms in {} ms ({} req/s), peak {} concurrent dependency calls",
+                label, requests, latencyMillis, elapsedMillis,
+                String.format("%.0f", requests * 1000.0 / Math.max(1, elapsedMillis)), peakInFlight.get());
+        assertEquals(0, inFlight.get());
+        if (bulkhead != null) {
+            assertTrue(peakInFlight.get() <= bulkheadLimit, "bulkhead exceeded: " + peakInFlight.get());
+        }
+    }
+
+    // Looked up reflectively so this class still compiles for the project's Java 17 target
+    private static ExecutorService virtualThreadExecutor() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21+");
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+}
@@ -0,0 +1,393 @@
+package com.MediConnect.loadtest;
+
+import com.MediConnect.Entities.AppointmentEntity;
+import com.MediConnect.Entities.AppointmentStatus;
+import com.MediConnect.EntryRelated.entities.HealthcareProvider;
+import com.MediConnect.EntryRelated.entities.Patient;
+import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.EntryRelated.repository.AppointmentRepository;
+import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
+import com.MediConnect.EntryRelated.repository.PatientRepo;
+import com.MediConnect.config.JWTService;
+import com.MediConnect.config.UserPrincipal;
+import com.MediConnect.socialmedia.entity.ChatChannel;
+import com.MediConnect.socialmedia.repository.ChatChannelRepository;
+import com.MediConnect.socialmedia.repository.ChatMessageRepository;
+import com.MediConnect.socialmedia.service.chat.ChatPresenceService;
+import com.MediConnect.socialmedia.service.chat.ChatWriteBehindBuffer;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end chat load test over SockJS/STOMP.
+ *
+ * Runs against an embedded PostgreSQL (so the real batch SQL is exercised) and an in-memory cache.
+ * Seeds one patient/doctor pair per channel, connects both over /ws with a JWT, subscribes both to
+ * /topic/chat/{channelId} and has every patient send messages to /app/chat/{channelId}/sendMessage at a
+ * fixed interval. Delivery latency (send -> doctor receives the broadcast) is recorded in an HdrHistogram;
+ * the test reports percentiles and throughput and fails if any message is not delivered or not persisted.
+ *
+ * Run with: mvn -Ploadtest test [-Dloadtest.channels=...]
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+public class ChatLoadTest {
+
+    private static final String LATENCY_PREFIX = "lt:";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PatientRepo patientRepo;
+    @Autowired
+    private HealthcareProviderRepo providerRepo;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private ChatChannelRepository channelRepository;
+    @Autowired
+    private ChatMessageRepository messageRepository;
+    @Autowired
+    private ChatPresenceService chatPresenceService;
+    @Autowired
+    private ChatWriteBehindBuffer writeBehindBuffer;
+    @Autowired
+    private JWTService jwtService;
+
+    @Value("${loadtest.channels:250}")
+    private int channels;
+    @Value("${loadtest.messages-per-client:20}")
+    private int messagesPerClient;
+    @Value("${loadtest.send-interval-ms:50}")
+    private long sendIntervalMillis;
+    @Value("${loadtest.warmup-messages-per-client:5}")
+    private int warmupMessagesPerClient;
+    @Value("${loadtest.timeout-seconds:180}")
+    private long timeoutSeconds;
+
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final ScheduledExecutorService senders = Executors.newScheduledThreadPool(8);
+
+    @TestConfiguration
+    static class LoadTestConfig {
+
+        // Closed after the DataSource (and everything using it) during context shutdown
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.builder().start();
+        }
+
+        @Bean
+        @Primary
+        DataSource loadTestDataSource(EmbeddedPostgres postgres) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+            dataSource.setUsername("postgres");
+            dataSource.setMaximumPoolSize(20);
+            return dataSource;
+        }
+
+        // Stands in for the Redis cache manager so the test needs no Redis server
+        @Bean
+        @Primary
+        CacheManager loadTestCacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        // A fresh journal per run: leftovers from an earlier run reference channels this database does not have
+        Path journal = Files.createTempDirectory("loadtest-chat-journal");
+        registry.add("chat.write-behind.journal.directory", journal::toString);
+    }
+
+    @AfterEach
+    void tearDown() {
+        senders.shutdownNow();
+        sessions.forEach(session -> {
+            try {
+                session.disconnect();
+            } catch (Exception ignored) {
+                // connection already gone
+            }
+        });
+    }
+
+    @Test
+    void chatDeliveryUnderLoad() throws Exception {
+        List<Pair> pairs = seed();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        String url = "http://localhost:" + port + "/ws";
+
+        // --- connect ---
+        long connectStart = System.nanoTime();
+        List<CompletableFuture<StompSession>> patientConnects = new ArrayList<>();
+        List<CompletableFuture<StompSession>> doctorConnects = new ArrayList<>();
+        for (Pair pair : pairs) {
+            patientConnects.add(connect(stompClient, url, pair.patientToken()));
+            doctorConnects.add(connect(stompClient, url, pair.doctorToken()));
+        }
+        CompletableFuture.allOf(patientConnects.toArray(new CompletableFuture[0]))
+                .get(timeoutSeconds, TimeUnit.SECONDS);
+        CompletableFuture.allOf(doctorConnects.toArray(new CompletableFuture[0]))
+                .get(timeoutSeconds, TimeUnit.SECONDS);
+        long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+
+        // --- subscribe ---
+        AtomicReference<Phase> phase = new AtomicReference<>();
+        List<StompSession> patients = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            Pair pair = pairs.get(i);
+            StompSession patient = patientConnects.get(i).get();
+            StompSession doctor = doctorConnects.get(i).get();
+            patients.add(patient);
+            sessions.add(patient);
+            sessions.add(doctor);
+
+            String topic = "/topic/chat/" + pair.channelId();
+            patient.subscribe(topic, new IgnoringHandler());
+            doctor.subscribe(topic, new LatencyHandler(phase));
+        }
+        awaitViewing(pairs);
+
+        // --- warm-up (JIT, connection pool, caches); not reported ---
+        if (warmupMessagesPerClient > 0) {
+            Phase warmup = runPhase(pairs, patients, warmupMessagesPerClient, phase);
+            assertTrue(warmup.delivered().getCount() == 0, "Warm-up messages were not delivered");
+        }
+
+        // --- measure ---
+        Phase measured = runPhase(pairs, patients, messagesPerClient, phase);
+        int expected = pairs.size() * messagesPerClient;
+        int received = expected - (int) measured.delivered().getCount();
+        long elapsedNanos = Math.max(measured.lastDeliveryAt().get() - measured.startedAt(), 1);
+
+        // --- persistence ---
+        writeBehindBuffer.flush();
+        long persisted = messageRepository.count();
+        int expectedPersisted = pairs.size() * (warmupMessagesPerClient + messagesPerClient);
+
+        Histogram histogram = measured.latency().getIntervalHistogram();
+        log.info("""
+
+                        ===== Chat load test =====
+                        Connections      : {} ({} channels), connected in {} ms
+                        Messages         : sent={} delivered={} persisted={} (incl. {} warm-up)
+                        Throughput       : {} msg/s
+                        Latency (ms)     : p50={} p90={} p99={} p99.9={} max={}
+                        """,
+                pairs.size() * 2, pairs.size(), connectMillis,
+                measured.sent().get(), received, persisted, pairs.size() * warmupMessagesPerClient,
+                String.format("%.1f", received / (elapsedNanos / 1_000_000_000.0)),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+
+        assertTrue(received == expected, "Only " + received + " of " + expected + " messages were delivered");
+        assertEquals(expectedPersisted, persisted, "Every delivered message must be persisted");
+    }
+
+    /**
+     * Every patient sends {@code messagesPerClient} messages at the configured interval (start times are
+     * spread over one interval); returns once all are delivered to the doctors or the timeout passes.
+     */
+    private Phase runPhase(List<Pair> pairs, List<StompSession> patients, int messagesPerClient,
+                           AtomicReference<Phase> current) throws InterruptedException {
+        Phase phase = new Phase(new Recorder(3), new CountDownLatch(pairs.size() * messagesPerClient),
+                new AtomicInteger(), new AtomicLong(), System.nanoTime());
+        current.set(phase);
+
+        List<ScheduledFuture<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            StompSession patient = patients.get(i);
+            String destination = "/app/chat/" + pairs.get(i).channelId() + "/sendMessage";
+            AtomicInteger remaining = new AtomicInteger(messagesPerClient);
+            long initialDelay = sendIntervalMillis > 0 ? ThreadLocalRandom.current().nextLong(sendIntervalMillis) : 0;
+
+            tasks.add(senders.scheduleAtFixedRate(() -> {
+                if (remaining.getAndDecrement() <= 0) return;
+                patient.send(destination, Map.of(
+                        "content", LATENCY_PREFIX + System.nanoTime(),
+                        "clientMessageId", UUID.randomUUID().toString()));
+                phase.sent().incrementAndGet();
+            }, initialDelay, Math.max(sendIntervalMillis, 1), TimeUnit.MILLISECONDS));
+        }
+
+        phase.delivered().await(timeoutSeconds, TimeUnit.SECONDS);
+        tasks.forEach(task -> task.cancel(false));
+        return phase;
+    }
+
+    // --- HELPERS ---
+
+    private List<Pair> seed() {
+        List<Pair> pairs = new ArrayList<>();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < channels; i++) {
+            Patient patient = new Patient();
+            fillUser(patient, "lt-patient-" + run + "-" + i, "PATIENT");
+            patient = patientRepo.save(patient);
+
+            HealthcareProvider doctor = new HealthcareProvider();
+            fillUser(doctor, "lt-doctor-" + run + "-" + i, "HEALTHPROVIDER");
+            doctor = providerRepo.save(doctor);
+
+            AppointmentEntity appointment = new AppointmentEntity();
+            appointment.setPatient(patient);
+            appointment.setHealthcareProvider(doctor);
+            appointment.setAppointmentDateTime(new Date());
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            appointment = appointmentRepository.save(appointment);
+
+            ChatChannel channel = new ChatChannel();
+            channel.setPatient(patient);
+            channel.setDoctor(doctor);
+            channel.setAppointment(appointment);
+            channel.setIsActive(true);
+            channel.setCreatedAt(new Date());
+            channel.setLastActivityAt(new Date());
+            channel = channelRepository.save(channel);
+
+            pairs.add(new Pair(channel.getId(), doctor.getId(),
+                    jwtService.generateToken(new UserPrincipal(patient)),
+                    jwtService.generateToken(new UserPrincipal(doctor))));
+        }
+        return pairs;
+    }
+
+    private static void fillUser(Users user, String username, String role) {
+        user.setUsername(username);
+        user.setPassword("load-test");
+        user.setRole(role);
+        user.setFirstName("Load");
+        user.setLastName("Test");
+        user.setEmail(username + "@loadtest.local");
+        user.setRegistrationDate(new Date());
+    }
+
+    private static CompletableFuture<StompSession> connect(WebSocketStompClient client, String url, String token) {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        return client.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
+        });
+    }
+
+    /**
+     * Subscriptions are processed asynchronously; wait until the server sees every doctor in their channel.
+     */
+    private void awaitViewing(List<Pair> pairs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        for (Pair pair : pairs) {
+            while (!chatPresenceService.isViewing(pair.doctorId(), pair.channelId())) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Subscriptions were not registered in time");
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    private record Pair(Long channelId, Long doctorId, String patientToken, String doctorToken) {
+    }
+
+    private static class IgnoringHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            // the sender's own echo is not measured
+        }
+    }
+
+    private record Phase(Recorder latency, CountDownLatch delivered, AtomicInteger sent,
+                         AtomicLong lastDeliveryAt, long startedAt) {
+    }
+
+    private record LatencyHandler(AtomicReference<Phase> phase) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            Object content = ((Map<?, ?>) payload).get("content");
+            if (!(content instanceof String text) || !text.startsWith(LATENCY_PREFIX)) return;
+
+            Phase current = phase.get();
+            long sentAt = Long.parseLong(text.substring(LATENCY_PREFIX.length()));
+            current.latency().recordValue(TimeUnit.NANOSECONDS.toMicros(now - sentAt));
+            current.lastDeliveryAt().accumulateAndGet(now, Math::max);
+            current.delivered().countDown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.MediConnect.loadtest;
+
+import com.MediConnect.config.JWTService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JMH benchmark of the JWT work done for one authenticated request.
+ *
+ * "legacy" repeats what JwtFilter used to do: extractUserName, then validateToken, which parsed the token
+ * twice more, each parse building a new JwtParser and deriving the HMAC key from the secret again.
+ * "singleParse" is the current path: one parse with the shared parser, then a check of the parsed claims.
+ *
+ * Run with: mvn -Ploadtest test -Dtest=JwtVerificationBenchmarkLoadTest
+ * [-Dloadtest.jmh.iterations=5 -Dloadtest.jmh.iteration-seconds=2 -Dloadtest.jmh.forks=1]
+ */
+@Slf4j
+public class JwtVerificationBenchmarkLoadTest {
+
+    // Same length as the configured jwt.secret (HS512)
+    private static final String SECRET = "x".repeat(300);
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        JWTService jwtService;
+        UserDetails user;
+        String token;
+
+        @Setup
+        public void setUp() {
+            jwtService = new JWTService(SECRET);
+            user = User.withUsername("bench-user").password("unused").authorities("ROLE_PATIENT").build();
+            token = jwtService.generateToken(user);
+        }
+    }
+
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Benchmarks {
+
+        @Benchmark
+        public boolean legacy(Tokens tokens) {
+            String username = legacyParse(tokens.token).getSubject();
+            return username.equals(tokens.user.getUsername())
+                    && legacyParse(tokens.token).getSubject().equals(tokens.user.getUsername())
+                    && !legacyParse(tokens.token).getExpiration().before(new Date());
+        }
+
+        @Benchmark
+        public boolean singleParse(Tokens tokens) {
+            Claims claims = tokens.jwtService.parseClaims(tokens.token);
+            return tokens.jwtService.isValidFor(claims, tokens.user);
+        }
+
+        private static Claims legacyParse(String token) {
+            return Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+    }
+
+    @Test
+    void singleParseIsCheaperPerRequest() throws Exception {
+        int iterations = Integer.getInteger("loadtest.jmh.iterations", 5);
+        int iterationSeconds = Integer.getInteger("loadtest.jmh.iteration-seconds", 1);
+        Options options = new OptionsBuilder()
+                .include(Benchmarks.class.getName().replace('$', '.') + ".")
+                .forks(Integer.getInteger("loadtest.jmh.forks", 1))
+                .warmupIterations(iterations)
+                .warmupTime(TimeValue.seconds(iterationSeconds))
+                .measurementIterations(iterations)
+                .measurementTime(TimeValue.seconds(iterationSeconds))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+        Map<String, Double> microsPerRequest = new HashMap<>();
+        for (RunResult result : results) {
+            String method = result.getParams().getBenchmark();
+            microsPerRequest.put(method.substring(method.lastIndexOf('.') + 1), result.getPrimaryResult().getScore());
+        }
+
+        double legacy = microsPerRequest.get("legacy");
+        double singleParse = microsPerRequest.get("singleParse");
+        log.info("JWT verification per request: legacy {} us, single parse {} us ({}x less CPU)",
+                String.format("%.2f", legacy), String.format("%.2f", singleParse),
+                String.format("%.1f", legacy / singleParse));
+        assertTrue(singleParse < legacy, "single parse should be cheaper than the legacy path");
+    }
+}
@@ -31,6 +31,40 @@ public class DatabaseSchemaPatcher implements CommandLineRunner {
         applyPatch("ALTER TABLE patient ADD COLUMN IF NOT EXISTS admin_flagged_at TIMESTAMP");
         applyPatch("UPDATE patient SET admin_flagged = false WHERE admin_flagged IS NULL");
 
+        applyPatch("ALTER TABLE chat_messages ADD COLUMN IF NOT EXISTS client_message_id VARCHAR(64)");
+        // Client message ids are chosen by the client, so they are only unique per sender; a table-wide key
+        // let one user's id silently suppress another user's message
+        applyPatch("DROP INDEX IF EXISTS ux_chat_messages_client_message_id");
+        applyPatch(
+                "DO $$ DECLARE c record; BEGIN " +
+                        "FOR c IN SELECT con.conname FROM pg_constraint con " +
+                        "JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey) " +
+                        "WHERE con.conrelid = 'chat_messages'::regclass AND con.contype = 'u' " +
+                        "AND array_length(con.conkey, 1) = 1 AND att.attname = 'client_message_id' LOOP " +
+                        "EXECUTE format('ALTER TABLE chat_messages DROP CONSTRAINT %I', c.conname); " +
+                        "END LOOP; END $$");
+        applyPatch("CREATE UNIQUE INDEX IF NOT EXISTS ux_chat_messages_sender_client_message_id " +
+                "ON chat_messages (sender_id, client_message_id)");
+
+        applyPatch("ALTER TABLE notifications ADD COLUMN IF NOT EXISTS aggregate_count INTEGER DEFAULT 1");
+        applyPatch("UPDATE notifications SET aggregate_count = 1 WHERE aggregate_count IS NULL");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_notifications_recipient_created_at ON notifications (recipient_id, created_at DESC, id DESC)");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_notifications_created_at ON notifications (created_at)");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_notification_outbox_pending ON notification_outbox (next_attempt_at) WHERE status = 'PENDING'");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_notification_outbox_processed_at ON notification_outbox (processed_at) WHERE status = 'DONE'");
+
+        // Tokens outgrew VARCHAR(255) once they carried user id and token version claims
+        applyPatch("ALTER TABLE login_sessions ALTER COLUMN session_token TYPE TEXT");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_login_sessions_login_time ON login_sessions (login_time)");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_account_activities_timestamp ON account_activities (timestamp)");
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_login_sessions_session_token ON login_sessions (session_token)");
+        // Reference check before a stored document is deleted (DocumentStorageService.release)
+        applyPatch("CREATE INDEX IF NOT EXISTS ix_laboratory_result_blob_key ON laboratory_result (blob_key)");
+        // Lab results from before has_image/image_size were maintained still hold their document in the old
+        // column; without this they show as having no document until LegacyBlobMigrationJob moves them
+        applyPatch("UPDATE laboratory_result SET has_image = true, image_size = octet_length(image) " +
+                "WHERE image IS NOT NULL AND has_image IS NULL");
+
         applyPatch("ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_type_check");
         applyPatch(
                 "ALTER TABLE notifications ADD CONSTRAINT notifications_type_check CHECK (type IN (" +
@@ -50,6 +84,22 @@ public class DatabaseSchemaPatcher implements CommandLineRunner {
                         "'ADMIN_POST_REPORTED'," +
                         "'ADMIN_DOCTOR_REGISTRATION'" +
                         "))");
+
+        // Hibernate only writes the enum check when it creates the table; keep it in step with NotificationOutboxEvent.Kind
+        applyPatch("ALTER TABLE notification_outbox DROP CONSTRAINT IF EXISTS notification_outbox_kind_check");
+        applyPatch(
+                "ALTER TABLE notification_outbox ADD CONSTRAINT notification_outbox_kind_check CHECK (kind IN (" +
+                        "'POST_LIKE'," +
+                        "'POST_COMMENT'," +
+                        "'COMMENT_LIKE'," +
+                        "'COMMENT_REPLY'," +
+                        "'APPOINTMENT_REQUESTED'," +
+                        "'APPOINTMENT_STATUS'," +
+                        "'RESCHEDULE_RESPONSE'," +
+                        "'APPOINTMENT_REMINDER'," +
+                        "'CHAT_MESSAGE'," +
+                        "'ADMIN'" +
+                        "))");
     }
 
     private void applyPatch(String sql) {
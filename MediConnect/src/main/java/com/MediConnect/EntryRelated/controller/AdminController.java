@@ -3,9 +3,11 @@ package com.MediConnect.EntryRelated.controller;
 import com.MediConnect.EntryRelated.dto.admin.AdminLoginRequestDTO;
 import com.MediConnect.EntryRelated.dto.admin.AdminLoginResponseDTO;
 import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.EntryRelated.service.AuthSessionService;
 import com.MediConnect.Repos.UserRepo;
 import com.MediConnect.Service.UserService;
 import com.MediConnect.EntryRelated.exception.AccountStatusException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +34,11 @@ public class AdminController {
 
     private final UserService userService;
     private final UserRepo userRepo;
+    private final AuthSessionService authSessionService;
 
     @PostMapping("/login")
-    public ResponseEntity<AdminLoginResponseDTO> login(@Valid @RequestBody AdminLoginRequestDTO request) {
+    public ResponseEntity<AdminLoginResponseDTO> login(@Valid @RequestBody AdminLoginRequestDTO request,
+                                                       HttpServletRequest httpRequest) {
         String username = request.getUsername().trim();
         Users admin = userRepo.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid username or password"));
@@ -45,8 +49,10 @@ public class AdminController {
         }
 
         try {
-            String token = userService.authenticate(username, request.getPassword());
-            AdminLoginResponseDTO response = new AdminLoginResponseDTO("success", token, admin.getUsername(), "ADMIN");
+            userService.authenticate(username, request.getPassword());
+            AuthSessionService.Tokens tokens = authSessionService.start(admin, httpRequest);
+            AdminLoginResponseDTO response = new AdminLoginResponseDTO("success", tokens.accessToken(), admin.getUsername(),
+                    "ADMIN", tokens.refreshToken(), tokens.expiresInSeconds());
             return ResponseEntity.ok(response);
         } catch (AccountStatusException ex) {
             log.warn("Admin account '{}' blocked due to status {}", username, ex.getAccountStatus());
@@ -8,6 +8,8 @@ import com.MediConnect.EntryRelated.entities.HealthcareProvider;
 import com.MediConnect.EntryRelated.entities.SpecializationType;
 import com.MediConnect.EntryRelated.entities.WorkExperience;
 import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
+import com.MediConnect.EntryRelated.service.AccountStatusCache;
+import com.MediConnect.EntryRelated.service.TokenVersionService;
 import com.MediConnect.EntryRelated.service.notification.DoctorAccountNotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +31,8 @@ public class AdminDoctorController {
 
     private final HealthcareProviderRepo healthcareProviderRepo;
     private final DoctorAccountNotificationService notificationService;
+    private final TokenVersionService tokenVersionService;
+    private final AccountStatusCache accountStatusCache;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> getDoctors(
@@ -202,6 +206,7 @@ public class AdminDoctorController {
         provider.setAdminFlagReason(reason);
         provider.setAdminFlaggedAt(new Date());
         healthcareProviderRepo.save(provider);
+        accountStatusCache.invalidate(provider.getId());
 
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
@@ -229,6 +234,7 @@ public class AdminDoctorController {
         provider.setAdminFlagReason(null);
         provider.setAdminFlaggedAt(null);
         healthcareProviderRepo.save(provider);
+        accountStatusCache.invalidate(provider.getId());
 
         return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -270,6 +276,11 @@ public class AdminDoctorController {
 
             provider.setAccountStatus(newStatus);
             healthcareProviderRepo.save(provider);
+            accountStatusCache.invalidate(provider.getId());
+            if (newStatus != previousStatus) {
+                // Tokens issued under the old status stop working
+                tokenVersionService.revokeAll(provider.getId());
+            }
 
             boolean transitionedFromPending = previousStatus == AccountStatus.PENDING;
 
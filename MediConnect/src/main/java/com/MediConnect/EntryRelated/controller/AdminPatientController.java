@@ -5,6 +5,8 @@ import com.MediConnect.EntryRelated.dto.admin.UpdateAccountStatusRequest;
 import com.MediConnect.EntryRelated.entities.AccountStatus;
 import com.MediConnect.EntryRelated.entities.Patient;
 import com.MediConnect.EntryRelated.repository.PatientRepo;
+import com.MediConnect.EntryRelated.service.AccountStatusCache;
+import com.MediConnect.EntryRelated.service.TokenVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +25,8 @@ import java.util.stream.Collectors;
 public class AdminPatientController {
 
     private final PatientRepo patientRepo;
+    private final TokenVersionService tokenVersionService;
+    private final AccountStatusCache accountStatusCache;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> getPatients(
@@ -122,6 +126,7 @@ public class AdminPatientController {
         patient.setAdminFlagReason(reason);
         patient.setAdminFlaggedAt(new Date());
         patientRepo.save(patient);
+        accountStatusCache.invalidate(patient.getId());
 
         return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -149,6 +154,7 @@ public class AdminPatientController {
         patient.setAdminFlagReason(null);
         patient.setAdminFlaggedAt(null);
         patientRepo.save(patient);
+        accountStatusCache.invalidate(patient.getId());
 
         return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -179,6 +185,11 @@ public class AdminPatientController {
             }
             patient.setAccountStatus(newStatus);
             patientRepo.save(patient);
+            accountStatusCache.invalidate(patient.getId());
+            if (newStatus != previousStatus) {
+                // Tokens issued under the old status stop working
+                tokenVersionService.revokeAll(patient.getId());
+            }
 
             String message;
             switch (newStatus) {
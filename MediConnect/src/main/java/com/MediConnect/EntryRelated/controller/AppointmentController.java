@@ -2,12 +2,13 @@ package com.MediConnect.EntryRelated.controller;
 
 import com.MediConnect.EntryRelated.service.appointment.AppointmentService;
 import com.MediConnect.EntryRelated.service.appointment.impl.AppointmentServiceImpl;
+import com.MediConnect.config.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,17 +37,16 @@ public class AppointmentController {
     @PostMapping("/book")
     public ResponseEntity<Map<String, Object>> bookAppointment(
             @RequestBody Map<String, Object> request,
-            HttpServletRequest httpRequest) {
+            @Nullable CurrentUser currentUser) {
         try {
-            String authHeader = httpRequest.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Map<String, Object> response = appointmentService.bookAppointment(authHeader, request);
+            Map<String, Object> response = appointmentService.bookAppointment(currentUser, request);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.badRequest().body(response);
             }
@@ -60,17 +60,16 @@ public class AppointmentController {
     }
 
     @GetMapping("/patient")
-    public ResponseEntity<Map<String, Object>> getPatientAppointments(HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> getPatientAppointments(@Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Map<String, Object> response = appointmentService.getPatientAppointments(authHeader);
+            Map<String, Object> response = appointmentService.getPatientAppointments(currentUser);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
             }
@@ -84,17 +83,16 @@ public class AppointmentController {
     }
 
     @GetMapping("/doctor")
-    public ResponseEntity<Map<String, Object>> getDoctorAppointments(HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> getDoctorAppointments(@Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Map<String, Object> response = appointmentService.getDoctorAppointments(authHeader);
+            Map<String, Object> response = appointmentService.getDoctorAppointments(currentUser);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
             }
@@ -152,10 +150,9 @@ public class AppointmentController {
     public ResponseEntity<Map<String, Object>> updateAppointmentStatus(
             @PathVariable("id") Integer id,
             @RequestBody Map<String, Object> body,
-            HttpServletRequest request) {
+            @Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
@@ -169,7 +166,7 @@ public class AppointmentController {
                          (body.get("note") != null ? body.get("note").toString() : null);
             String newDateTime = body.get("newAppointmentDateTime") != null ? body.get("newAppointmentDateTime").toString() : null;
 
-            Map<String, Object> response = appointmentService.updateAppointmentStatus(authHeader, id, status, note, newDateTime);
+            Map<String, Object> response = appointmentService.updateAppointmentStatus(currentUser, id, status, note, newDateTime);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.badRequest().body(response);
             }
@@ -193,17 +190,16 @@ public class AppointmentController {
     public ResponseEntity<Map<String, Object>> respondToReschedule(
             @PathVariable("id") Integer id,
             @RequestParam("action") String action,
-            HttpServletRequest request) {
+            @Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Map<String, Object> response = appointmentService.respondToReschedule(authHeader, id, action);
+            Map<String, Object> response = appointmentService.respondToReschedule(currentUser, id, action);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.badRequest().body(response);
             }
@@ -228,10 +224,9 @@ public class AppointmentController {
     public ResponseEntity<Map<String, Object>> completeAppointment(
             @PathVariable("id") Integer id,
             @RequestBody Map<String, Object> body,
-            HttpServletRequest request) {
+            @Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
@@ -241,7 +236,7 @@ public class AppointmentController {
             String notes = body.get("notes") != null ? body.get("notes").toString() : null;
             String followUpDateTime = body.get("followUpDateTime") != null ? body.get("followUpDateTime").toString() : null;
 
-            Map<String, Object> response = appointmentService.completeAppointment(authHeader, id, notes, followUpDateTime);
+            Map<String, Object> response = appointmentService.completeAppointment(currentUser, id, notes, followUpDateTime);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.badRequest().body(response);
             }
@@ -261,17 +256,16 @@ public class AppointmentController {
     @PostMapping("/{id}/start-call")
     public ResponseEntity<Map<String, Object>> startCall(
             @PathVariable("id") Integer id,
-            HttpServletRequest request) {
+            @Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Map<String, Object> response = appointmentService.startCall(authHeader, id);
+            Map<String, Object> response = appointmentService.startCall(currentUser, id);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.badRequest().body(response);
             }
@@ -291,17 +285,16 @@ public class AppointmentController {
     @PostMapping("/{id}/end-call")
     public ResponseEntity<Map<String, Object>> endCall(
             @PathVariable("id") Integer id,
-            HttpServletRequest request) {
+            @Nullable CurrentUser currentUser) {
         try {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("status", "error");
                 error.put("message", "Authorization token required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Map<String, Object> response = appointmentService.endCall(authHeader, id);
+            Map<String, Object> response = appointmentService.endCall(currentUser, id);
             if ("error".equals(response.get("status"))) {
                 return ResponseEntity.badRequest().body(response);
             }
@@ -0,0 +1,66 @@
+package com.MediConnect.EntryRelated.controller;
+
+import com.MediConnect.EntryRelated.service.AuthSessionService;
+import com.MediConnect.config.JWTService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Session endpoints shared by patients, doctors and admins: refreshing the access token and logging out.
+ * Both are public; the refresh token (or, for logout, a still verifiable access token) is the credential.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/auth")
+public class AuthController {
+
+    private final AuthSessionService authSessionService;
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> body) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        authSessionService.refresh(body.get("refreshToken")).addTo(response);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Ends the caller's session, identified by the bearer token's session id or by the refresh token in the
+     * body. Succeeds even if the session was already over.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestBody(required = false) Map<String, String> body,
+                                                      HttpServletRequest request) {
+        String refreshToken = body != null ? body.get("refreshToken") : null;
+        if (refreshToken != null) {
+            authSessionService.logoutWithRefreshToken(refreshToken);
+        } else if (request.getAttribute(JWTService.CLAIMS_ATTRIBUTE) instanceof Claims claims
+                && claims.get(JWTService.SESSION_ID_CLAIM, String.class) != null) {
+            authSessionService.logout(claims.get(JWTService.SESSION_ID_CLAIM, String.class));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleStatus(ResponseStatusException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode()).body(response);
+    }
+}
@@ -11,14 +11,17 @@ import com.MediConnect.EntryRelated.entities.HealthcareProvider;
 import com.MediConnect.EntryRelated.entities.ProfileView;
 import com.MediConnect.EntryRelated.entities.SpecializationType;
 import com.MediConnect.EntryRelated.entities.WorkExperience;
+import com.MediConnect.EntryRelated.exception.OtpRateLimitException;
 import com.MediConnect.EntryRelated.service.ActivityService;
 import com.MediConnect.EntryRelated.service.NotificationPreferencesService;
 import com.MediConnect.EntryRelated.service.OTPService;
 import com.MediConnect.EntryRelated.service.PrivacySettingsService;
+import com.MediConnect.EntryRelated.service.blob.DocumentStorageService;
 import com.MediConnect.EntryRelated.service.healthprovider.HealthcareProviderService;
 import com.MediConnect.EntryRelated.service.review.ReviewService;
 import com.MediConnect.Service.UserService;
 import com.MediConnect.socialmedia.service.CloudinaryService;
+import com.MediConnect.util.FileDownloads;
 import com.MediConnect.config.JWTService;
 import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
 import com.MediConnect.EntryRelated.repository.PatientRepo;
@@ -31,17 +34,19 @@ import com.MediConnect.EntryRelated.dto.healthprovider.ScheduleUpdateDTO;
 import com.MediConnect.EntryRelated.dto.healthprovider.DayAvailabilityDTO;
 import com.MediConnect.EntryRelated.dto.healthprovider.BlockedTimeSlotDTO;
 import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.util.Bulkhead;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.MediaType;
-import org.springframework.http.HttpHeaders;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -64,6 +69,7 @@ public class HealthProviderController {
     private final NotificationPreferencesService notificationPreferencesService;
     private final PrivacySettingsService privacySettingsService;
     private final CloudinaryService cloudinaryService;
+    private final DocumentStorageService documentStorageService;
     private final HealthcareProviderRepo healthcareProviderRepo;
     private final ReviewService reviewService;
     private final ProfileViewRepository profileViewRepository;
@@ -81,6 +87,12 @@ public class HealthProviderController {
         try {
             Map<String, Object> response = healthcareProviderService.loginProvider(loginRequest, request);
             return ResponseEntity.ok(response);
+        } catch (OtpRateLimitException e) {
+            // Answered with 429 and Retry-After by OtpRateLimitExceptionHandler
+            throw e;
+        } catch (Bulkhead.BulkheadFullException e) {
+            // Password hashing queue full: answered with 503 and Retry-After by BulkheadFullExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> error = new HashMap<>();
             error.put("status", "error");
@@ -96,6 +108,9 @@ public class HealthProviderController {
         try {
             Map<String, Object> response = healthcareProviderService.verifyLoginOTP(request, httpRequest);
             return ResponseEntity.ok(response);
+        } catch (OtpRateLimitException e) {
+            // Answered with 429 and Retry-After by OtpRateLimitExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> error = new HashMap<>();
             error.put("status", "error");
@@ -1062,14 +1077,12 @@ public class HealthProviderController {
             HealthcareProvider provider = healthcareProviderService.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Provider not found"));
 
-            provider.setLicenseDocument(file.getBytes());
-            provider.setLicenseDocumentContentType(file.getContentType());
-            
             // Set URL to point to the local download endpoint
             String resultUrl = "http://localhost:8080/healthprovider/license/view";
             provider.setLicenseDocumentUrl(resultUrl);
-            
-            healthcareProviderRepo.save(provider);
+
+            // Also releases the previous license document once the new one is committed
+            documentStorageService.storeLicense(provider, file);
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
@@ -1085,21 +1098,21 @@ public class HealthProviderController {
     }
 
     @GetMapping("/license/view")
-    public ResponseEntity<byte[]> viewLicense(HttpServletRequest request) {
+    public ResponseEntity<Resource> viewLicense(HttpServletRequest request, HttpServletResponse response) {
         try {
             String token = request.getHeader("Authorization").substring(7);
             String username = jwtService.extractUserName(token);
             HealthcareProvider provider = healthcareProviderService.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Provider not found"));
 
-            if (provider.getLicenseDocument() == null) {
+            Resource license = documentStorageService.license(provider).orElse(null);
+            if (license == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(provider.getLicenseDocumentContentType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"license.pdf\"")
-                    .body(provider.getLicenseDocument());
+            return FileDownloads.serve(request, response, license, provider.getLicenseDocumentKey(),
+                    MediaType.parseMediaType(provider.getLicenseDocumentContentType()),
+                    "inline; filename=\"license.pdf\"");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -1113,10 +1126,11 @@ public class HealthProviderController {
      * 3. Medical records were shared for that appointment
      */
     @GetMapping("/appointment/{appointmentId}/lab-result/{labResultId}/pdf")
-    public ResponseEntity<byte[]> getLabResultPdfForDoctor(
+    public ResponseEntity<Resource> getLabResultPdfForDoctor(
             @PathVariable Integer appointmentId,
             @PathVariable Long labResultId,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             // Extract JWT token
             String authHeader = request.getHeader("Authorization");
@@ -1155,15 +1169,14 @@ public class HealthProviderController {
             }
 
             // Check if PDF exists
-            if (labResult.getImage() == null || labResult.getImage().length == 0) {
+            Resource pdf = documentStorageService.labResult(labResult).orElse(null);
+            if (pdf == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            // Return PDF
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"lab-result-" + labResultId + ".pdf\"")
-                    .body(labResult.getImage());
+            // Return PDF (ranges and conditional GET supported)
+            return FileDownloads.serve(request, response, pdf, labResult.getBlobKey(), MediaType.APPLICATION_PDF,
+                    "inline; filename=\"lab-result-" + labResultId + ".pdf\"");
 
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -77,11 +77,11 @@ public class OTPController {
         if (!resetRequest.getNewPassword().equals(resetRequest.getConfirmPassword())) {
             return buildErrorResponse("New password and confirm password do not match");
         }
-        if (!otpService.verifyPasswordResetOTP(resetRequest.getEmail(), resetRequest.getOtp())) {
+        // Consumed before the reset so the same code cannot be replayed by a concurrent request
+        if (!otpService.consumePasswordResetOTP(resetRequest.getEmail(), resetRequest.getOtp())) {
             return buildErrorResponse("Invalid or expired OTP");
         }
         userService.resetUserPassword(resetRequest.getEmail(), resetRequest.getNewPassword());
-        otpService.clearPasswordResetOTP(resetRequest.getEmail());
         return buildSuccessResponse("Password reset successfully. Please login with your new password.");
     }
 
@@ -3,31 +3,47 @@ package com.MediConnect.EntryRelated.controller;
 import com.MediConnect.ai.dto.ChatRequestDTO;
 import com.MediConnect.ai.dto.ChatResponseDTO;
 import com.MediConnect.ai.service.PatientRecommendationChatService;
+import com.MediConnect.util.Bulkhead;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Exposes the AI chatbot endpoint consumed by the landing page and patient dashboards.
+ * An OpenAI round trip takes seconds, so the reply is produced on aiTaskExecutor and the
+ * servlet thread is released meanwhile; aiBulkhead bounds concurrent OpenAI calls.
  */
 @Slf4j
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("/ai")
 public class PatientAssistantController {
 
     private final PatientRecommendationChatService chatService;
+    private final TaskExecutor aiTaskExecutor;
+    private final Bulkhead aiBulkhead;
+
+    public PatientAssistantController(PatientRecommendationChatService chatService,
+                                      @Qualifier("aiTaskExecutor") TaskExecutor aiTaskExecutor,
+                                      @Qualifier("aiBulkhead") Bulkhead aiBulkhead) {
+        this.chatService = chatService;
+        this.aiTaskExecutor = aiTaskExecutor;
+        this.aiBulkhead = aiBulkhead;
+    }
 
     @PostMapping("/chat")
-    public ResponseEntity<ChatResponseDTO> chat(@Valid @RequestBody ChatRequestDTO request) {
+    public CompletableFuture<ResponseEntity<ChatResponseDTO>> chat(@Valid @RequestBody ChatRequestDTO request) {
         log.debug("Received chatbot request with {} messages", request.getMessages().size());
-        ChatResponseDTO response = chatService.chat(request);
-        return ResponseEntity.ok(response);
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(aiBulkhead.callUnchecked(() -> chatService.chat(request))),
+                aiTaskExecutor);
     }
 }
 
@@ -11,17 +11,22 @@ import com.MediConnect.EntryRelated.entities.Patient;
 import com.MediConnect.config.JWTService;
 import com.MediConnect.EntryRelated.repository.LabResultRepo;
 import com.MediConnect.EntryRelated.repository.PatientRepo;
+import com.MediConnect.EntryRelated.exception.OtpRateLimitException;
 import com.MediConnect.EntryRelated.service.patient.PatientService;
 import com.MediConnect.EntryRelated.service.OTPService;
 import com.MediConnect.EntryRelated.service.ActivityService;
 import com.MediConnect.EntryRelated.service.NotificationPreferencesService;
 import com.MediConnect.EntryRelated.service.PrivacySettingsService;
+import com.MediConnect.EntryRelated.service.blob.DocumentStorageService;
 import com.MediConnect.Service.UserService;
 import com.MediConnect.socialmedia.service.CloudinaryService;
+import com.MediConnect.util.Bulkhead;
+import com.MediConnect.util.FileDownloads;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -30,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
@@ -50,6 +56,7 @@ public class PatientController {
     private final NotificationPreferencesService notificationPreferencesService;
     private final PrivacySettingsService privacySettingsService;
     private final CloudinaryService cloudinaryService;
+    private final DocumentStorageService documentStorageService;
     private final com.MediConnect.EntryRelated.repository.HealthcareProviderRepo healthcareProviderRepo;
     private final com.MediConnect.Repos.UserRepo userRepo;
 
@@ -99,6 +106,12 @@ public class PatientController {
         try {
             Map<String, Object> response = patientService.login(patientInfo, request);
             return ResponseEntity.ok(response);
+        } catch (OtpRateLimitException e) {
+            // Answered with 429 and Retry-After by OtpRateLimitExceptionHandler
+            throw e;
+        } catch (Bulkhead.BulkheadFullException e) {
+            // Password hashing queue full: answered with 503 and Retry-After by BulkheadFullExceptionHandler
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("status", "error");
@@ -112,6 +125,9 @@ public class PatientController {
         try {
             Map<String, Object> response = patientService.verifyLoginOTP(request, httpRequest);
             return ResponseEntity.ok(response);
+        } catch (OtpRateLimitException e) {
+            // Answered with 429 and Retry-After by OtpRateLimitExceptionHandler
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("status", "error");
@@ -146,8 +162,8 @@ public class PatientController {
         }
     }
     @GetMapping("/lab-result/{id}/image")
-    public ResponseEntity<byte[]> getLabResultImage(@PathVariable Long id) {
-        byte[] image = patientService.getLabResultImage(id);
+    public ResponseEntity<Resource> getLabResultImage(@PathVariable Long id) throws IOException {
+        Resource image = patientService.getLabResultImage(id);
 
         if (image == null) {
             return ResponseEntity.notFound().build();
@@ -155,7 +171,7 @@ public class PatientController {
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.IMAGE_JPEG);
-        headers.setContentLength(image.length);
+        headers.setContentLength(image.contentLength());
 
         return new ResponseEntity<>(image, headers, HttpStatus.OK);
     }
@@ -902,15 +918,11 @@ public class PatientController {
             Patient patient = patientRepo.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-            // Save to DB directly (Bypassing Cloudinary)
+            // Store the PDF in the blob store (bypassing Cloudinary); the row keeps its key and size
             LaboratoryResult labResult = new LaboratoryResult();
             labResult.setDescription(description);
             labResult.setPatient(patient);
-            labResult.setImage(file.getBytes());
-            labResult.setHasImage(true);
-            labResult.setImageSize((int) file.getSize());
-            
-            LaboratoryResult savedResult = labResultRepo.save(labResult);
+            LaboratoryResult savedResult = documentStorageService.storeLabResult(labResult, file);
             
             // Set URL to point to the local download endpoint
             // We need to save first to get the ID, then update the URL
@@ -947,18 +959,20 @@ public class PatientController {
     }
 
     @GetMapping("/lab-result/{id}/pdf")
-    public ResponseEntity<byte[]> getLabResultPdf(@PathVariable Long id) {
+    public ResponseEntity<Resource> getLabResultPdf(@PathVariable Long id,
+                                                    HttpServletRequest request,
+                                                    HttpServletResponse response) throws IOException {
         LaboratoryResult labResult = labResultRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Lab result not found"));
 
-        if (labResult.getImage() == null) {
+        Resource pdf = documentStorageService.labResult(labResult).orElse(null);
+        if (pdf == null) {
              return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"lab-result.pdf\"")
-                .body(labResult.getImage());
+        // Supports Range and If-None-Match; the blob key is the content hash
+        return FileDownloads.serve(request, response, pdf, labResult.getBlobKey(),
+                MediaType.APPLICATION_PDF, "inline; filename=\"lab-result.pdf\"");
     }
 
     @DeleteMapping("/lab-result/{id}")
@@ -988,8 +1002,9 @@ public class PatientController {
                 // TODO: Implement Cloudinary delete
             }
 
-            // Delete from DB
+            // Delete from DB, then the stored PDF unless another row shares it
             labResultRepo.delete(labResult);
+            documentStorageService.release(labResult.getBlobKey());
 
             Map<String, String> response = new HashMap<>();
             response.put("status", "success");
@@ -14,5 +14,7 @@ public class AdminLoginResponseDTO {
     private String token;
     private String username;
     private String role;
+    private String refreshToken;
+    private long expiresIn;
 }
 
@@ -0,0 +1,18 @@
+package com.MediConnect.EntryRelated.dto.appointment;
+
+/**
+ * Who may signal on an appointment's video call, loaded without the Patient/HealthcareProvider entities.
+ */
+public record VideoCallParticipants(Integer appointmentId, String patientUsername, String doctorUsername, Boolean callActive) {
+
+    public boolean isParticipant(String username) {
+        return username != null && (username.equals(patientUsername) || username.equals(doctorUsername));
+    }
+
+    /**
+     * @return the other participant's username (the signal recipient when {@code username} sends)
+     */
+    public String otherParticipant(String username) {
+        return username.equals(patientUsername) ? doctorUsername : patientUsername;
+    }
+}
@@ -21,8 +21,9 @@ public class HealthcareProvider extends Users {
     private String licenseNumber;
     private String licenseDocumentUrl;
     
-    @Column(columnDefinition = "BYTEA")
-    private byte[] licenseDocument;
+    // Key of the uploaded license in the BlobStore (see DocumentStorageService)
+    @Column(length = 64)
+    private String licenseDocumentKey;
 
     private String licenseDocumentContentType;
 
@@ -15,8 +15,9 @@ public class LaboratoryResult {
 
     private String description;
 
-    @Column(columnDefinition = "BYTEA")
-    private byte[] image;
+    // Key of the document in the BlobStore (see DocumentStorageService)
+    @Column(length = 64)
+    private String blobKey;
 
     private String resultUrl;
 
@@ -24,9 +24,23 @@ public class LoginSession {
     @JoinColumn(name = "user_id", nullable = false)
     private Users user;
     
-    @Column(nullable = false)
+    // Session id, the "sid" claim of the session's access tokens (older rows hold the access token itself)
+    @Column(nullable = false, columnDefinition = "TEXT")
     private String sessionToken;
     
+    // SHA-256 (hex) of the current refresh token and of the one it replaced, for reuse detection
+    @Column(length = 64)
+    private String refreshTokenHash;
+    
+    @Column(length = 64)
+    private String previousRefreshTokenHash;
+    
+    @Column
+    private LocalDateTime refreshExpiresAt;
+    
+    @Column
+    private LocalDateTime refreshedAt;
+    
     @Column(nullable = false)
     private String ipAddress;
     
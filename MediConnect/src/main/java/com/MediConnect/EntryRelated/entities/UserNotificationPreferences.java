@@ -19,7 +19,7 @@ public class UserNotificationPreferences {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private Users user;
     
@@ -84,26 +84,4 @@ public class UserNotificationPreferences {
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
-    
-    // Method to check if a specific notification type is enabled
-    public boolean isNotificationEnabled(String notificationType) {
-        return switch (notificationType.toLowerCase()) {
-            case "email" -> emailNotifications;
-            case "push" -> pushNotifications;
-            case "post_likes", "postlikes" -> postLikes;
-            case "post_comments", "postcomments" -> postComments;
-            case "comment_likes", "commentlikes" -> commentLikes;
-            case "comment_replies", "commentreplies" -> commentReplies;
-            case "appointment_reminders", "appointmentreminders" -> appointmentReminders;
-            case "prescription_updates", "prescriptionupdates" -> prescriptionUpdates;
-            case "lab_results", "labresults" -> labResults;
-            case "medication_reminders", "medicationreminders" -> medicationReminders;
-            case "security_alerts", "securityalerts" -> securityAlerts;
-            case "login_alerts", "loginalerts" -> loginAlerts;
-            case "password_change_alerts", "passwordchangealerts" -> passwordChangeAlerts;
-            case "system_updates", "systemupdates" -> systemUpdates;
-            case "maintenance_alerts", "maintenancealerts" -> maintenanceAlerts;
-            default -> true; // Default to enabled for unknown types
-        };
-    }
 }
@@ -62,4 +62,9 @@ public class Users {
     @Enumerated(EnumType.STRING)
     @Column(name = "account_status", nullable = false)
     private AccountStatus accountStatus = AccountStatus.ACTIVE;
+
+    // Bumped only by TokenVersionService.revokeAll; read-only here so saving the entity cannot undo a bump
+    @Column(name = "token_version", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private Integer tokenVersion;
 }
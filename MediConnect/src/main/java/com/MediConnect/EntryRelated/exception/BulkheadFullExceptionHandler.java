@@ -0,0 +1,30 @@
+package com.MediConnect.EntryRelated.exception;
+
+import com.MediConnect.util.Bulkhead;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers a full bulkhead with 503 and Retry-After (seconds) wherever it is raised, including the password
+ * check inside sign-in when the hashing queue is full, so clients retry instead of reporting bad credentials.
+ */
+@RestControllerAdvice
+public class BulkheadFullExceptionHandler {
+
+    @ExceptionHandler(Bulkhead.BulkheadFullException.class)
+    public ResponseEntity<Map<String, String>> handleBulkheadFull(Bulkhead.BulkheadFullException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(response);
+    }
+}
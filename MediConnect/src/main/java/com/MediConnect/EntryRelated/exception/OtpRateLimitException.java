@@ -0,0 +1,24 @@
+package com.MediConnect.EntryRelated.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class OtpRateLimitException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OtpRateLimitException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return time until the limit that rejected the request resets
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,30 @@
+package com.MediConnect.EntryRelated.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers an OTP rate limit with 429 and Retry-After (seconds) wherever it is raised: sending or verifying
+ * codes in OTPController as well as the patient and provider login endpoints, so clients can tell a lockout
+ * from a wrong code.
+ */
+@RestControllerAdvice
+public class OtpRateLimitExceptionHandler {
+
+    @ExceptionHandler(OtpRateLimitException.class)
+    public ResponseEntity<Map<String, String>> handleRateLimit(OtpRateLimitException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(response);
+    }
+}
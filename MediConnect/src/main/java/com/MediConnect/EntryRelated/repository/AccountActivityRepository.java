@@ -27,7 +27,4 @@ public interface AccountActivityRepository extends JpaRepository<AccountActivity
         @Param("startDate") LocalDateTime startDate, 
         @Param("endDate") LocalDateTime endDate
     );
-    
-    // Delete old activities (cleanup)
-    void deleteByUserAndTimestampBefore(Users user, LocalDateTime cutoffTime);
 }
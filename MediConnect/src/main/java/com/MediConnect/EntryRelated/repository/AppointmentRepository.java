@@ -1,6 +1,7 @@
 package com.MediConnect.EntryRelated.repository;
 
 import com.MediConnect.Entities.AppointmentEntity;
+import com.MediConnect.EntryRelated.dto.appointment.VideoCallParticipants;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,12 +10,21 @@ import org.springframework.stereotype.Repository;
 import com.MediConnect.Entities.AppointmentStatus;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<AppointmentEntity, Integer> {
     List<AppointmentEntity> findByPatientId(Long patientId);
     List<AppointmentEntity> findByHealthcareProviderId(Long providerId);
     
+    /**
+     * Participants and call state of an appointment, used to authorize video signaling
+     */
+    @Query("SELECT new com.MediConnect.EntryRelated.dto.appointment.VideoCallParticipants(" +
+           "a.id, a.patient.username, a.healthcareProvider.username, a.isCallActive) " +
+           "FROM AppointmentEntity a WHERE a.id = :appointmentId")
+    Optional<VideoCallParticipants> findVideoCallParticipants(@Param("appointmentId") Integer appointmentId);
+    
     /**
      * Find confirmed appointments that need a 24-hour reminder
      * Appointments that are:
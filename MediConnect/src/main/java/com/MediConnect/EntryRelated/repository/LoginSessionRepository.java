@@ -26,8 +26,6 @@ public interface LoginSessionRepository extends JpaRepository<LoginSession, Long
     @Query("SELECT ls FROM LoginSession ls WHERE ls.user = :user ORDER BY ls.loginTime DESC LIMIT :limit")
     List<LoginSession> findRecentSessionsByUser(@Param("user") Users user, @Param("limit") int limit);
     
-    void deleteByUserAndIsActiveFalseAndLogoutTimeBefore(Users user, LocalDateTime cutoffTime);
-    
     // Find sessions that haven't been active for a certain period
     @Query("SELECT ls FROM LoginSession ls WHERE ls.user = :user AND ls.isActive = true AND ls.lastActivityTime < :cutoffTime")
     List<LoginSession> findInactiveSessions(@Param("user") Users user, @Param("cutoffTime") LocalDateTime cutoffTime);
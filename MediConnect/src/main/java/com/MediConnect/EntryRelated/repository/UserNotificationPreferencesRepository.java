@@ -5,6 +5,8 @@ import com.MediConnect.EntryRelated.entities.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,5 +16,7 @@ public interface UserNotificationPreferencesRepository extends JpaRepository<Use
     
     Optional<UserNotificationPreferences> findByUserId(Long userId);
     
+    List<UserNotificationPreferences> findByUserIdIn(Collection<Long> userIds);
+    
     boolean existsByUser(Users user);
 }
@@ -0,0 +1,137 @@
+package com.MediConnect.EntryRelated.service;
+
+import com.MediConnect.EntryRelated.entities.AccountStatus;
+import com.MediConnect.util.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Account status and admin flag per user, as consulted on every authenticated request and STOMP CONNECT.
+ *
+ * Entries are kept in process and dropped by {@link #invalidate} whenever an admin changes a status or flag.
+ * The invalidation is published on the Redis channel auth:account-status so every instance drops its copy
+ * as well; auth.account-status.local-ttl-minutes only bounds staleness if such a message is lost.
+ *
+ * The subscription is (re)established by {@link #subscribe} rather than at startup, so the application
+ * starts without Redis. While it is down, other instances' entries expire after the local TTL.
+ */
+@Slf4j
+@Service
+public class AccountStatusCache implements MessageListener {
+
+    /** What the gate knows about an account. */
+    public record AccountState(AccountStatus status, boolean flagged) {
+        public boolean isActive() {
+            return status == AccountStatus.ACTIVE;
+        }
+    }
+
+    private static final String CHANNEL = "auth:account-status";
+
+    private static final String LOAD =
+            "SELECT u.account_status, COALESCE(p.admin_flagged, h.admin_flagged, false) AS flagged FROM users u " +
+            "LEFT JOIN patient p ON p.id = u.id LEFT JOIN healthcare_provider h ON h.id = u.id WHERE u.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<Long, Optional<AccountState>> local;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public AccountStatusCache(
+            JdbcTemplate jdbcTemplate,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth.account-status.local-ttl-minutes:10}") long localTtlMinutes,
+            @Value("${auth.account-status.local-max-size:100000}") long localMaxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(localTtlMinutes))
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "auth:account-status");
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.account-status.subscribe-retry-ms:10000}")
+    public void subscribe() {
+        if (listenerContainer.isListening()) return;
+        try {
+            // A failed start leaves the container marked as started; stop() resets it for the retry
+            listenerContainer.stop();
+            listenerContainer.start();
+            local.invalidateAll();
+            log.info("Subscribed to account status invalidations");
+        } catch (Exception e) {
+            log.debug("Account status invalidations not subscribed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    /**
+     * Current state of the account, or empty if the user does not exist.
+     */
+    public Optional<AccountState> get(Long userId) {
+        return local.get(userId, this::load);
+    }
+
+    public boolean isActive(Long userId) {
+        return get(userId).map(AccountState::isActive).orElse(false);
+    }
+
+    /**
+     * Drops the cached state of the user on every instance once the surrounding transaction commits.
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            local.invalidate(userId);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, userId.toString());
+            } catch (Exception e) {
+                log.warn("Could not publish account status change of user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            local.invalidate(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed account status invalidation: {}", e.getMessage());
+        }
+    }
+
+    private Optional<AccountState> load(Long userId) {
+        List<AccountState> states = jdbcTemplate.query(LOAD,
+                (rs, row) -> new AccountState(AccountStatus.valueOf(rs.getString(1)), rs.getBoolean(2)),
+                userId);
+        return states.stream().findFirst();
+    }
+}
@@ -7,6 +7,10 @@ import com.MediConnect.EntryRelated.entities.LoginSession;
 import com.MediConnect.EntryRelated.entities.Users;
 import com.MediConnect.EntryRelated.repository.AccountActivityRepository;
 import com.MediConnect.EntryRelated.repository.LoginSessionRepository;
+import com.MediConnect.EntryRelated.service.activity.ActivityEvent;
+import com.MediConnect.EntryRelated.service.activity.ActivityLogBuffer;
+import com.MediConnect.EntryRelated.service.activity.UserAgents;
+import com.MediConnect.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,32 +28,38 @@ public class ActivityService {
     
     private final LoginSessionRepository loginSessionRepository;
     private final AccountActivityRepository accountActivityRepository;
+    private final ActivityLogBuffer activityLogBuffer;
     
     /**
-     * Create a new login session
+     * Record a login: inserts the session row right away, so its refresh token works and a logout finds it as
+     * soon as the login returns, and queues the LOGIN activity for ActivityLogBuffer.
+     *
+     * @param sessionId        the "sid" of the session's access tokens
+     * @param refreshTokenHash SHA-256 of the session's first refresh token
      */
     @Transactional
-    public LoginSession createLoginSession(Users user, String sessionToken, HttpServletRequest request) {
+    public void createLoginSession(Users user, String sessionId, String refreshTokenHash,
+                                   LocalDateTime refreshExpiresAt, HttpServletRequest request) {
+        String ipAddress = getClientIpAddress(request);
+        String userAgent = request.getHeader("User-Agent");
+        LocalDateTime now = LocalDateTime.now();
+
         LoginSession session = new LoginSession();
         session.setUser(user);
-        session.setSessionToken(sessionToken);
-        session.setIpAddress(getClientIpAddress(request));
-        session.setUserAgent(request.getHeader("User-Agent"));
-        session.setLocation(detectLocation(request)); // You can implement IP geolocation
-        session.setDevice(detectDevice(request));
-        session.setBrowser(detectBrowser(request));
-        session.setLoginTime(LocalDateTime.now());
-        session.setLastActivityTime(LocalDateTime.now());
-        
-        LoginSession savedSession = loginSessionRepository.save(session);
-        
-        // Log the login activity
-        logAccountActivity(user, AccountActivity.ActivityType.LOGIN, 
-            "Successful login from " + session.getBrowser() + " on " + session.getDevice(), 
-            request);
-        
-        log.info("Created login session for user {} with session token {}", user.getUsername(), sessionToken);
-        return savedSession;
+        session.setSessionToken(sessionId);
+        session.setRefreshTokenHash(refreshTokenHash);
+        session.setRefreshExpiresAt(refreshExpiresAt);
+        session.setIpAddress(UserAgents.truncate(ipAddress != null ? ipAddress : "Unknown"));
+        session.setUserAgent(userAgent != null ? UserAgents.truncate(userAgent) : "Unknown");
+        session.setLocation("Unknown Location");
+        session.setDevice(UserAgents.device(userAgent));
+        session.setBrowser(UserAgents.browser(userAgent));
+        session.setLoginTime(now);
+        session.setLastActivityTime(now);
+        loginSessionRepository.save(session);
+
+        AfterCommit.run(() -> activityLogBuffer.enqueue(ActivityEvent.login(user.getId(), ipAddress, userAgent)));
+        log.debug("Opened login session for user {}", user.getUsername());
     }
     
     /**
@@ -72,24 +82,13 @@ public class ActivityService {
     }
     
     /**
-     * Log account activity
+     * Log account activity; written asynchronously by ActivityLogBuffer
      */
-    @Transactional
     public void logAccountActivity(Users user, AccountActivity.ActivityType type, String description, HttpServletRequest request) {
-        AccountActivity activity = new AccountActivity();
-        activity.setUser(user);
-        activity.setType(type);
-        activity.setDescription(description);
-        
-        if (request != null) {
-            activity.setIpAddress(getClientIpAddress(request));
-            activity.setUserAgent(request.getHeader("User-Agent"));
-            activity.setLocation(detectLocation(request));
-            activity.setDevice(detectDevice(request));
-        }
-        
-        accountActivityRepository.save(activity);
-        log.debug("Logged activity {} for user {}", type, user.getUsername());
+        activityLogBuffer.enqueue(ActivityEvent.activity(user.getId(), type, description,
+            request != null ? getClientIpAddress(request) : null,
+            request != null ? request.getHeader("User-Agent") : null));
+        log.debug("Queued activity {} for user {}", type, user.getUsername());
     }
     
     /**
@@ -124,20 +123,6 @@ public class ActivityService {
             });
     }
     
-    /**
-     * Cleanup old inactive sessions
-     */
-    @Transactional
-    public void cleanupOldSessions(Users user, int daysToKeep) {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusDays(daysToKeep);
-        loginSessionRepository.deleteByUserAndIsActiveFalseAndLogoutTimeBefore(user, cutoffTime);
-        
-        // Also cleanup old account activities
-        accountActivityRepository.deleteByUserAndTimestampBefore(user, cutoffTime);
-        
-        log.info("Cleaned up old sessions and activities for user {}", user.getUsername());
-    }
-    
     // Helper methods
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
@@ -147,38 +132,6 @@ public class ActivityService {
         return request.getRemoteAddr();
     }
     
-    private String detectLocation(HttpServletRequest request) {
-        // TODO: Implement IP geolocation service
-        // For now, return a placeholder
-        return "Unknown Location";
-    }
-    
-    private String detectDevice(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent != null) {
-            if (userAgent.contains("Mobile") || userAgent.contains("Android") || userAgent.contains("iPhone")) {
-                return "Mobile";
-            } else if (userAgent.contains("Tablet") || userAgent.contains("iPad")) {
-                return "Tablet";
-            } else {
-                return "Desktop";
-            }
-        }
-        return "Unknown Device";
-    }
-    
-    private String detectBrowser(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent != null) {
-            if (userAgent.contains("Chrome")) return "Chrome";
-            if (userAgent.contains("Firefox")) return "Firefox";
-            if (userAgent.contains("Safari") && !userAgent.contains("Chrome")) return "Safari";
-            if (userAgent.contains("Edge")) return "Edge";
-            if (userAgent.contains("Opera")) return "Opera";
-        }
-        return "Unknown Browser";
-    }
-    
     private LoginSessionDTO convertToLoginSessionDTO(LoginSession session) {
         LoginSessionDTO dto = new LoginSessionDTO();
         dto.setId(session.getId());
@@ -0,0 +1,205 @@
+package com.MediConnect.EntryRelated.service;
+
+import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.EntryRelated.exception.AccountStatusException;
+import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.Service.UserService;
+import com.MediConnect.config.JWTService;
+import com.MediConnect.config.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Login sessions: short-lived access tokens plus a rotating refresh token per session.
+ *
+ * A login opens a session (login_sessions row, inserted before the tokens are returned) identified by a random id that
+ * every access token of the session carries as its "sid" claim. The refresh token is "{sid}.{secret}"; only
+ * its SHA-256 is stored. Each refresh replaces it, so a refresh token works once. Presenting the previous
+ * one again after auth.refresh.reuse-grace-seconds means it was copied: the session is ended. Within the
+ * grace period it is treated as a benign race (two tabs refreshing at once) and simply refused.
+ *
+ * Refresh tokens expire auth.jwt.refresh-ttl-days after login, however often they are rotated. Ending a
+ * session (logout, reuse, blocked account) adds it to SessionRevocationIndex, which rejects its remaining
+ * access tokens.
+ */
+@Slf4j
+@Service
+public class AuthSessionService {
+
+    /** Tokens handed to the client after a login or refresh. */
+    public record Tokens(String accessToken, String refreshToken, long expiresInSeconds) {
+        public void addTo(Map<String, Object> response) {
+            response.put("token", accessToken);
+            response.put("refreshToken", refreshToken);
+            response.put("expiresIn", expiresInSeconds);
+        }
+    }
+
+    private static final String ROTATE =
+            "UPDATE login_sessions SET previous_refresh_token_hash = refresh_token_hash, refresh_token_hash = ?, " +
+            "refreshed_at = ?, last_activity_time = ? " +
+            "WHERE session_token = ? AND refresh_token_hash = ? AND is_active AND refresh_expires_at > ? " +
+            "RETURNING user_id";
+
+    private static final String END_REUSED =
+            "UPDATE login_sessions SET is_active = false, logout_time = ? " +
+            "WHERE session_token = ? AND is_active AND previous_refresh_token_hash = ? AND refreshed_at < ? " +
+            "RETURNING user_id";
+
+    private static final String MATCHES_CURRENT =
+            "SELECT count(*) FROM login_sessions WHERE session_token = ? AND refresh_token_hash = ? AND is_active";
+
+    private final SecureRandom random = new SecureRandom();
+    private final JdbcTemplate jdbcTemplate;
+    private final JWTService jwtService;
+    private final ActivityService activityService;
+    private final SessionRevocationIndex sessionRevocationIndex;
+    private final UserRepo userRepo;
+    private final UserService userService;
+    private final Duration refreshTtl;
+    private final Duration reuseGrace;
+
+    public AuthSessionService(
+            JdbcTemplate jdbcTemplate,
+            JWTService jwtService,
+            ActivityService activityService,
+            SessionRevocationIndex sessionRevocationIndex,
+            UserRepo userRepo,
+            UserService userService,
+            @Value("${auth.jwt.refresh-ttl-days:14}") long refreshTtlDays,
+            @Value("${auth.refresh.reuse-grace-seconds:30}") long reuseGraceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jwtService = jwtService;
+        this.activityService = activityService;
+        this.sessionRevocationIndex = sessionRevocationIndex;
+        this.userRepo = userRepo;
+        this.userService = userService;
+        this.refreshTtl = Duration.ofDays(refreshTtlDays);
+        this.reuseGrace = Duration.ofSeconds(reuseGraceSeconds);
+    }
+
+    /**
+     * Opens a session for a user whose credentials (and OTP, if enabled) were just verified.
+     */
+    @Transactional
+    public Tokens start(Users user, HttpServletRequest request) {
+        String sessionId = UUID.randomUUID().toString();
+        String refreshToken = newRefreshToken(sessionId);
+        activityService.createLoginSession(user, sessionId, sha256(refreshToken),
+                LocalDateTime.now().plus(refreshTtl), request);
+        return tokens(user, sessionId, refreshToken);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     *
+     * @throws ResponseStatusException 401 if the token is unknown, used or expired, 403 if the account is blocked
+     */
+    public Tokens refresh(String refreshToken) {
+        String sessionId = sessionIdOf(refreshToken);
+        if (sessionRevocationIndex.isRevoked(sessionId)) {
+            throw unauthorized();
+        }
+
+        String presented = sha256(refreshToken);
+        String next = newRefreshToken(sessionId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> owners = jdbcTemplate.queryForList(ROTATE, Long.class,
+                sha256(next), now, now, sessionId, presented, now);
+        if (owners.isEmpty()) {
+            endIfReused(sessionId, presented);
+            throw unauthorized();
+        }
+
+        Users user = userRepo.findById(owners.get(0)).orElseThrow(AuthSessionService::unauthorized);
+        try {
+            userService.assertCanSignIn(user);
+        } catch (AccountStatusException e) {
+            end(sessionId);
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        }
+        return tokens(user, sessionId, next);
+    }
+
+    /**
+     * Ends the session of an access token (its "sid" claim).
+     */
+    public void logout(String sessionId) {
+        end(sessionId);
+    }
+
+    /**
+     * Ends the session a refresh token belongs to, if the token is still its current one.
+     */
+    public void logoutWithRefreshToken(String refreshToken) {
+        String sessionId = sessionIdOf(refreshToken);
+        Integer matches = jdbcTemplate.queryForObject(MATCHES_CURRENT, Integer.class, sessionId, sha256(refreshToken));
+        if (matches != null && matches > 0) {
+            end(sessionId);
+        }
+    }
+
+    private void end(String sessionId) {
+        sessionRevocationIndex.revoke(sessionId);
+        activityService.logoutSession(sessionId);
+    }
+
+    private void endIfReused(String sessionId, String presentedHash) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> owners = jdbcTemplate.queryForList(END_REUSED, Long.class,
+                Timestamp.valueOf(now), sessionId, presentedHash, Timestamp.valueOf(now.minus(reuseGrace)));
+        if (!owners.isEmpty()) {
+            sessionRevocationIndex.revoke(sessionId);
+            log.warn("Refresh token of session {} (user {}) was used twice; session ended", sessionId, owners.get(0));
+        }
+    }
+
+    private Tokens tokens(Users user, String sessionId, String refreshToken) {
+        String accessToken = jwtService.generateToken(new UserPrincipal(user), sessionId);
+        return new Tokens(accessToken, refreshToken, jwtService.getAccessTokenTtl().toSeconds());
+    }
+
+    private String newRefreshToken(String sessionId) {
+        byte[] secret = new byte[32];
+        random.nextBytes(secret);
+        return sessionId + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private static String sessionIdOf(String refreshToken) {
+        int dot = refreshToken == null ? -1 : refreshToken.indexOf('.');
+        if (dot <= 0) throw unauthorized();
+        return refreshToken.substring(0, dot);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResponseStatusException unauthorized() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Session expired, please sign in again");
+    }
+}
@@ -4,14 +4,17 @@ import com.MediConnect.EntryRelated.entities.Users;
 import com.MediConnect.Repos.UserRepo;
 import com.MediConnect.config.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepo userRepo;
 
     @Override
@@ -20,4 +23,21 @@ public class MyUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return new UserPrincipal(user);
     }
+
+    /**
+     * Stores a password re-hashed after login (see PasswordHashingService#upgradeEncoding). A failed
+     * update only logs: the login still succeeds and the upgrade is retried next time.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            userRepo.updatePasswordByUsername(user.getUsername(), newPassword);
+        } catch (RuntimeException e) {
+            log.warn("Could not store upgraded password hash for user {}: {}", user.getUsername(), e.getMessage());
+            return user;
+        }
+        return userRepo.findByUsername(user.getUsername())
+                .<UserDetails>map(UserPrincipal::new)
+                .orElse(user);
+    }
 }
@@ -5,14 +5,21 @@ import com.MediConnect.EntryRelated.entities.UserNotificationPreferences;
 import com.MediConnect.EntryRelated.entities.Users;
 import com.MediConnect.EntryRelated.repository.UserNotificationPreferencesRepository;
 import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.util.TieredCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Notification preferences per user.
+ * Lookups made while creating notifications are served from a TieredCache (Caffeine + Redis);
+ * updates write the new preferences through to it.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -20,6 +27,7 @@ public class NotificationPreferencesService {
     
     private final UserNotificationPreferencesRepository preferencesRepository;
     private final UserRepo userRepository;
+    private final TieredCache<NotificationPreferencesDTO> preferencesCache;
 
     /**
      * Get notification preferences for a user, creating default preferences if none exist
@@ -60,17 +68,38 @@ public class NotificationPreferencesService {
         UserNotificationPreferences saved = preferencesRepository.save(preferences);
         log.info("Updated notification preferences for user: {}", user.getUsername());
         
-        return convertToDTO(saved);
+        NotificationPreferencesDTO updated = convertToDTO(saved);
+        preferencesCache.put(user.getId(), updated);
+        return updated;
     }
     
     /**
-     * Check if a specific notification type is enabled for a user
+     * Check if a specific notification type is enabled for a user.
+     * Users without a preferences row get the defaults; nothing is written on this path.
      */
     public boolean isNotificationEnabled(Users user, String notificationType) {
-        UserNotificationPreferences preferences = preferencesRepository.findByUser(user)
-            .orElseGet(() -> createDefaultPreferences(user));
-        
-        return preferences.isNotificationEnabled(notificationType);
+        return preferencesCache.get(user.getId(), this::loadPreferences).isNotificationEnabled(notificationType);
+    }
+    
+    /**
+     * Loads the preferences of many users into the cache with one query (before a notification fan-out).
+     */
+    public void prefetch(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        preferencesCache.getAll(userIds, missing -> {
+            Map<Long, NotificationPreferencesDTO> loaded = new HashMap<>();
+            for (UserNotificationPreferences preferences : preferencesRepository.findByUserIdIn(missing)) {
+                loaded.put(preferences.getUser().getId(), convertToDTO(preferences));
+            }
+            missing.forEach(id -> loaded.putIfAbsent(id, new NotificationPreferencesDTO()));
+            return loaded;
+        });
+    }
+    
+    private NotificationPreferencesDTO loadPreferences(Long userId) {
+        return preferencesRepository.findByUserId(userId)
+            .map(this::convertToDTO)
+            .orElseGet(NotificationPreferencesDTO::new);
     }
     
     /**
@@ -1,96 +1,111 @@
 package com.MediConnect.EntryRelated.service;
 
-import com.MediConnect.Service.OtpCacheService;
+import com.MediConnect.EntryRelated.exception.OtpRateLimitException;
+import com.MediConnect.EntryRelated.service.notification.MailDispatcher;
+import com.MediConnect.Service.OtpStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.util.Random;
+import java.security.SecureRandom;
 
 @Service
 @RequiredArgsConstructor
 public class OTPService {
 
-    private final JavaMailSender mailSender;
-    private final OtpCacheService otpCacheService;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final MailDispatcher mailDispatcher;
+    private final OtpStore otpStore;
 
     public String sendRegistrationOTP(String email) {
-        String cleanedEmail = normalize(email);
-        validateEmail(cleanedEmail);
-        String otp = generateOTP();
-        otpCacheService.cacheOTP(cleanedEmail + "_REGISTRATION", otp);
-        sendOTPEmail(cleanedEmail, otp, "Registration");
+        send(normalize(email), OtpStore.Purpose.REGISTRATION, "Registration", MailDispatcher.Priority.NORMAL);
         return "Registration OTP sent successfully";
     }
 
     public String sendPasswordResetOTP(String email) {
-        String cleanedEmail = normalize(email);
-        validateEmail(cleanedEmail);
-        String otp = generateOTP();
-        otpCacheService.cacheOTP(cleanedEmail + "_PASSWORD_RESET", otp);
-        sendOTPEmail(cleanedEmail, otp, "Password Reset");
+        send(normalize(email), OtpStore.Purpose.PASSWORD_RESET, "Password Reset", MailDispatcher.Priority.NORMAL);
         return "Password reset OTP sent successfully";
     }
 
+    public String sendLoginOTP(String email) {
+        send(normalize(email), OtpStore.Purpose.LOGIN, "Login Verification", MailDispatcher.Priority.HIGH);
+        return "Login OTP sent successfully";
+    }
+
+    /**
+     * Checks and consumes a registration code.
+     */
     public boolean verifyRegistrationOTP(String email, String otp) {
-        String cleanedEmail = normalize(email);
-        String cached = otpCacheService.getCachedOTP(cleanedEmail + "_REGISTRATION");
-        return otp != null && otp.equals(cached);
+        return verify(OtpStore.Purpose.REGISTRATION, email, otp, true);
     }
 
+    /**
+     * Checks a password reset code without consuming it; the reset itself calls {@link #consumePasswordResetOTP}.
+     */
     public boolean verifyPasswordResetOTP(String email, String otp) {
-        String cleanedEmail = normalize(email);
-        String cached = otpCacheService.getCachedOTP(cleanedEmail + "_PASSWORD_RESET");
-        return otp != null && otp.equals(cached);
+        return verify(OtpStore.Purpose.PASSWORD_RESET, email, otp, false);
     }
 
-    public void clearRegistrationOTP(String email) {
-        otpCacheService.clearOTP(normalize(email) + "_REGISTRATION");
+    public boolean consumePasswordResetOTP(String email, String otp) {
+        return verify(OtpStore.Purpose.PASSWORD_RESET, email, otp, true);
     }
 
-    public void clearPasswordResetOTP(String email) {
-        otpCacheService.clearOTP(normalize(email) + "_PASSWORD_RESET");
+    /**
+     * Checks and consumes a login code.
+     */
+    public boolean verifyLoginOTP(String email, String otp) {
+        return verify(OtpStore.Purpose.LOGIN, email, otp, true);
     }
 
-    public void markRegistrationOTPAsVerified(String email) {
-        otpCacheService.cacheOTP(normalize(email) + "_REGISTRATION_VERIFIED", "true");
+    public void clearRegistrationOTP(String email) {
+        otpStore.clear(OtpStore.Purpose.REGISTRATION, normalize(email));
     }
 
-    public boolean isRegistrationOTPVerified(String email) {
-        String verified = otpCacheService.getCachedOTP(normalize(email) + "_REGISTRATION_VERIFIED");
-        return "true".equals(verified);
+    public void clearPasswordResetOTP(String email) {
+        otpStore.clear(OtpStore.Purpose.PASSWORD_RESET, normalize(email));
     }
 
-    public String sendLoginOTP(String email) {
-        String cleanedEmail = normalize(email);
-        validateEmail(cleanedEmail);
-        String otp = generateOTP();
-        otpCacheService.cacheOTP(cleanedEmail + "_LOGIN", otp);
-        sendOTPEmail(cleanedEmail, otp, "Login Verification");
-        return "Login OTP sent successfully";
+    public void clearLoginOTP(String email) {
+        otpStore.clear(OtpStore.Purpose.LOGIN, normalize(email));
     }
 
-    public boolean verifyLoginOTP(String email, String otp) {
-        String cleanedEmail = normalize(email);
-        String cached = otpCacheService.getCachedOTP(cleanedEmail + "_LOGIN");
-        return otp != null && otp.equals(cached);
+    public void markRegistrationOTPAsVerified(String email) {
+        otpStore.markVerified(OtpStore.Purpose.REGISTRATION, normalize(email));
     }
 
-    public void clearLoginOTP(String email) {
-        otpCacheService.clearOTP(normalize(email) + "_LOGIN");
+    public boolean isRegistrationOTPVerified(String email) {
+        return otpStore.isVerified(OtpStore.Purpose.REGISTRATION, normalize(email));
     }
 
-    private void sendOTPEmail(String email, String otp, String purpose) {
+    private void send(String email, OtpStore.Purpose purpose, String label, MailDispatcher.Priority priority) {
+        validateEmail(email);
+        String otp = generateOTP();
+        otpStore.issue(purpose, email, otp, currentClientIp());
+
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(email);
-        message.setSubject("MediConnect " + purpose + " OTP");
-        message.setText("Your " + purpose + " OTP is: " + otp + ". Valid for 5 minutes.");
-        mailSender.send(message);
+        message.setSubject("MediConnect " + label + " OTP");
+        message.setText("Your " + label + " OTP is: " + otp + ". Valid for "
+                + otpStore.ttl(purpose).toMinutes() + " minutes.");
+        // The OTP is already stored; the request does not wait for SMTP
+        if (!mailDispatcher.enqueue(message, priority)) {
+            throw new IllegalStateException("Email service is busy, please try again shortly");
+        }
+    }
+
+    /**
+     * @throws OtpRateLimitException if the caller submitted too many wrong codes recently
+     */
+    private boolean verify(OtpStore.Purpose purpose, String email, String otp, boolean consume) {
+        return otpStore.verify(purpose, normalize(email), otp, currentClientIp(), consume) == OtpStore.Result.VALID;
     }
 
     private String generateOTP() {
-        return String.valueOf(100000 + new Random().nextInt(900000));
+        return String.valueOf(100000 + RANDOM.nextInt(900000));
     }
 
     private void validateEmail(String email) {
@@ -102,4 +117,12 @@ public class OTPService {
     private String normalize(String email) {
         return email.trim().toLowerCase();
     }
+
+    private static String currentClientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) return null;
+        // Not X-Forwarded-For, which the client controls: server.forward-headers-strategy=native already
+        // resolves the address behind trusted proxies, as RateLimitFilter relies on
+        return servletAttributes.getRequest().getRemoteAddr();
+    }
 }
@@ -5,6 +5,7 @@ import com.MediConnect.EntryRelated.entities.UserPrivacySettings;
 import com.MediConnect.EntryRelated.entities.Users;
 import com.MediConnect.EntryRelated.repository.UserPrivacySettingsRepository;
 import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.util.TieredCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ public class PrivacySettingsService {
 
     private final UserPrivacySettingsRepository privacySettingsRepository;
     private final UserRepo userRepository;
+    private final TieredCache<PrivacySettingsDTO> privacySettingsCache;
 
     /**
      * Get privacy settings for a user, creating default settings if none exist
@@ -50,30 +52,26 @@ public class PrivacySettingsService {
         UserPrivacySettings saved = privacySettingsRepository.save(settings);
         log.info("Updated privacy settings for user: {}", user.getUsername());
 
-        return convertToDTO(saved);
+        PrivacySettingsDTO updated = convertToDTO(saved);
+        privacySettingsCache.put(user.getId(), updated);
+        return updated;
     }
 
     /**
-     * Check if a user's profile is public
+     * Check if a user's profile is public (served from the privacy settings cache)
      */
     public boolean isProfilePublic(Users user) {
-        UserPrivacySettings settings = privacySettingsRepository.findByUser(user)
-            .orElseGet(() -> createDefaultSettings(user));
-
-        return "public".equalsIgnoreCase(settings.getProfileVisibility());
+        return isProfilePublicByUserId(user.getId());
     }
 
     /**
-     * Check if a user's profile is public by user ID
+     * Check if a user's profile is public by user ID.
+     * Users without a settings row get the defaults (public); nothing is written on this path.
      */
     public boolean isProfilePublicByUserId(Long userId) {
-        UserPrivacySettings settings = privacySettingsRepository.findByUserId(userId)
-            .orElse(null);
-
-        // Default to public if no settings exist
-        if (settings == null) {
-            return true;
-        }
+        PrivacySettingsDTO settings = privacySettingsCache.get(userId, id -> privacySettingsRepository.findByUserId(id)
+            .map(this::convertToDTO)
+            .orElseGet(PrivacySettingsDTO::new));
 
         return "public".equalsIgnoreCase(settings.getProfileVisibility());
     }
@@ -0,0 +1,179 @@
+package com.MediConnect.EntryRelated.service;
+
+import com.MediConnect.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Login sessions whose access tokens must no longer be accepted (logout, refresh token reuse, suspension).
+ *
+ * A revoked session id lives in the Redis sorted set auth:revoked-sessions, scored by the time its last
+ * access token expires; after that the entry is pointless and is trimmed. Each instance keeps a Bloom filter
+ * of the set, rebuilt every auth.session-revocation.sync-interval-ms, so the usual answer ("not revoked")
+ * costs no network call. Only a filter hit is confirmed with a ZSCORE. Sessions revoked on this instance
+ * are added to the filter immediately. After the ZADD the ids are published on the Redis channel
+ * auth:session-revoked, and every other instance adds them to its filter as the message arrives. If that
+ * message is lost, an instance picks the ids up on its next rebuild, so the sync interval bounds how long a
+ * revoked session can still pass there.
+ *
+ * When Redis is unavailable the filter keeps its last contents plus local revocations, and a filter hit
+ * is answered from the local revocations only.
+ */
+@Slf4j
+@Service
+public class SessionRevocationIndex implements MessageListener {
+
+    private static final String KEY = "auth:revoked-sessions";
+    private static final String CHANNEL = "auth:session-revoked";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration entryTtl;
+    private final long expectedRevocations;
+    // Revocations made here or announced by another instance, kept until they expire so a rebuild
+    // (with a stale read, or without Redis) does not lose them
+    private final Map<String, Long> localRevocations = new ConcurrentHashMap<>();
+    private final Counter filterHitCounter;
+    private final Counter confirmedCounter;
+    private final RedisMessageListenerContainer listenerContainer;
+    private volatile BloomFilter filter;
+
+    public SessionRevocationIndex(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth.jwt.access-ttl-minutes:15}") long accessTtlMinutes,
+            @Value("${auth.session-revocation.expected-revocations:10000}") long expectedRevocations) {
+        this.redisTemplate = redisTemplate;
+        // A little longer than an access token lives, to absorb clock skew between instances
+        this.entryTtl = Duration.ofMinutes(accessTtlMinutes + 1);
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+        this.filterHitCounter = Counter.builder("auth.session_revocation.filter_hits")
+                .description("Session checks the Bloom filter could not answer alone")
+                .register(meterRegistry);
+        this.confirmedCounter = Counter.builder("auth.session_revocation.rejected")
+                .description("Access tokens rejected because their session was revoked")
+                .register(meterRegistry);
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.session-revocation.subscribe-retry-ms:10000}")
+    public void subscribe() {
+        if (listenerContainer.isListening()) return;
+        try {
+            // A failed start leaves the container marked as started; stop() resets it for the retry
+            listenerContainer.stop();
+            listenerContainer.start();
+            // Revocations published while unsubscribed were missed
+            sync();
+            log.info("Subscribed to session revocations");
+        } catch (Exception e) {
+            log.debug("Session revocations not subscribed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    public boolean isRevoked(String sessionId) {
+        if (!filter.mightContain(sessionId)) return false;
+
+        filterHitCounter.increment();
+        long now = System.currentTimeMillis();
+        Long localExpiry = localRevocations.get(sessionId);
+        boolean revoked = localExpiry != null && localExpiry > now;
+        if (!revoked) {
+            try {
+                Double expiry = redisTemplate.opsForZSet().score(KEY, sessionId);
+                revoked = expiry != null && expiry > now;
+            } catch (Exception e) {
+                log.warn("Session revocation lookup in Redis failed: {}", e.getMessage());
+            }
+        }
+        if (revoked) confirmedCounter.increment();
+        return revoked;
+    }
+
+    public void revoke(String sessionId) {
+        revoke(Set.of(sessionId));
+    }
+
+    public void revoke(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) return;
+        long expiry = System.currentTimeMillis() + entryTtl.toMillis();
+        BloomFilter current = filter;
+        for (String sessionId : sessionIds) {
+            localRevocations.put(sessionId, expiry);
+            current.add(sessionId);
+        }
+        Set<ZSetOperations.TypedTuple<String>> entries = new HashSet<>();
+        sessionIds.forEach(sessionId -> entries.add(ZSetOperations.TypedTuple.of(sessionId, (double) expiry)));
+        try {
+            redisTemplate.opsForZSet().add(KEY, entries);
+            // Only after the ZADD, so an instance whose filter now hits can confirm the id with ZSCORE
+            redisTemplate.convertAndSend(CHANNEL, String.join("\n", sessionIds));
+        } catch (Exception e) {
+            log.warn("Could not publish {} session revocation(s) to Redis: {}", sessionIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        long expiry = System.currentTimeMillis() + entryTtl.toMillis();
+        BloomFilter current = filter;
+        for (String sessionId : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+            if (sessionId.isEmpty()) continue;
+            localRevocations.put(sessionId, expiry);
+            current.add(sessionId);
+        }
+    }
+
+    /**
+     * Rebuilds the filter from Redis, dropping expired entries.
+     */
+    @Scheduled(fixedDelayString = "${auth.session-revocation.sync-interval-ms:2000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        localRevocations.values().removeIf(expiry -> expiry <= now);
+
+        Set<String> revoked = Set.of();
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, now);
+            revoked = redisTemplate.opsForZSet().rangeByScore(KEY, now, Double.POSITIVE_INFINITY);
+        } catch (Exception e) {
+            // A hit could not be confirmed against Redis anyway, so local revocations are all that matter
+            log.debug("Session revocation sync without Redis: {}", e.getMessage());
+        }
+
+        int size = (revoked == null ? 0 : revoked.size()) + localRevocations.size();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, 2L * size), FALSE_POSITIVE_RATE);
+        if (revoked != null) revoked.forEach(rebuilt::add);
+        filter = rebuilt;
+        // After the swap: a concurrent revoke() either is seen here or wrote to the new filter itself
+        localRevocations.keySet().forEach(rebuilt::add);
+    }
+}
@@ -0,0 +1,195 @@
+package com.MediConnect.EntryRelated.service;
+
+import com.MediConnect.util.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-user token version (users.token_version). Every JWT carries the version it was issued with, and a
+ * token is accepted only while that version is still current; {@link #revokeAll} bumps it, which invalidates
+ * every token the user holds (suspension, ban, password reset). It also ends the user's login sessions, so
+ * their refresh tokens stop working and their access tokens are listed in SessionRevocationIndex.
+ *
+ * Lookups go through a short-lived in-process cache, then Redis (auth:token-version:{id}), then the database.
+ * Versions only grow, so Redis is written with a set-if-newer script and a slow loader can never put back an
+ * older value. A bump is published on the Redis channel auth:token-version so every instance raises its local
+ * entry at once, the way AccountStatusCache does; auth.token-version.local-ttl-seconds only bounds how long
+ * an instance keeps accepting a revoked token if such a message is lost or Redis is down.
+ */
+@Slf4j
+@Service
+public class TokenVersionService implements MessageListener {
+
+    /** Version reported for a user that no longer exists; no token can match it. */
+    public static final int DELETED = Integer.MAX_VALUE;
+
+    private static final String KEY_PREFIX = "auth:token-version:";
+    private static final String CHANNEL = "auth:token-version";
+
+    // KEYS: version key; ARGV: version, ttl ms. Keeps the larger of the stored and given version.
+    private static final RedisScript<Long> SET_IF_NEWER = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '-1') " +
+            "local version = tonumber(ARGV[1]) " +
+            "if version > current then current = version end " +
+            "redis.call('SET', KEYS[1], current, 'PX', ARGV[2]) " +
+            "return current",
+            Long.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final SessionRevocationIndex sessionRevocationIndex;
+    private final Cache<Long, Integer> local;
+    private final Duration redisTtl;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public TokenVersionService(
+            JdbcTemplate jdbcTemplate,
+            StringRedisTemplate redisTemplate,
+            SessionRevocationIndex sessionRevocationIndex,
+            MeterRegistry meterRegistry,
+            @Value("${auth.token-version.local-ttl-seconds:5}") long localTtlSeconds,
+            @Value("${auth.token-version.local-max-size:100000}") long localMaxSize,
+            @Value("${auth.token-version.redis-ttl-minutes:60}") long redisTtlMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.sessionRevocationIndex = sessionRevocationIndex;
+        this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "auth:token-version");
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.token-version.subscribe-retry-ms:10000}")
+    public void subscribe() {
+        if (listenerContainer.isListening()) return;
+        try {
+            // A failed start leaves the container marked as started; stop() resets it for the retry
+            listenerContainer.stop();
+            listenerContainer.start();
+            // Bumps published while unsubscribed were missed
+            local.invalidateAll();
+            log.info("Subscribed to token version changes");
+        } catch (Exception e) {
+            log.debug("Token version changes not subscribed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    /**
+     * Current token version of the user, or {@link #DELETED} if the user does not exist.
+     */
+    public int current(Long userId) {
+        Integer version = local.getIfPresent(userId);
+        if (version != null) return version;
+
+        version = readRemote(userId);
+        if (version == null) {
+            version = load(userId);
+            version = writeRemote(userId, version);
+        }
+        local.asMap().merge(userId, version, Math::max);
+        return version;
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= current(userId);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far. The new version is published to Redis and to every
+     * instance once the surrounding transaction commits.
+     */
+    public void revokeAll(Long userId) {
+        Integer version = jdbcTemplate.query(
+                "UPDATE users SET token_version = token_version + 1 WHERE id = ? RETURNING token_version",
+                rs -> rs.next() ? rs.getInt(1) : null,
+                userId);
+        if (version == null) return;
+        List<String> sessions = jdbcTemplate.queryForList(
+                "UPDATE login_sessions SET is_active = false, logout_time = now() WHERE user_id = ? AND is_active " +
+                "RETURNING session_token",
+                String.class, userId);
+        AfterCommit.run(() -> {
+            int published = writeRemote(userId, version);
+            local.asMap().merge(userId, published, Math::max);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, userId + ":" + published);
+            } catch (Exception e) {
+                log.warn("Could not publish token version of user {}: {}", userId, e.getMessage());
+            }
+            sessionRevocationIndex.revoke(sessions);
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        try {
+            Long userId = Long.valueOf(body.substring(0, separator));
+            int version = Integer.parseInt(body.substring(separator + 1));
+            // Raise rather than evict: a lookup racing with this message can then only store a newer version
+            local.asMap().merge(userId, version, Math::max);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed token version change: {}", body);
+        }
+    }
+
+    private int load(Long userId) {
+        List<Integer> versions = jdbcTemplate.queryForList(
+                "SELECT token_version FROM users WHERE id = ?", Integer.class, userId);
+        return versions.isEmpty() ? DELETED : versions.get(0);
+    }
+
+    private Integer readRemote(Long userId) {
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+            return value == null ? null : Integer.valueOf(value);
+        } catch (Exception e) {
+            log.warn("Token version lookup in Redis failed for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // Returns the version Redis now holds, which may be newer than the one given
+    private int writeRemote(Long userId, int version) {
+        try {
+            Long stored = redisTemplate.execute(SET_IF_NEWER, List.of(KEY_PREFIX + userId),
+                    Integer.toString(version), Long.toString(redisTtl.toMillis()));
+            return stored == null ? version : Math.max(version, stored.intValue());
+        } catch (Exception e) {
+            log.warn("Token version write to Redis failed for user {}: {}", userId, e.getMessage());
+            return version;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.MediConnect.EntryRelated.service.activity;
+
+import com.MediConnect.EntryRelated.entities.AccountActivity;
+
+import java.time.LocalDateTime;
+
+/**
+ * An account activity waiting in {@link ActivityLogBuffer}. Holds only what was read from the request
+ * (address and raw User-Agent); device and browser are derived when the event is written.
+ *
+ * @param description null for logins, which get the standard "Successful login from ..." text
+ * @param attempts    failed write attempts so far
+ */
+public record ActivityEvent(Long userId,
+                            AccountActivity.ActivityType type,
+                            String description,
+                            String ipAddress,
+                            String userAgent,
+                            LocalDateTime occurredAt,
+                            int attempts) {
+
+    public static ActivityEvent login(Long userId, String ipAddress, String userAgent) {
+        return new ActivityEvent(userId, AccountActivity.ActivityType.LOGIN, null, ipAddress, userAgent,
+                LocalDateTime.now(), 0);
+    }
+
+    public static ActivityEvent activity(Long userId, AccountActivity.ActivityType type, String description,
+                                         String ipAddress, String userAgent) {
+        return new ActivityEvent(userId, type, description, ipAddress, userAgent, LocalDateTime.now(), 0);
+    }
+
+    ActivityEvent retried() {
+        return new ActivityEvent(userId, type, description, ipAddress, userAgent, occurredAt, attempts + 1);
+    }
+}
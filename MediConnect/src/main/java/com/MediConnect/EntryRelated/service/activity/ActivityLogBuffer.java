@@ -0,0 +1,195 @@
+package com.MediConnect.EntryRelated.service.activity;
+
+import com.MediConnect.EntryRelated.entities.AccountActivity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes account activities off the request path. Login session rows are not written here: a refresh token
+ * must work, and a logout must find its session, as soon as the login returns, so ActivityService inserts
+ * them synchronously.
+ *
+ * Callers only enqueue an {@link ActivityEvent}; a scheduled flush writes what has accumulated as JDBC
+ * batches of activity.log.batch-size, one transaction per batch. The queue is bounded
+ * (activity.log.queue-capacity): when it is full a caller waits up to activity.log.offer-timeout-ms and the
+ * event is then dropped, so a slow database never stalls logins. If a batch fails its events are retried
+ * one by one, and an event that still fails after activity.log.max-attempts flushes is discarded.
+ *
+ * Metrics: activity.log.queue.depth, activity.log.events (outcome = written, dropped, failed).
+ */
+@Slf4j
+@Component
+public class ActivityLogBuffer {
+
+    private static final String INSERT_ACTIVITY =
+            "INSERT INTO account_activities (user_id, type, description, ip_address, location, device, user_agent, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UNKNOWN_LOCATION = "Unknown Location";
+    private static final String UNKNOWN = "Unknown";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<ActivityEvent> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final int maxAttempts;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong droppedSinceFlush = new AtomicLong();
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    public ActivityLogBuffer(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${activity.log.queue-capacity:10000}") int queueCapacity,
+            @Value("${activity.log.batch-size:500}") int batchSize,
+            @Value("${activity.log.offer-timeout-ms:0}") long offerTimeoutMillis,
+            @Value("${activity.log.max-attempts:3}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        Gauge.builder("activity.log.queue.depth", queue, BlockingQueue::size)
+                .description("Account activity events waiting to be written")
+                .register(meterRegistry);
+        this.writtenCounter = counter(meterRegistry, "written");
+        this.droppedCounter = counter(meterRegistry, "dropped");
+        this.failedCounter = counter(meterRegistry, "failed");
+    }
+
+    /**
+     * @return false if the queue stayed full and the event was dropped
+     */
+    public boolean enqueue(ActivityEvent event) {
+        boolean queued;
+        try {
+            queued = offerTimeoutMillis > 0
+                    ? queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS)
+                    : queue.offer(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            droppedCounter.increment();
+            droppedSinceFlush.incrementAndGet();
+        }
+        return queued;
+    }
+
+    @Scheduled(fixedDelayString = "${activity.log.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Writes everything queued so far.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            long dropped = droppedSinceFlush.getAndSet(0);
+            if (dropped > 0) {
+                log.warn("Activity log queue was full, dropped {} event(s) since the last flush", dropped);
+            }
+
+            List<ActivityEvent> retry = new ArrayList<>();
+            List<ActivityEvent> batch = new ArrayList<>(batchSize);
+            // Bounded by what is queued now, so a steady stream of new events cannot keep one flush going
+            int remaining = queue.size();
+            while (remaining > 0 && queue.drainTo(batch, Math.min(batchSize, remaining)) > 0) {
+                remaining -= batch.size();
+                write(batch, retry);
+                batch.clear();
+            }
+            retry.forEach(queue::offer);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of events accepted but not yet written
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<ActivityEvent> batch, List<ActivityEvent> retry) {
+        try {
+            insert(batch);
+            writtenCounter.increment(batch.size());
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Writing {} activity event(s) as a batch failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        // One bad row (e.g. a deleted user) must not take the rest of the batch with it
+        for (ActivityEvent event : batch) {
+            try {
+                insert(List.of(event));
+                writtenCounter.increment();
+            } catch (RuntimeException e) {
+                if (event.attempts() + 1 < maxAttempts) {
+                    retry.add(event.retried());
+                } else {
+                    failedCounter.increment();
+                    log.error("Discarding {} activity for user {} after {} attempts: {}",
+                            event.type(), event.userId(), maxAttempts, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<ActivityEvent> events) {
+        List<Object[]> activities = new ArrayList<>(events.size());
+        for (ActivityEvent event : events) {
+            String ipAddress = UserAgents.truncate(event.ipAddress() != null ? event.ipAddress() : UNKNOWN);
+            String userAgent = UserAgents.truncate(event.userAgent());
+            String device = UserAgents.device(event.userAgent());
+            String browser = UserAgents.browser(event.userAgent());
+            String description = event.description();
+            if (description == null && event.type() == AccountActivity.ActivityType.LOGIN) {
+                description = "Successful login from " + browser + " on " + device;
+            }
+            activities.add(new Object[]{event.userId(), event.type().name(), description, ipAddress,
+                    UNKNOWN_LOCATION, device, userAgent, Timestamp.valueOf(event.occurredAt())});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_ACTIVITY, activities));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("activity.log.events")
+                .description("Account activity events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
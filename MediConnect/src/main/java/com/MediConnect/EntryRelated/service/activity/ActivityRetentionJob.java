@@ -0,0 +1,124 @@
+package com.MediConnect.EntryRelated.service.activity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes login sessions and account activities older than activity.retention.days, for all users.
+ *
+ * Works like NotificationRetentionJob: oldest rows first, batches of activity.retention.batch-size in
+ * short transactions, SKIP LOCKED so concurrent instances split the work instead of blocking each other.
+ * Sessions are aged by login time; a session that old has long outlived its token, so whether it was
+ * logged out does not matter.
+ *
+ * Metrics: activity.retention.pruned (rows deleted, tagged by table) and activity.retention.duration.
+ */
+@Slf4j
+@Component
+public class ActivityRetentionJob {
+
+    private static final String DELETE_SESSIONS_BATCH =
+            "DELETE FROM login_sessions WHERE id IN (" +
+            "SELECT id FROM login_sessions WHERE login_time < ? ORDER BY login_time LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final String DELETE_ACTIVITIES_BATCH =
+            "DELETE FROM account_activities WHERE id IN (" +
+            "SELECT id FROM account_activities WHERE timestamp < ? ORDER BY timestamp LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter sessionsPrunedCounter;
+    private final Counter activitiesPrunedCounter;
+    private final Timer runTimer;
+
+    public ActivityRetentionJob(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${activity.retention.enabled:true}") boolean enabled,
+            @Value("${activity.retention.days:90}") int retentionDays,
+            @Value("${activity.retention.batch-size:1000}") int batchSize,
+            @Value("${activity.retention.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.sessionsPrunedCounter = prunedCounter(meterRegistry, "login_sessions");
+        this.activitiesPrunedCounter = prunedCounter(meterRegistry, "account_activities");
+        this.runTimer = Timer.builder("activity.retention.duration")
+                .description("Time taken by one retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${activity.retention.cron:0 45 3 * * *}")
+    public void scheduledPrune() {
+        if (!enabled) return;
+        try {
+            prune();
+        } catch (Exception e) {
+            log.warn("Account activity retention run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one retention pass.
+     *
+     * @return number of rows deleted from both tables
+     */
+    public long prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        long started = System.nanoTime();
+        long sessions = 0;
+        long activities = 0;
+
+        try {
+            sessions = pruneTable(DELETE_SESSIONS_BATCH, cutoff, sessionsPrunedCounter);
+            activities = pruneTable(DELETE_ACTIVITIES_BATCH, cutoff, activitiesPrunedCounter);
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(Duration.ofNanos(elapsed));
+            if (sessions + activities > 0) {
+                log.info("Pruned {} login sessions and {} account activities older than {} days, {} ms",
+                        sessions, activities, retentionDays, elapsed / 1_000_000);
+            }
+        }
+        return sessions + activities;
+    }
+
+    private long pruneTable(String sql, Timestamp cutoff, Counter counter) {
+        long pruned = 0;
+        for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+            Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(sql, cutoff, batchSize));
+            if (deleted == null || deleted == 0) break;
+
+            pruned += deleted;
+            counter.increment(deleted);
+            if (deleted < batchSize) break;
+        }
+        return pruned;
+    }
+
+    private static Counter prunedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("activity.retention.pruned")
+                .description("Rows deleted by the account activity retention job")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.MediConnect.EntryRelated.service.activity;
+
+/**
+ * Coarse device and browser names from a User-Agent header, as shown on the account security page.
+ */
+public final class UserAgents {
+
+    // login_sessions and account_activities use VARCHAR(255) for the request-derived columns
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private UserAgents() {
+    }
+
+    public static String device(String userAgent) {
+        if (userAgent == null) return "Unknown Device";
+        if (userAgent.contains("Mobile") || userAgent.contains("Android") || userAgent.contains("iPhone")) {
+            return "Mobile";
+        }
+        if (userAgent.contains("Tablet") || userAgent.contains("iPad")) {
+            return "Tablet";
+        }
+        return "Desktop";
+    }
+
+    public static String browser(String userAgent) {
+        if (userAgent != null) {
+            if (userAgent.contains("Chrome")) return "Chrome";
+            if (userAgent.contains("Firefox")) return "Firefox";
+            if (userAgent.contains("Safari") && !userAgent.contains("Chrome")) return "Safari";
+            if (userAgent.contains("Edge")) return "Edge";
+            if (userAgent.contains("Opera")) return "Opera";
+        }
+        return "Unknown Browser";
+    }
+
+    public static String truncate(String value) {
+        return value == null || value.length() <= MAX_COLUMN_LENGTH ? value : value.substring(0, MAX_COLUMN_LENGTH);
+    }
+}
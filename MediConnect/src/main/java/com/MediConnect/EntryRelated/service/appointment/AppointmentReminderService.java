@@ -3,6 +3,7 @@ package com.MediConnect.EntryRelated.service.appointment;
 import com.MediConnect.Entities.AppointmentEntity;
 import com.MediConnect.Entities.AppointmentStatus;
 import com.MediConnect.EntryRelated.repository.AppointmentRepository;
+import com.MediConnect.EntryRelated.service.NotificationPreferencesService;
 import com.MediConnect.socialmedia.entity.NotificationType;
 import com.MediConnect.socialmedia.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +14,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Appointment Reminder Service
@@ -32,6 +35,7 @@ public class AppointmentReminderService {
     
     private final AppointmentRepository appointmentRepository;
     private final NotificationService notificationService;
+    private final NotificationPreferencesService notificationPreferencesService;
     
     /**
      * Scheduled task that runs every 12 hours
@@ -66,6 +70,14 @@ public class AppointmentReminderService {
             
             log.info("Found {} appointments needing 24-hour reminders", appointments.size());
             
+            // Warm the preferences cache for every recipient with one query instead of one per reminder
+            Set<Long> recipientIds = new HashSet<>();
+            for (AppointmentEntity appointment : appointments) {
+                recipientIds.add(appointment.getPatient().getId());
+                recipientIds.add(appointment.getHealthcareProvider().getId());
+            }
+            notificationPreferencesService.prefetch(recipientIds);
+            
             // Send reminders for each appointment
             for (AppointmentEntity appointment : appointments) {
                 try {
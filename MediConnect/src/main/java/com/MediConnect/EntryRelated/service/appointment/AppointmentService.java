@@ -1,5 +1,7 @@
 package com.MediConnect.EntryRelated.service.appointment;
 
+import com.MediConnect.config.CurrentUser;
+
 import java.util.Map;
 
 /**
@@ -15,57 +17,57 @@ public interface AppointmentService {
     /**
      * Books a new appointment. When called, it automatically sends a notification to the doctor.
      */
-    Map<String, Object> bookAppointment(String token, Map<String, Object> request);
+    Map<String, Object> bookAppointment(CurrentUser caller, Map<String, Object> request);
 
     /**
      * Gets all appointments for the authenticated patient.
      * Returns appointments with doctor info, insurance info, and medical records (if shared).
      */
-    Map<String, Object> getPatientAppointments(String token);
+    Map<String, Object> getPatientAppointments(CurrentUser caller);
 
     /**
      * Gets all appointments for the authenticated doctor.
      * Returns appointments with patient info, insurance info (always visible),
      * and medical records (only if patient consented to share during booking).
      */
-    Map<String, Object> getDoctorAppointments(String token);
+    Map<String, Object> getDoctorAppointments(CurrentUser caller);
 
     /**
      * Doctor updates appointment status (CONFIRMED, CANCELLED, or RESCHEDULED).
      * Automatically notifies the patient about the status change.
      */
-    Map<String, Object> updateAppointmentStatus(String token, Integer appointmentId, String status, String note, String newDateTime);
+    Map<String, Object> updateAppointmentStatus(CurrentUser caller, Integer appointmentId, String status, String note, String newDateTime);
 
     /**
      * Patient responds to a reschedule request from doctor (accepts or rejects new time).
      * Automatically notifies the doctor about the patient's response.
      */
-    Map<String, Object> respondToReschedule(String token, Integer appointmentId, String action);
+    Map<String, Object> respondToReschedule(CurrentUser caller, Integer appointmentId, String action);
 
     /**
      * Doctor completes an appointment after the patient visit.
      * Marks appointment as COMPLETED, adds notes, and optionally creates a follow-up appointment.
      * Automatically notifies the patient about the completion.
      *
-     * @param token JWT authentication token
+     * @param caller the authenticated doctor
      * @param appointmentId The appointment to complete
      * @param notes Doctor's notes about the visit
      * @param followUpDateTime Optional: date/time for a follow-up appointment (ISO format string)
      * @return Response with updated appointment info
      */
-    Map<String, Object> completeAppointment(String token, Integer appointmentId, String notes, String followUpDateTime);
+    Map<String, Object> completeAppointment(CurrentUser caller, Integer appointmentId, String notes, String followUpDateTime);
 
     /**
      * Start video call for an appointment.
      * Sets isCallActive flag to true so patient can join.
      */
-    Map<String, Object> startCall(String token, Integer appointmentId);
+    Map<String, Object> startCall(CurrentUser caller, Integer appointmentId);
 
     /**
      * End video call for an appointment.
      * Sets isCallActive flag to false.
      */
-    Map<String, Object> endCall(String token, Integer appointmentId);
+    Map<String, Object> endCall(CurrentUser caller, Integer appointmentId);
 
     /**
      * Get available time slots for a doctor on a specific date.
@@ -13,10 +13,11 @@ import com.MediConnect.EntryRelated.repository.BlockedTimeSlotRepository;
 import com.MediConnect.EntryRelated.entities.DayAvailability;
 import com.MediConnect.EntryRelated.entities.BlockedTimeSlot;
 import com.MediConnect.EntryRelated.service.appointment.AppointmentService;
-import com.MediConnect.config.JWTService;
+import com.MediConnect.config.CurrentUser;
 import com.MediConnect.socialmedia.service.NotificationService;
 import com.MediConnect.socialmedia.entity.NotificationType;
 import com.MediConnect.socialmedia.service.ChatService;
+import com.MediConnect.socialmedia.videorelated.VideoCallAuthorizationCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,20 +40,15 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final HealthcareProviderRepo healthcareProviderRepo;
     private final DayAvailabilityRepository dayAvailabilityRepository;
     private final BlockedTimeSlotRepository blockedTimeSlotRepository;
-    private final JWTService jwtService;
     private final NotificationService notificationService;
     private final ChatService chatService;
+    private final VideoCallAuthorizationCache videoCallAuthorizationCache;
 
     @Override
     @Transactional
-    public Map<String, Object> bookAppointment(String token, Map<String, Object> request) {
+    public Map<String, Object> bookAppointment(CurrentUser caller, Map<String, Object> request) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            Patient patient = patientRepo.findByUsername(username)
+            Patient patient = patientRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Patient not found"));
 
             Long doctorId = Long.parseLong(request.get("doctorId").toString());
@@ -159,14 +155,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional(readOnly = true)
-    public Map<String, Object> getPatientAppointments(String token) {
+    public Map<String, Object> getPatientAppointments(CurrentUser caller) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            Patient patient = patientRepo.findByUsername(username)
+            Patient patient = patientRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Patient not found"));
 
             List<AppointmentEntity> appointments = appointmentRepository.findByPatientId(patient.getId());
@@ -283,8 +274,8 @@ public class AppointmentServiceImpl implements AppointmentService {
                             Map<String, Object> labMap = new HashMap<>();
                             labMap.put("id", lab.getId());
                             labMap.put("description", lab.getDescription());
-                            labMap.put("hasImage", lab.getImage() != null && lab.getImage().length > 0);
-                            labMap.put("imageSize", lab.getImage() != null ? lab.getImage().length : 0);
+                            labMap.put("hasImage", Boolean.TRUE.equals(lab.getHasImage()));
+                            labMap.put("imageSize", lab.getImageSize() != null ? lab.getImageSize() : 0);
                             labMap.put("resultUrl", lab.getResultUrl());
                             labResults.add(labMap);
                         }
@@ -322,14 +313,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional(readOnly = true)
-    public Map<String, Object> getDoctorAppointments(String token) {
+    public Map<String, Object> getDoctorAppointments(CurrentUser caller) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            HealthcareProvider doctor = healthcareProviderRepo.findByUsername(username)
+            HealthcareProvider doctor = healthcareProviderRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
             List<AppointmentEntity> appointments = appointmentRepository.findByHealthcareProviderId(doctor.getId());
@@ -445,8 +431,8 @@ public class AppointmentServiceImpl implements AppointmentService {
                             Map<String, Object> labMap = new HashMap<>();
                             labMap.put("id", lab.getId());
                             labMap.put("description", lab.getDescription());
-                            labMap.put("hasImage", lab.getImage() != null && lab.getImage().length > 0);
-                            labMap.put("imageSize", lab.getImage() != null ? lab.getImage().length : 0);
+                            labMap.put("hasImage", Boolean.TRUE.equals(lab.getHasImage()));
+                            labMap.put("imageSize", lab.getImageSize() != null ? lab.getImageSize() : 0);
                             labMap.put("resultUrl", lab.getResultUrl());
                             labResults.add(labMap);
                         }
@@ -484,14 +470,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional
-    public Map<String, Object> updateAppointmentStatus(String token, Integer appointmentId, String status, String note, String newDateTime) {
+    public Map<String, Object> updateAppointmentStatus(CurrentUser caller, Integer appointmentId, String status, String note, String newDateTime) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            HealthcareProvider doctor = healthcareProviderRepo.findByUsername(username)
+            HealthcareProvider doctor = healthcareProviderRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
             AppointmentEntity apt = appointmentRepository.findById(appointmentId)
@@ -587,14 +568,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional
-    public Map<String, Object> respondToReschedule(String token, Integer appointmentId, String action) {
+    public Map<String, Object> respondToReschedule(CurrentUser caller, Integer appointmentId, String action) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            Patient patient = patientRepo.findByUsername(username)
+            Patient patient = patientRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Patient not found"));
 
             AppointmentEntity apt = appointmentRepository.findById(appointmentId)
@@ -654,14 +630,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional
-    public Map<String, Object> completeAppointment(String token, Integer appointmentId, String notes, String followUpDateTime) {
+    public Map<String, Object> completeAppointment(CurrentUser caller, Integer appointmentId, String notes, String followUpDateTime) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            HealthcareProvider doctor = healthcareProviderRepo.findByUsername(username)
+            HealthcareProvider doctor = healthcareProviderRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
             AppointmentEntity apt = appointmentRepository.findById(appointmentId)
@@ -769,14 +740,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional
-    public Map<String, Object> startCall(String token, Integer appointmentId) {
+    public Map<String, Object> startCall(CurrentUser caller, Integer appointmentId) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            HealthcareProvider doctor = healthcareProviderRepo.findByUsername(username)
+            HealthcareProvider doctor = healthcareProviderRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
             AppointmentEntity apt = appointmentRepository.findById(appointmentId)
@@ -796,6 +762,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
             apt.setIsCallActive(true);
             appointmentRepository.save(apt);
+            videoCallAuthorizationCache.evictAfterCommit(apt.getId());
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
@@ -812,14 +779,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     @Transactional
-    public Map<String, Object> endCall(String token, Integer appointmentId) {
+    public Map<String, Object> endCall(CurrentUser caller, Integer appointmentId) {
         try {
-            String jwtToken = token != null && token.startsWith("Bearer ")
-                    ? token.substring(7)
-                    : token;
-
-            String username = jwtService.extractUserName(jwtToken);
-            HealthcareProvider doctor = healthcareProviderRepo.findByUsername(username)
+            HealthcareProvider doctor = healthcareProviderRepo.findById(caller.id())
                     .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
             AppointmentEntity apt = appointmentRepository.findById(appointmentId)
@@ -831,6 +793,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
             apt.setIsCallActive(false);
             appointmentRepository.save(apt);
+            videoCallAuthorizationCache.evictAfterCommit(apt.getId());
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
@@ -0,0 +1,49 @@
+package com.MediConnect.EntryRelated.service.blob;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Serialises adding and dropping references to a stored document. Identical uploads share one blob, so a
+ * blob released by one row may be the one another row is about to point at; without the lock the release
+ * could count no references and delete the file just before that row commits.
+ *
+ * Both are PostgreSQL transaction-level advisory locks on the key, released when the transaction ends:
+ * rows being written hold it shared, a release holds it exclusively while it counts references and deletes.
+ * Must be called inside a transaction.
+ */
+@Component
+class BlobReferences {
+
+    private static final String LOCK_SHARED = "SELECT pg_advisory_xact_lock_shared(hashtext(?))";
+    private static final String LOCK_EXCLUSIVE = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    BlobReferences(JdbcTemplate jdbcTemplate, BlobStore blobStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+    }
+
+    /**
+     * Keeps the blob from being deleted until the transaction ends.
+     *
+     * @return false if a release deleted it after it was stored, so the caller must store it again
+     */
+    boolean pin(String key) {
+        jdbcTemplate.query(LOCK_SHARED, rs -> { }, key);
+        try {
+            return blobStore.get(key).isPresent();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void lockForDelete(String key) {
+        jdbcTemplate.query(LOCK_EXCLUSIVE, rs -> { }, key);
+    }
+}
@@ -0,0 +1,32 @@
+package com.MediConnect.EntryRelated.service.blob;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Storage for uploaded documents (lab results, license scans) that are kept out of database rows; entities
+ * only hold the key. Implementations are selected with blob-store.type.
+ *
+ * Keys are content addresses (hex SHA-256), so storing the same bytes twice yields the same key and one
+ * stored copy. Callers must therefore only delete a key nobody references any more.
+ */
+public interface BlobStore {
+
+    record StoredBlob(String key, long size) {
+    }
+
+    /**
+     * Stores the stream's content, reading it to the end without buffering it in memory. The caller closes it.
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    /**
+     * @return the content, or empty if nothing is stored under the key
+     */
+    Optional<Resource> get(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,143 @@
+package com.MediConnect.EntryRelated.service.blob;
+
+import com.MediConnect.EntryRelated.entities.HealthcareProvider;
+import com.MediConnect.EntryRelated.entities.LaboratoryResult;
+import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
+import com.MediConnect.EntryRelated.repository.LabResultRepo;
+import com.MediConnect.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Lab result and license documents in the {@link BlobStore}. Entities keep the key and size only, so loading
+ * them (provider search, appointment listings) no longer loads the documents.
+ */
+@Slf4j
+@Service
+public class DocumentStorageService {
+
+    private static final String REFERENCES =
+            "SELECT (SELECT count(*) FROM laboratory_result WHERE blob_key = ?) " +
+            "+ (SELECT count(*) FROM healthcare_provider WHERE license_document_key = ?)";
+
+    private final BlobStore blobStore;
+    private final BlobReferences blobReferences;
+    private final LegacyBlobMigrationJob legacyBlobs;
+    private final LabResultRepo labResultRepo;
+    private final HealthcareProviderRepo healthcareProviderRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate storeTransaction;
+    private final TransactionTemplate releaseTransaction;
+
+    public DocumentStorageService(BlobStore blobStore, BlobReferences blobReferences,
+                                  LegacyBlobMigrationJob legacyBlobs, LabResultRepo labResultRepo,
+                                  HealthcareProviderRepo healthcareProviderRepo, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.blobStore = blobStore;
+        this.blobReferences = blobReferences;
+        this.legacyBlobs = legacyBlobs;
+        this.labResultRepo = labResultRepo;
+        this.healthcareProviderRepo = healthcareProviderRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        // Joins the caller's transaction, so the document stays pinned until the caller commits
+        this.storeTransaction = new TransactionTemplate(transactionManager);
+        // Runs after the caller's commit, when its transaction can no longer be used
+        this.releaseTransaction = new TransactionTemplate(transactionManager);
+        this.releaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Stores the file, points the lab result at it and saves the lab result.
+     */
+    public LaboratoryResult storeLabResult(LaboratoryResult result, MultipartFile file) throws IOException {
+        return store(file, blob -> {
+            result.setBlobKey(blob.key());
+            result.setHasImage(true);
+            result.setImageSize((int) blob.size());
+            return labResultRepo.save(result);
+        });
+    }
+
+    /**
+     * Stores the file, points the provider at it and saves the provider. The previous license document is
+     * released in the same transaction, so it is only deleted once the provider no longer refers to it.
+     */
+    public HealthcareProvider storeLicense(HealthcareProvider provider, MultipartFile file) throws IOException {
+        String previousKey = provider.getLicenseDocumentKey();
+        return store(file, blob -> {
+            provider.setLicenseDocumentKey(blob.key());
+            provider.setLicenseDocumentContentType(file.getContentType());
+            HealthcareProvider saved = healthcareProviderRepo.save(provider);
+            if (previousKey != null && !previousKey.equals(blob.key())) {
+                release(previousKey);
+            }
+            return saved;
+        });
+    }
+
+    public Optional<Resource> labResult(LaboratoryResult result) throws IOException {
+        if (result.getBlobKey() != null) return blobStore.get(result.getBlobKey());
+        return legacyBlobs.readLegacy(LegacyBlobMigrationJob.Source.LAB_RESULT, result.getId());
+    }
+
+    public Optional<Resource> license(HealthcareProvider provider) throws IOException {
+        if (provider.getLicenseDocumentKey() != null) return blobStore.get(provider.getLicenseDocumentKey());
+        return legacyBlobs.readLegacy(LegacyBlobMigrationJob.Source.LICENSE, provider.getId());
+    }
+
+    /**
+     * Deletes the document once the surrounding transaction commits, unless a lab result or license still
+     * refers to it or is being saved with it (identical uploads share one stored copy). Call it after the
+     * rows that dropped the key were saved.
+     */
+    public void release(String key) {
+        if (key == null) return;
+        AfterCommit.run(() -> releaseTransaction.executeWithoutResult(status -> {
+            blobReferences.lockForDelete(key);
+            Long references = jdbcTemplate.queryForObject(REFERENCES, Long.class, key, key);
+            if (references != null && references > 0) return;
+            try {
+                blobStore.delete(key);
+            } catch (IOException e) {
+                log.warn("Could not delete blob {}: {}", key, e.getMessage());
+            }
+        }));
+    }
+
+    private <T> T store(MultipartFile file, Function<BlobStore.StoredBlob, T> save) throws IOException {
+        BlobStore.StoredBlob blob = put(file);
+        try {
+            return storeTransaction.execute(status -> {
+                if (!blobReferences.pin(blob.key())) {
+                    // A release of the same content deleted it between put and pin
+                    try {
+                        put(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return save.apply(blob);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BlobStore.StoredBlob put(MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return blobStore.put(content);
+        }
+    }
+}
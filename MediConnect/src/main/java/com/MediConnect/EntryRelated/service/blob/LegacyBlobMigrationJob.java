@@ -0,0 +1,214 @@
+package com.MediConnect.EntryRelated.service.blob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves documents still stored in the old BYTEA columns (laboratory_result.image,
+ * healthcare_provider.license_document) into the {@link BlobStore} and clears the column.
+ *
+ * Runs shortly after startup and then every blob-store.migration.interval-ms until nothing is left. Each row
+ * is moved in its own transaction, reading one document at a time, with FOR UPDATE SKIP LOCKED so instances
+ * running the job at once split the rows. A row that fails is logged and skipped until the next run.
+ * Until a row has been moved, {@link #readLegacy} serves its bytes from the old column.
+ *
+ * The columns are not dropped: an instance still running the previous version may write to them during a
+ * rolling deploy, and the next run picks such rows up.
+ *
+ * Metrics: blob.migration.moved (documents moved, tagged by source) and blob.migration.duration.
+ */
+@Slf4j
+@Component
+public class LegacyBlobMigrationJob {
+
+    public enum Source {
+        LAB_RESULT("laboratory_result", "image", "blob_key") {
+            @Override
+            void markMoved(JdbcTemplate jdbcTemplate, Long id, BlobStore.StoredBlob blob) {
+                jdbcTemplate.update("UPDATE laboratory_result SET blob_key = ?, image_size = ?, has_image = true, " +
+                        "image = NULL WHERE id = ?", blob.key(), (int) blob.size(), id);
+            }
+        },
+        LICENSE("healthcare_provider", "license_document", "license_document_key") {
+            @Override
+            void markMoved(JdbcTemplate jdbcTemplate, Long id, BlobStore.StoredBlob blob) {
+                jdbcTemplate.update("UPDATE healthcare_provider SET license_document_key = ?, " +
+                        "license_document = NULL WHERE id = ?", blob.key(), id);
+            }
+        };
+
+        private final String table;
+        private final String column;
+        private final String pendingSql;
+        private final String lockSql;
+        private final String readSql;
+
+        Source(String table, String column, String keyColumn) {
+            this.table = table;
+            this.column = column;
+            this.pendingSql = "SELECT id FROM " + table + " WHERE id > ? AND " + column + " IS NOT NULL AND " +
+                    keyColumn + " IS NULL ORDER BY id LIMIT ?";
+            this.lockSql = "SELECT " + column + " FROM " + table + " WHERE id = ? AND " + column + " IS NOT NULL AND " +
+                    keyColumn + " IS NULL FOR UPDATE SKIP LOCKED";
+            this.readSql = "SELECT " + column + " FROM " + table + " WHERE id = ? AND " + column + " IS NOT NULL";
+        }
+
+        abstract void markMoved(JdbcTemplate jdbcTemplate, Long id, BlobStore.StoredBlob blob);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final BlobReferences blobReferences;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Map<Source, Counter> movedCounters = new EnumMap<>(Source.class);
+    private final Map<Source, Boolean> legacyColumnPresent = new ConcurrentHashMap<>();
+    private final Timer runTimer;
+
+    public LegacyBlobMigrationJob(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            BlobStore blobStore,
+            BlobReferences blobReferences,
+            MeterRegistry meterRegistry,
+            @Value("${blob-store.migration.enabled:true}") boolean enabled,
+            @Value("${blob-store.migration.batch-size:50}") int batchSize,
+            @Value("${blob-store.migration.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blobStore = blobStore;
+        this.blobReferences = blobReferences;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        for (Source source : Source.values()) {
+            movedCounters.put(source, Counter.builder("blob.migration.moved")
+                    .description("Documents moved from database columns into the blob store")
+                    .tag("source", source.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.runTimer = Timer.builder("blob.migration.duration")
+                .description("Time taken by one blob migration run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${blob-store.migration.initial-delay-ms:30000}",
+            fixedDelayString = "${blob-store.migration.interval-ms:3600000}")
+    public void scheduledMigrate() {
+        if (!enabled) return;
+        try {
+            migrate();
+        } catch (Exception e) {
+            log.warn("Blob migration run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one migration pass.
+     *
+     * @return number of documents moved
+     */
+    public long migrate() {
+        long started = System.nanoTime();
+        long moved = 0;
+        try {
+            for (Source source : Source.values()) {
+                if (hasLegacyColumn(source)) {
+                    moved += migrate(source);
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(Duration.ofNanos(elapsed));
+            if (moved > 0) {
+                log.info("Moved {} document(s) into the blob store in {} ms", moved, elapsed / 1_000_000);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Bytes of a document that has not been moved yet, or empty if the row has none in the old column.
+     */
+    public Optional<Resource> readLegacy(Source source, Long id) {
+        if (!hasLegacyColumn(source)) return Optional.empty();
+        List<byte[]> content = jdbcTemplate.queryForList(source.readSql, byte[].class, id);
+        return content.isEmpty() ? Optional.empty() : Optional.of(new ByteArrayResource(content.get(0)));
+    }
+
+    private long migrate(Source source) {
+        long moved = 0;
+        long lastId = 0;
+        for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+            List<Long> ids = jdbcTemplate.queryForList(source.pendingSql, Long.class, lastId, batchSize);
+            for (Long id : ids) {
+                try {
+                    if (moveOne(source, id)) {
+                        moved++;
+                        movedCounters.get(source).increment();
+                    }
+                } catch (Exception e) {
+                    log.warn("Could not move {} {} into the blob store: {}", source.table, id, e.getMessage());
+                }
+                lastId = id;
+            }
+            if (ids.size() < batchSize) break;
+        }
+        return moved;
+    }
+
+    private boolean moveOne(Source source, Long id) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<BlobStore.StoredBlob> stored = putLocked(source, id);
+            if (stored.isEmpty()) return false;
+            if (!blobReferences.pin(stored.get(0).key())) {
+                // Deleted by a release of the same content in the meantime; the row is still locked by us
+                putLocked(source, id);
+            }
+            // If the update fails the stored copy is left unreferenced; the next attempt stores the same key
+            source.markMoved(jdbcTemplate, id, stored.get(0));
+            return true;
+        }));
+    }
+
+    private List<BlobStore.StoredBlob> putLocked(Source source, Long id) {
+        return jdbcTemplate.query(source.lockSql, (rs, row) -> {
+            try (InputStream content = rs.getBinaryStream(1)) {
+                return blobStore.put(content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, id);
+    }
+
+    // Fresh databases never had the BYTEA columns
+    private boolean hasLegacyColumn(Source source) {
+        return legacyColumnPresent.computeIfAbsent(source, s -> {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM information_schema.columns WHERE table_schema = current_schema() " +
+                    "AND table_name = ? AND column_name = ?", Integer.class, s.table, s.column);
+            return count != null && count > 0;
+        });
+    }
+}
@@ -10,6 +10,7 @@ import com.MediConnect.EntryRelated.entities.SpecializationType;
 import com.MediConnect.EntryRelated.entities.WorkExperience;
 import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
 import com.MediConnect.EntryRelated.service.ActivityService;
+import com.MediConnect.EntryRelated.service.AuthSessionService;
 import com.MediConnect.EntryRelated.service.OTPService;
 import com.MediConnect.EntryRelated.service.healthprovider.HealthcareProviderService;
 import com.MediConnect.EntryRelated.service.review.ReviewService;
@@ -21,7 +22,7 @@ import com.MediConnect.socialmedia.entity.NotificationType;
 import com.MediConnect.socialmedia.service.NotificationService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,11 +35,12 @@ public class HealthProviderServiceImpl implements HealthcareProviderService {
 
     private final HealthcareProviderRepo providerRepo;
     private final HealthcareProviderMapper providerMapper;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final UserService userService;
     private final OTPService otpService;
     private final JWTService jwtService;
     private final ActivityService activityService;
+    private final AuthSessionService authSessionService;
     private final NotificationService notificationService;
     private final ReviewService reviewService;
     @Transactional
@@ -229,18 +231,15 @@ public class HealthProviderServiceImpl implements HealthcareProviderService {
         }
 
         // 5. Generate token
-        String token = jwtService.generateToken(new com.MediConnect.config.UserPrincipal(provider));
-
-        // 6. Log session activity
-        activityService.createLoginSession(provider, token, request);
+        AuthSessionService.Tokens tokens = authSessionService.start(provider, request);
 
         System.out.println("DEBUG LOGIN: Authentication successful, token generated");
 
-        // 7. Return success response
+        // 6. Return success response
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
         response.put("message", "Healthcare provider login successful");
-        response.put("token", token);
+        tokens.addTo(response);
         response.put("userId", provider.getId());
         return response;
     }
@@ -276,16 +275,13 @@ public class HealthProviderServiceImpl implements HealthcareProviderService {
         otpService.clearLoginOTP(provider.getEmail());
 
         // Generate token
-        String token = jwtService.generateToken(new com.MediConnect.config.UserPrincipal(provider));
-
-        // Create login session and log activity
-        activityService.createLoginSession(provider, token, httpRequest);
+        AuthSessionService.Tokens tokens = authSessionService.start(provider, httpRequest);
 
         // Prepare response
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
         response.put("message", "Login successful");
-        response.put("token", token);
+        tokens.addTo(response);
         response.put("userId", provider.getId());
         return response;
     }
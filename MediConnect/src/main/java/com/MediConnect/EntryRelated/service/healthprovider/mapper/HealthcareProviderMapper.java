@@ -28,6 +28,9 @@ public interface HealthcareProviderMapper {
     @Mapping(target = "state", ignore = true)
     @Mapping(target = "zipcode", ignore = true)
     @Mapping(target = "dateOfBirth", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
+    @Mapping(target = "licenseDocumentKey", ignore = true)
+    @Mapping(target = "licenseDocumentContentType", ignore = true)
     HealthcareProvider signupDtoToProvider(SignupHPRequestDTO dto);
 
     List<EducationHistory> mapEducationHistories(List<EducationHistoryDTO> dtos);
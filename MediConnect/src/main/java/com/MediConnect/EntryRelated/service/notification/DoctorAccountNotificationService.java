@@ -4,7 +4,6 @@ import com.MediConnect.EntryRelated.entities.AccountStatus;
 import com.MediConnect.EntryRelated.entities.HealthcareProvider;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -15,7 +14,7 @@ import org.springframework.util.StringUtils;
 @RequiredArgsConstructor
 public class DoctorAccountNotificationService {
 
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
 
     public void sendStatusChangeEmail(HealthcareProvider provider, AccountStatus status) {
         if (provider == null || !StringUtils.hasText(provider.getEmail()) || status == null) {
@@ -66,7 +65,7 @@ public class DoctorAccountNotificationService {
         message.setTo(provider.getEmail());
         message.setSubject(subject);
         message.setText(body);
-        mailSender.send(message);
+        mailDispatcher.enqueue(message, MailDispatcher.Priority.NORMAL);
     }
 
     private String defaultString(String value) {
@@ -0,0 +1,304 @@
+package com.MediConnect.EntryRelated.service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends outgoing email off the request thread.
+ *
+ * Messages wait in a bounded priority queue (HIGH before NORMAL, FIFO within a priority) and are sent by
+ * mail.dispatch.workers threads. Each worker keeps its SMTP connection open between messages and closes
+ * it after mail.dispatch.idle-close-ms without work, so a burst of OTPs pays for one handshake per worker
+ * instead of one per message. A send that fails on a kept-open connection is repeated at once on a new
+ * one, since the server may have closed it while idle. Otherwise a failed send drops the connection and
+ * is retried with exponential backoff up to mail.dispatch.max-attempts; a full queue rejects new messages rather than blocking the caller.
+ * Messages still queued at shutdown are lost (every email sent here can be requested again).
+ *
+ * Metrics: mail.queue.depth, mail.queue.time (ready to picked up, by priority), mail.send.time
+ * (by outcome) and mail.messages (by outcome: sent, retried, failed, rejected).
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    public enum Priority {
+        HIGH, NORMAL
+    }
+
+    private record QueuedMail(SimpleMailMessage message, Priority priority, long sequence,
+                              int attempt, long readyAtNanos) {
+    }
+
+    private static final Comparator<QueuedMail> ORDER = Comparator
+            .comparing(QueuedMail::priority)
+            .thenComparingLong(QueuedMail::sequence);
+
+    private final JavaMailSender mailSender;
+    private final int workerCount;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long idleCloseMillis;
+
+    private final PriorityBlockingQueue<QueuedMail> queue = new PriorityBlockingQueue<>(64, ORDER);
+    // Queued plus waiting for a retry; bounded by queueCapacity
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "mail-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+
+    private final Map<Priority, Timer> queueTimers = new EnumMap<>(Priority.class);
+    private final Timer sendSucceeded;
+    private final Timer sendFailed;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public MailDispatcher(
+            JavaMailSender mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${mail.dispatch.workers:2}") int workerCount,
+            @Value("${mail.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${mail.dispatch.max-attempts:5}") int maxAttempts,
+            @Value("${mail.dispatch.initial-backoff-ms:2000}") long initialBackoffMillis,
+            @Value("${mail.dispatch.max-backoff-ms:60000}") long maxBackoffMillis,
+            @Value("${mail.dispatch.idle-close-ms:30000}") long idleCloseMillis) {
+        this.mailSender = mailSender;
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.idleCloseMillis = idleCloseMillis;
+
+        Gauge.builder("mail.queue.depth", pending, AtomicInteger::get)
+                .description("Emails waiting to be sent, including those waiting for a retry")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            queueTimers.put(priority, Timer.builder("mail.queue.time")
+                    .description("Time an email waited in the queue before a worker picked it up")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.sendSucceeded = sendTimer(meterRegistry, "sent");
+        this.sendFailed = sendTimer(meterRegistry, "error");
+        this.sent = outcomeCounter(meterRegistry, "sent");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "mail-sender-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+        int dropped = pending.get();
+        if (dropped > 0) {
+            log.warn("Mail dispatcher stopped with {} unsent email(s)", dropped);
+        }
+    }
+
+    /**
+     * Queues a message for sending.
+     *
+     * @return false if the queue is full and the message was dropped
+     */
+    public boolean enqueue(SimpleMailMessage message, Priority priority) {
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            log.warn("Mail queue full ({} messages), dropping email to {}", queueCapacity, recipients(message));
+            return false;
+        }
+        queue.add(new QueuedMail(message, priority, sequence.incrementAndGet(), 1, System.nanoTime()));
+        return true;
+    }
+
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    private void work() {
+        SmtpConnection connection = new SmtpConnection();
+        try {
+            while (running) {
+                QueuedMail mail;
+                try {
+                    mail = queue.poll(idleCloseMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (mail == null) {
+                    connection.close();
+                    continue;
+                }
+                queueTimers.get(mail.priority()).record(System.nanoTime() - mail.readyAtNanos(), TimeUnit.NANOSECONDS);
+                send(connection, mail);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void send(SmtpConnection connection, QueuedMail mail) {
+        long started = System.nanoTime();
+        try {
+            connection.send(mail.message());
+            sendSucceeded.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            sent.increment();
+            pending.decrementAndGet();
+        } catch (Exception e) {
+            sendFailed.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            // The connection may be half-broken; the next message opens a fresh one
+            connection.close();
+            retryOrGiveUp(mail, e);
+        }
+    }
+
+    private void retryOrGiveUp(QueuedMail mail, Exception error) {
+        if (mail.attempt() >= maxAttempts || !running) {
+            failed.increment();
+            pending.decrementAndGet();
+            log.error("Giving up on email to {} after {} attempt(s): {}",
+                    recipients(mail.message()), mail.attempt(), error.getMessage());
+            return;
+        }
+
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(mail.attempt() - 1, 20));
+        retried.increment();
+        log.warn("Email to {} failed (attempt {}), retrying in {} ms: {}",
+                recipients(mail.message()), mail.attempt(), backoff, error.getMessage());
+        try {
+            retryScheduler.schedule(() -> queue.add(new QueuedMail(mail.message(), mail.priority(),
+                    mail.sequence(), mail.attempt() + 1, System.nanoTime())), backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet(); // shutting down
+        }
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mail.send.time")
+                .description("Time spent sending one email over SMTP")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("mail.messages")
+                .description("Emails handled by the mail dispatcher")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String recipients(SimpleMailMessage message) {
+        String[] to = message.getTo();
+        return to == null ? "(none)" : String.join(",", to);
+    }
+
+    /**
+     * One worker's SMTP connection, opened on first use and kept until {@link #close()}.
+     * Falls back to {@link JavaMailSender#send} (a connection per message) for senders other than
+     * JavaMailSenderImpl.
+     */
+    private class SmtpConnection {
+
+        private Transport transport;
+
+        void send(SimpleMailMessage message) throws MessagingException {
+            if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+                mailSender.send(message);
+                return;
+            }
+
+            MimeMessage mimeMessage = sender.createMimeMessage();
+            message.copyTo(new MimeMailMessage(mimeMessage));
+            if (mimeMessage.getSentDate() == null) {
+                mimeMessage.setSentDate(new Date());
+            }
+            mimeMessage.saveChanges();
+
+            boolean reused = transport != null;
+            try {
+                connect(sender).sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            } catch (MessagingException e) {
+                if (!reused) throw e;
+                // The server may have closed a kept-open connection (idle timeout) after it looked alive;
+                // resend once on a fresh one before the message goes into backoff
+                log.debug("Send on reused SMTP connection failed, reconnecting: {}", e.getMessage());
+                close();
+                connect(sender).sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            }
+        }
+
+        private Transport connect(JavaMailSenderImpl sender) throws MessagingException {
+            if (transport != null && transport.isConnected()) {
+                return transport;
+            }
+            close();
+            String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+            Transport opened = sender.getSession().getTransport(protocol);
+            opened.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+            transport = opened;
+            return opened;
+        }
+
+        void close() {
+            if (transport == null) return;
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+}
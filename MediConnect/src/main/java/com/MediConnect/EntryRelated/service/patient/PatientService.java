@@ -7,6 +7,7 @@ import com.MediConnect.EntryRelated.dto.patient.LoginPatientRequestDTO;
 import com.MediConnect.EntryRelated.dto.patient.SignupPatientRequestDTO;
 import com.MediConnect.EntryRelated.dto.patient.UpdatePatientProfileRequestDTO;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -20,7 +21,7 @@ public interface PatientService {
     Map<String, Object> verifyLoginOTP(Map<String, String> request, HttpServletRequest httpRequest);
     Map<String, Object> getProfile(String token);
     Map<String, Object> getLabResults(String token);
-    byte[] getLabResultImage(Long labResultId);
+    Resource getLabResultImage(Long labResultId) throws IOException;
     Map<String, String> uploadLabResult(Long patientId, String description, MultipartFile imageFile) throws IOException;
     Map<String, Object> updateProfile(String username, UpdatePatientProfileRequestDTO updateRequest);
     Map<String, String> changePassword(String username, ChangePasswordRequestDTO changePasswordRequest);
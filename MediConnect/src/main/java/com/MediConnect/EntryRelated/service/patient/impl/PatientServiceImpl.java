@@ -11,8 +11,10 @@ import com.MediConnect.EntryRelated.entities.Patient;
 import com.MediConnect.EntryRelated.repository.LabResultRepo;
 import com.MediConnect.EntryRelated.repository.PatientRepo;
 import com.MediConnect.EntryRelated.service.ActivityService;
+import com.MediConnect.EntryRelated.service.AuthSessionService;
 import com.MediConnect.EntryRelated.service.NotificationPreferencesService;
 import com.MediConnect.EntryRelated.service.OTPService;
+import com.MediConnect.EntryRelated.service.blob.DocumentStorageService;
 import com.MediConnect.EntryRelated.service.patient.PatientService;
 import com.MediConnect.EntryRelated.service.patient.mapper.LaboratoryResultMapper;
 import com.MediConnect.EntryRelated.service.patient.mapper.PatientMapper;
@@ -21,7 +23,8 @@ import com.MediConnect.EntryRelated.exception.AccountStatusException;
 import com.MediConnect.config.JWTService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.core.io.Resource;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -40,10 +43,12 @@ public class PatientServiceImpl implements PatientService {
     private final UserService userService;
     private final OTPService otpService;
     private final PatientMapper patientMapper;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final JWTService jwtService;
     private final ActivityService activityService;
+    private final AuthSessionService authSessionService;
     private final LabResultRepo labResultRepo;
+    private final DocumentStorageService documentStorageService;
     private final LaboratoryResultMapper labResultMapper;
     private final NotificationPreferencesService notificationPreferencesServiceCore; // existing logic
 
@@ -100,14 +105,11 @@ public class PatientServiceImpl implements PatientService {
         }
 
         // 5️⃣ If 2FA not enabled, generate JWT
-        String token = jwtService.generateToken(new com.MediConnect.config.UserPrincipal(patient));
-
-        // 6️⃣ Log login activity
-        activityService.createLoginSession(patient, token, request);
+        AuthSessionService.Tokens tokens = authSessionService.start(patient, request);
 
         response.put("status", "success");
         response.put("message", "Patient login successful");
-        response.put("token", token);
+        tokens.addTo(response);
         return response;
     }
     @Override
@@ -128,16 +130,13 @@ public class PatientServiceImpl implements PatientService {
         otpService.clearLoginOTP(patient.getEmail());
 
         // 4️⃣ Generate token
-        String token = jwtService.generateToken(new com.MediConnect.config.UserPrincipal(patient));
-
-        // 5️⃣ Log session and activity
-        activityService.createLoginSession(patient, token, httpRequest);
+        AuthSessionService.Tokens tokens = authSessionService.start(patient, httpRequest);
 
-        // 6️⃣ Prepare response
+        // 5️⃣ Prepare response
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
         response.put("message", "Login successful");
-        response.put("token", token);
+        tokens.addTo(response);
         return response;
     }
     @Override
@@ -177,16 +176,12 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    public byte[] getLabResultImage(Long labResultId) {
+    public Resource getLabResultImage(Long labResultId) throws IOException {
         LaboratoryResult labResult = labResultRepo.findById(labResultId)
                 .orElseThrow(() -> new RuntimeException("Lab result not found"));
 
         // Return null if image not present
-        if (labResult.getImage() == null || labResult.getImage().length == 0) {
-            return null;
-        }
-
-        return labResult.getImage();
+        return documentStorageService.labResult(labResult).orElse(null);
     }
     @Override
     public Map<String, String> uploadLabResult(Long patientId, String description, MultipartFile imageFile) throws IOException {
@@ -200,9 +195,7 @@ public class PatientServiceImpl implements PatientService {
         LaboratoryResult result = new LaboratoryResult();
         result.setDescription(description);
         result.setPatient(patient);
-        result.setImage(imageFile.getBytes());
-
-        labResultRepo.save(result);
+        documentStorageService.storeLabResult(result, imageFile);
 
         Map<String, String> response = new HashMap<>();
         response.put("status", "success");
@@ -429,8 +422,8 @@ public class PatientServiceImpl implements PatientService {
         LabResultResponseDTO dto = new LabResultResponseDTO();
         dto.setId(labResult.getId());
         dto.setDescription(labResult.getDescription());
-        dto.setHasImage(labResult.getImage() != null && labResult.getImage().length > 0);
-        dto.setImageSize(labResult.getImage() != null ? labResult.getImage().length : 0);
+        dto.setHasImage(Boolean.TRUE.equals(labResult.getHasImage()));
+        dto.setImageSize(labResult.getImageSize() != null ? labResult.getImageSize() : 0);
         dto.setResultUrl(labResult.getResultUrl());
         return dto;
     }
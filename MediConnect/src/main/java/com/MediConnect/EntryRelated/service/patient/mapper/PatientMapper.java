@@ -21,6 +21,7 @@ public interface PatientMapper {
     @Mapping(target = "medications", source = "medications")
     @Mapping(target = "mentalHealthMedications", source = "mentalHealthMedications")
     @Mapping(target = "laboratoryResults", source = "laboratoryResults")
+    @Mapping(target = "tokenVersion", ignore = true)
     Patient signupDtoToPatient(SignupPatientRequestDTO dto);
 
     // 2️⃣ Map from Patient entity → Profile DTO
@@ -1,8 +1,13 @@
 package com.MediConnect.Repos;
 
 import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.socialmedia.dto.AdminRecipient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,5 +24,16 @@ public interface UserRepo extends JpaRepository<Users, Long> {
 
     List<Users> findByRoleIgnoreCase(String role);
 
+    @Query("SELECT new com.MediConnect.socialmedia.dto.AdminRecipient(u.id, u.username) FROM Users u " +
+           "WHERE UPPER(u.role) = 'ADMIN' ORDER BY u.id")
+    List<AdminRecipient> findAdminRecipients();
+
+    @Query("SELECT u.id FROM Users u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Users u SET u.password = :password WHERE u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
 
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.MediConnect.Service;
+
+import com.MediConnect.EntryRelated.exception.OtpRateLimitException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-time passwords in Redis, one hash per purpose and email (otp:{purpose}:{email}) holding the SHA-256
+ * of the code and the number of wrong guesses.
+ *
+ * Issuing and verifying are single Lua scripts, so concurrent requests cannot both consume the same code
+ * or slip past a limit between a read and a write. A code is deleted after otp.max-attempts wrong guesses.
+ * Fixed-window counters limit how many codes are sent per email and per client IP, and how many wrong
+ * codes one IP may submit across all emails (otp.rate-limit.*). A rejected caller is told when the
+ * window that stopped it ends. Every operation touches a constant number of keys.
+ */
+@Service
+public class OtpStore {
+
+    public enum Purpose {
+        LOGIN, REGISTRATION, PASSWORD_RESET
+    }
+
+    public enum Result {
+        VALID, INVALID
+    }
+
+    // Both scripts answer a rate-limited call with minus the time (ms) until the limiting window ends
+
+    // KEYS: otp hash, email send counter, ip send counter
+    // ARGV: code hash, ttl ms, window ms, max sends per email, max sends per ip (0 = no ip)
+    private static final RedisScript<Long> ISSUE = new DefaultRedisScript<>(
+            "local function full(key, limit) return tonumber(redis.call('GET', key) or '0') >= limit end " +
+            "local function limited(key) return -math.max(redis.call('PTTL', key), 1) end " +
+            "local function hit(key) if redis.call('INCR', key) == 1 then redis.call('PEXPIRE', key, ARGV[3]) end end " +
+            "local maxIp = tonumber(ARGV[5]) " +
+            "if full(KEYS[2], tonumber(ARGV[4])) then return limited(KEYS[2]) end " +
+            "if maxIp > 0 and full(KEYS[3], maxIp) then return limited(KEYS[3]) end " +
+            "hit(KEYS[2]) " +
+            "if maxIp > 0 then hit(KEYS[3]) end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    // KEYS: otp hash, ip failure counter
+    // ARGV: code hash, max attempts, consume (1/0), window ms, max failures per ip (0 = no ip)
+    private static final RedisScript<Long> VERIFY = new DefaultRedisScript<>(
+            "local maxIp = tonumber(ARGV[5]) " +
+            "if maxIp > 0 and tonumber(redis.call('GET', KEYS[2]) or '0') >= maxIp then " +
+            "  return -math.max(redis.call('PTTL', KEYS[2]), 1) " +
+            "end " +
+            "local code = redis.call('HGET', KEYS[1], 'code') " +
+            "if code and code == ARGV[1] then " +
+            "  if ARGV[3] == '1' then redis.call('DEL', KEYS[1]) end " +
+            "  return 1 " +
+            "end " +
+            "if maxIp > 0 and redis.call('INCR', KEYS[2]) == 1 then redis.call('PEXPIRE', KEYS[2], ARGV[4]) end " +
+            "if code and redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= tonumber(ARGV[2]) then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private static final String NO_IP = "none";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<Purpose, Duration> ttls = new EnumMap<>(Purpose.class);
+    private final int maxAttempts;
+    private final Duration rateWindow;
+    private final int sendsPerEmail;
+    private final int sendsPerIp;
+    private final int failedVerificationsPerIp;
+
+    public OtpStore(
+            StringRedisTemplate redisTemplate,
+            @Value("${otp.ttl.login-minutes:5}") long loginTtlMinutes,
+            @Value("${otp.ttl.registration-minutes:10}") long registrationTtlMinutes,
+            @Value("${otp.ttl.password-reset-minutes:10}") long passwordResetTtlMinutes,
+            @Value("${otp.max-attempts:5}") int maxAttempts,
+            @Value("${otp.rate-limit.window-minutes:15}") long rateWindowMinutes,
+            @Value("${otp.rate-limit.sends-per-email:5}") int sendsPerEmail,
+            @Value("${otp.rate-limit.sends-per-ip:20}") int sendsPerIp,
+            @Value("${otp.rate-limit.failed-verifications-per-ip:30}") int failedVerificationsPerIp) {
+        this.redisTemplate = redisTemplate;
+        this.ttls.put(Purpose.LOGIN, Duration.ofMinutes(loginTtlMinutes));
+        this.ttls.put(Purpose.REGISTRATION, Duration.ofMinutes(registrationTtlMinutes));
+        this.ttls.put(Purpose.PASSWORD_RESET, Duration.ofMinutes(passwordResetTtlMinutes));
+        this.maxAttempts = maxAttempts;
+        this.rateWindow = Duration.ofMinutes(rateWindowMinutes);
+        this.sendsPerEmail = sendsPerEmail;
+        this.sendsPerIp = sendsPerIp;
+        this.failedVerificationsPerIp = failedVerificationsPerIp;
+    }
+
+    public Duration ttl(Purpose purpose) {
+        return ttls.get(purpose);
+    }
+
+    /**
+     * Stores a new code for the email, replacing any previous one and resetting its attempt count.
+     *
+     * @param clientIp caller's address, or null outside a web request (skips the per-IP limit)
+     * @throws OtpRateLimitException if too many codes were sent to this email or from this IP recently
+     */
+    public void issue(Purpose purpose, String email, String otp, String clientIp) {
+        Long result = redisTemplate.execute(ISSUE,
+                List.of(otpKey(purpose, email), "otp:rate:send:email:" + email, "otp:rate:send:ip:" + ipOrNone(clientIp)),
+                hash(purpose, email, otp),
+                Long.toString(ttl(purpose).toMillis()),
+                Long.toString(rateWindow.toMillis()),
+                Integer.toString(sendsPerEmail),
+                Integer.toString(clientIp == null ? 0 : sendsPerIp));
+        if (result == null || result < 0) {
+            throw new OtpRateLimitException("Too many verification codes requested. Please try again later.",
+                    retryAfter(result));
+        }
+    }
+
+    /**
+     * Checks a code. A wrong guess counts against the code and against the caller's IP.
+     *
+     * @param consume delete the code when it matches, so it cannot be used again
+     * @throws OtpRateLimitException if this IP submitted too many wrong codes recently
+     */
+    public Result verify(Purpose purpose, String email, String otp, String clientIp, boolean consume) {
+        if (otp == null) return Result.INVALID;
+        Long result = redisTemplate.execute(VERIFY,
+                List.of(otpKey(purpose, email), "otp:rate:verify-failed:ip:" + ipOrNone(clientIp)),
+                hash(purpose, email, otp),
+                Integer.toString(maxAttempts),
+                consume ? "1" : "0",
+                Long.toString(rateWindow.toMillis()),
+                Integer.toString(clientIp == null ? 0 : failedVerificationsPerIp));
+        if (result != null && result < 0) {
+            throw new OtpRateLimitException("Too many incorrect codes. Please try again later.", retryAfter(result));
+        }
+        return result != null && result > 0 ? Result.VALID : Result.INVALID;
+    }
+
+    public void clear(Purpose purpose, String email) {
+        redisTemplate.delete(otpKey(purpose, email));
+    }
+
+    /**
+     * Remembers that the email passed verification for the purpose, for as long as a code would live.
+     */
+    public void markVerified(Purpose purpose, String email) {
+        redisTemplate.opsForValue().set(verifiedKey(purpose, email), "true", ttl(purpose));
+    }
+
+    public boolean isVerified(Purpose purpose, String email) {
+        return "true".equals(redisTemplate.opsForValue().get(verifiedKey(purpose, email)));
+    }
+
+    private static String otpKey(Purpose purpose, String email) {
+        return "otp:" + purpose.name().toLowerCase() + ":" + email;
+    }
+
+    private static String verifiedKey(Purpose purpose, String email) {
+        return "otp:" + purpose.name().toLowerCase() + ":verified:" + email;
+    }
+
+    // A window without a TTL (should not happen) or a failed call gets the full window
+    private Duration retryAfter(Long scriptResult) {
+        return scriptResult == null || scriptResult == -1 ? rateWindow : Duration.ofMillis(-scriptResult);
+    }
+
+    private static String ipOrNone(String clientIp) {
+        return clientIp == null ? NO_IP : clientIp;
+    }
+
+    // Only a digest is stored, salted with the purpose and email so equal codes do not hash alike
+    private static String hash(Purpose purpose, String email, String otp) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest((purpose.name() + ":" + email + ":" + otp).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
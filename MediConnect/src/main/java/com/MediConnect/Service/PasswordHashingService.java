@@ -0,0 +1,165 @@
+package com.MediConnect.Service;
+
+import com.MediConnect.util.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The application's PasswordEncoder: hashes and verifies passwords on a dedicated CPU pool.
+ *
+ * A bcrypt verification costs a few hundred milliseconds of CPU. Running it on request threads lets a
+ * burst of logins occupy every core and every Tomcat thread at once; here at most auth.password.hash.pool-size
+ * hashes (default: one per core) run concurrently, at most auth.password.hash.queue-capacity wait, and
+ * anything beyond that fails fast with 503 and Retry-After (BulkheadFullExceptionHandler) while the waiting
+ * request threads burn no CPU.
+ *
+ * Hashes are stored as "{id}hash" (DelegatingPasswordEncoder). New hashes use auth.password.encoding-id
+ * (bcrypt at auth.password.bcrypt-strength, pbkdf2, or argon2 when BouncyCastle is on the classpath).
+ * Hashes from before the prefix existed are plain bcrypt and keep working. After a successful login
+ * {@link #upgradeEncoding} tells DaoAuthenticationProvider to re-hash a password stored with another
+ * algorithm or a lower bcrypt cost; MyUserDetailsService saves the new hash.
+ *
+ * Metrics: auth.password.hash.duration (per operation, on the hashing thread), auth.password.hash.queue.depth,
+ * auth.password.hash.rejected, auth.password.upgrades.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final String BCRYPT = "bcrypt";
+
+    private final DelegatingPasswordEncoder delegate;
+    private final BCryptPasswordEncoder bcrypt;
+    private final String encodingId;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Counter upgradeCounter;
+
+    public PasswordHashingService(
+            MeterRegistry meterRegistry,
+            @Value("${auth.password.encoding-id:bcrypt}") String encodingId,
+            @Value("${auth.password.bcrypt-strength:12}") int bcryptStrength,
+            @Value("${auth.password.hash.pool-size:0}") int poolSize,
+            @Value("${auth.password.hash.queue-capacity:50}") int queueCapacity) {
+        this.bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters", getClass().getClassLoader())) {
+            encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalStateException("auth.password.encoding-id '" + encodingId + "' is not available, use one of "
+                    + encoders.keySet());
+        }
+        this.encodingId = encodingId;
+        this.delegate = new DelegatingPasswordEncoder(encodingId, encoders);
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = timer(meterRegistry, "encode");
+        this.matchesTimer = timer(meterRegistry, "matches");
+        Gauge.builder("auth.password.hash.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hash operations waiting for a hashing thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+                .description("Password hash operations refused because the hashing queue was full")
+                .register(meterRegistry);
+        this.upgradeCounter = Counter.builder("auth.password.upgrades")
+                .description("Stored password hashes re-hashed with the current algorithm after login")
+                .register(meterRegistry);
+        log.info("Password hashing: new hashes use {}, {} hashing thread(s)", encodingId, threads);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Cheap (parses the stored hash only), so it runs on the caller's thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        boolean upgrade;
+        if (encodedPassword != null && !encodedPassword.startsWith("{")) {
+            // Unprefixed hashes are bcrypt; re-hash only for a different algorithm or a higher cost
+            upgrade = !BCRYPT.equals(encodingId) || bcrypt.upgradeEncoding(encodedPassword);
+        } else {
+            upgrade = delegate.upgradeEncoding(encodedPassword);
+        }
+        if (upgrade) {
+            upgradeCounter.increment();
+        }
+        return upgrade;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Timer timer, Supplier<T> operation) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.record(operation));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new Bulkhead.BulkheadFullException("Too many sign-ins in progress, please try again shortly");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash.duration")
+                .description("Wall-clock time a hashing thread spent hashing or verifying one password, excluding queue wait")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
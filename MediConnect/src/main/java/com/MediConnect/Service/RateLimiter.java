@@ -0,0 +1,122 @@
+package com.MediConnect.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets shared by all instances through Redis (one hash per bucket, ratelimit:{bucket}).
+ *
+ * Refill and take happen in one Lua script, so concurrent requests cannot overdraw a bucket. When Redis
+ * fails, buckets are kept in memory for rate-limit.redis-retry-seconds before Redis is tried again; the
+ * limit then applies per instance instead of cluster-wide, which is still enough to stop a flood.
+ */
+@Slf4j
+@Service
+public class RateLimiter {
+
+    /**
+     * Outcome of one take: whether the request may proceed, the whole tokens left, and how long until the
+     * next token when it may not.
+     */
+    public record Decision(boolean allowed, long remaining, Duration retryAfter) {
+    }
+
+    // KEYS: bucket hash; ARGV: capacity, tokens per ms, now ms, idle ttl ms
+    // Returns {allowed (1/0), whole tokens left, ms until the next token}
+    private static final RedisScript<List> TAKE = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local now = tonumber(ARGV[3]) " +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(state[1]) or capacity " +
+            "local ts = tonumber(state[2]) or now " +
+            "if now > ts then tokens = math.min(capacity, tokens + (now - ts) * rate) else now = ts end " +
+            "local allowed = 0 " +
+            "local wait = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 allowed = 1 else wait = math.ceil((1 - tokens) / rate) end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[4]) " +
+            "return {allowed, math.floor(tokens), wait}",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, LocalBucket> localBuckets;
+    private final long redisRetryMillis;
+    private volatile long redisRetryAt;
+
+    public RateLimiter(StringRedisTemplate redisTemplate,
+                       @Value("${rate-limit.redis-retry-seconds:10}") long redisRetrySeconds,
+                       @Value("${rate-limit.local-max-buckets:100000}") long localMaxBuckets) {
+        this.redisTemplate = redisTemplate;
+        this.redisRetryMillis = Duration.ofSeconds(redisRetrySeconds).toMillis();
+        this.localBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofHours(1))
+                .maximumSize(localMaxBuckets)
+                .build();
+    }
+
+    /**
+     * Takes one token from the bucket, creating it full if it does not exist yet.
+     *
+     * @param capacity        burst size
+     * @param refillPerMinute tokens added back per minute, up to the capacity
+     */
+    public Decision tryTake(String bucket, long capacity, double refillPerMinute) {
+        double tokensPerMilli = refillPerMinute / 60_000d;
+        long now = System.currentTimeMillis();
+        if (now >= redisRetryAt) {
+            try {
+                return takeRemote(bucket, capacity, tokensPerMilli, now);
+            } catch (Exception e) {
+                redisRetryAt = now + redisRetryMillis;
+                log.warn("Rate limiting falls back to in-memory buckets for {} s: {}", redisRetryMillis / 1000, e.getMessage());
+            }
+        }
+        return localBuckets.get(bucket, key -> new LocalBucket(capacity, now)).take(capacity, tokensPerMilli, now);
+    }
+
+    private Decision takeRemote(String bucket, long capacity, double tokensPerMilli, long now) {
+        // Idle buckets are full again after capacity / rate, so they can expire then
+        long idleTtl = (long) Math.ceil(capacity / tokensPerMilli) + 1_000;
+        List<?> result = redisTemplate.execute(TAKE, List.of("ratelimit:" + bucket),
+                Long.toString(capacity), Double.toString(tokensPerMilli), Long.toString(now), Long.toString(idleTtl));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("unexpected rate limit script result " + result);
+        }
+        return new Decision(((Number) result.get(0)).longValue() == 1,
+                ((Number) result.get(1)).longValue(),
+                Duration.ofMillis(((Number) result.get(2)).longValue()));
+    }
+
+    private static final class LocalBucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        LocalBucket(long capacity, long now) {
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        synchronized Decision take(long capacity, double tokensPerMilli, long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerMilli);
+                updatedAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return new Decision(true, (long) tokens, Duration.ZERO);
+            }
+            return new Decision(false, 0, Duration.ofMillis((long) Math.ceil((1 - tokens) / tokensPerMilli)));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.MediConnect.Service;
 
 import com.MediConnect.EntryRelated.entities.AccountStatus;
 import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.EntryRelated.service.TokenVersionService;
 import com.MediConnect.Repos.UserRepo;
 import com.MediConnect.config.JWTService;
 import com.MediConnect.EntryRelated.exception.AccountStatusException;
@@ -10,7 +11,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,25 +20,12 @@ public class UserService {
 
     private final UserRepo userRepo;
     private final JWTService jwtService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authManager;
+    private final TokenVersionService tokenVersionService;
 
     public String authenticate(String username, String password) {
-        userRepo.findByUsername(username).ifPresent(user -> {
-            AccountStatus status = user.getAccountStatus();
-            if (status == AccountStatus.PENDING) {
-                throw new AccountStatusException(status, "Your account is pending verification. An administrator will review your details shortly.");
-            }
-            if (status == AccountStatus.REJECTED) {
-                throw new AccountStatusException(status, "Your registration was rejected. Please contact support if you believe this is an error.");
-            }
-            if (status == AccountStatus.ON_HOLD) {
-                throw new AccountStatusException(status, "Your account is currently on hold. Please contact support for assistance.");
-            }
-            if (status == AccountStatus.BANNED) {
-                throw new AccountStatusException(status, "Your account has been permanently banned. Please contact support if you believe this is an error.");
-            }
-        });
+        userRepo.findByUsername(username).ifPresent(this::assertCanSignIn);
 
         Authentication auth = authManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username, password)
@@ -48,11 +36,32 @@ public class UserService {
         throw new RuntimeException("Invalid username or password");
     }
 
+    /**
+     * @throws AccountStatusException if the account may not sign in (pending, rejected, on hold or banned)
+     */
+    public void assertCanSignIn(Users user) {
+        AccountStatus status = user.getAccountStatus();
+        if (status == AccountStatus.PENDING) {
+            throw new AccountStatusException(status, "Your account is pending verification. An administrator will review your details shortly.");
+        }
+        if (status == AccountStatus.REJECTED) {
+            throw new AccountStatusException(status, "Your registration was rejected. Please contact support if you believe this is an error.");
+        }
+        if (status == AccountStatus.ON_HOLD) {
+            throw new AccountStatusException(status, "Your account is currently on hold. Please contact support for assistance.");
+        }
+        if (status == AccountStatus.BANNED) {
+            throw new AccountStatusException(status, "Your account has been permanently banned. Please contact support if you believe this is an error.");
+        }
+    }
+
     public void resetUserPassword(String email, String newPassword) {
         Users user = userRepo.findByEmail(email.toLowerCase())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepo.save(user);
+        // A reset means the old password may be compromised: sign out every session
+        tokenVersionService.revokeAll(user.getId());
     }
 
     public Users getUserByEmail(String email) {
@@ -1,12 +1,14 @@
 package com.MediConnect.config;
 
 import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.EntryRelated.service.TokenVersionService;
 import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.socialmedia.service.AdminRecipientDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
@@ -21,7 +23,9 @@ import java.util.Date;
 public class AdminUserInitializer implements CommandLineRunner {
 
     private final UserRepo userRepo;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final AdminRecipientDirectory adminRecipientDirectory;
+    private final TokenVersionService tokenVersionService;
 
     @Value("${admin.default.enabled:false}")
     private boolean adminBootstrapEnabled;
@@ -58,6 +62,9 @@ public class AdminUserInitializer implements CommandLineRunner {
                     if (!"ADMIN".equalsIgnoreCase(existing.getRole())) {
                         existing.setRole("ADMIN");
                         userRepo.save(existing);
+                        adminRecipientDirectory.invalidate();
+                        // Existing tokens still carry the old role
+                        tokenVersionService.revokeAll(existing.getId());
                         log.info("Existing user '{}' promoted to ADMIN role.", defaultAdminUsername);
                     } else {
                         log.info("Admin user '{}' already exists.", defaultAdminUsername);
@@ -73,6 +80,7 @@ public class AdminUserInitializer implements CommandLineRunner {
                     admin.setRegistrationDate(new Date());
                     admin.setTwoFactorEnabled(false);
                     userRepo.save(admin);
+                    adminRecipientDirectory.invalidate();
                     log.info("Default admin user '{}' created.", defaultAdminUsername);
                 });
     }
@@ -0,0 +1,49 @@
+package com.MediConnect.config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * The authenticated caller of the current request. JwtFilter builds it once from the authentication it
+ * establishes (no database access) and stores it as a request attribute; controllers receive it as a
+ * handler method parameter (see CurrentUserArgumentResolver). Declare the parameter {@code @Nullable} on
+ * endpoints that also serve anonymous callers.
+ */
+public record CurrentUser(Long id, Type type, String username) {
+
+    /** Request attribute holding the CurrentUser of an authenticated request. */
+    public static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName();
+
+    public enum Type {
+        PATIENT, DOCTOR, ADMIN
+    }
+
+    public boolean isDoctor() {
+        return type == Type.DOCTOR;
+    }
+
+    /**
+     * @return the caller behind an authentication made by JwtAuthenticator, or null for any other kind
+     */
+    public static CurrentUser from(Authentication authentication) {
+        if (authentication == null) return null;
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtAuthenticator.JwtPrincipal jwtPrincipal) {
+            return new CurrentUser(jwtPrincipal.userId(), typeOf(jwtPrincipal.role()), jwtPrincipal.username());
+        }
+        if (principal instanceof UserPrincipal userPrincipal && userPrincipal.getId() != null) {
+            String role = userPrincipal.getAuthorities().stream().findFirst().map(GrantedAuthority::getAuthority).orElse("");
+            return new CurrentUser(userPrincipal.getId(), typeOf(role), userPrincipal.getUsername());
+        }
+        return null;
+    }
+
+    private static Type typeOf(String role) {
+        String name = role.startsWith("ROLE_") ? role.substring(5) : role;
+        return switch (name) {
+            case "HEALTHPROVIDER" -> Type.DOCTOR;
+            case "ADMIN" -> Type.ADMIN;
+            default -> Type.PATIENT;
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.MediConnect.config;
+
+import com.MediConnect.util.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors and concurrency limits for blocking calls to external services.
+ *
+ * With spring.threads.virtual.enabled=true on a JDK 21+ runtime, Spring Boot serves requests on virtual
+ * threads and the executors below also start one virtual thread per task. Otherwise (including on the
+ * JDK 17 this project is built for) they are bounded platform thread pools. Either way, the Bulkhead
+ * beans cap how many calls are in flight toward each dependency.
+ *
+ * Notifications and email are not listed here: they are delivered by NotificationOutboxDispatcher and
+ * MailDispatcher, which own their worker threads.
+ */
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+    private final boolean virtualThreads;
+
+    public ExecutionConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested) {
+        boolean supported = Runtime.version().feature() >= 21;
+        if (virtualThreadsRequested && !supported) {
+            log.warn("spring.threads.virtual.enabled is set but this JVM ({}) has no virtual threads; using thread pools",
+                    Runtime.version());
+        }
+        this.virtualThreads = virtualThreadsRequested && supported;
+    }
+
+    /**
+     * AI assistant calls; the HTTP request is released while OpenAI responds.
+     */
+    @Bean(name = "aiTaskExecutor")
+    public TaskExecutor aiTaskExecutor(@Value("${app.execution.ai.pool-size:16}") int poolSize) {
+        return executor("ai", poolSize, 100);
+    }
+
+    @Bean
+    public Bulkhead mediaBulkhead(MeterRegistry meterRegistry,
+                                  @Value("${app.bulkhead.media.max-concurrent:20}") int maxConcurrent,
+                                  @Value("${app.bulkhead.media.max-wait-ms:10000}") long maxWaitMillis) {
+        return new Bulkhead("cloudinary", maxConcurrent, Duration.ofMillis(maxWaitMillis), meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead aiBulkhead(MeterRegistry meterRegistry,
+                               @Value("${app.bulkhead.ai.max-concurrent:16}") int maxConcurrent,
+                               @Value("${app.bulkhead.ai.max-wait-ms:5000}") long maxWaitMillis) {
+        return new Bulkhead("openai", maxConcurrent, Duration.ofMillis(maxWaitMillis), meterRegistry);
+    }
+
+    private TaskExecutor executor(String name, int poolSize, int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        // A full queue slows the submitter down instead of dropping the task
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
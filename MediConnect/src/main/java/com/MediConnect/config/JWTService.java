@@ -1,79 +1,132 @@
 package com.MediConnect.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
-// todo: abd test test 1.1
+/**
+ * Issues and verifies JWTs.
+ *
+ * The HMAC key and the parser are built once (JwtParser is immutable and thread-safe). JwtFilter verifies
+ * the bearer token once per request and stores the claims as request attributes; extractUserName on the
+ * same token later in the request reads them instead of verifying the signature again.
+ */
 @Service
 public class JWTService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    /** Request attribute holding the bearer token JwtFilter verified. */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = JWTService.class.getName() + ".token";
+    /** Request attribute holding the verified token's Claims. */
+    public static final String CLAIMS_ATTRIBUTE = JWTService.class.getName() + ".claims";
 
-    private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 6;
+    /** Claim holding the user's id (tokens issued for a {@link UserPrincipal}). */
+    public static final String USER_ID_CLAIM = "uid";
+    /** Claim holding the user's token version at issue time; see TokenVersionService. */
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    public static final String ROLE_CLAIM = "ROLE";
+    /** Claim holding the login session id; see AuthSessionService and SessionRevocationIndex. */
+    public static final String SESSION_ID_CLAIM = "sid";
+
+    private static final Duration DEFAULT_ACCESS_TTL = Duration.ofMinutes(15);
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Duration accessTtl;
+
+    public JWTService(String secretKey) {
+        this(secretKey, DEFAULT_ACCESS_TTL.toMinutes());
+    }
+
+    @Autowired
+    public JWTService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${auth.jwt.access-ttl-minutes:15}") long accessTtlMinutes) {
+        this.key = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.accessTtl = Duration.ofMinutes(accessTtlMinutes);
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTtl;
+    }
 
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, null);
+    }
+
+    /**
+     * @param sessionId login session the token belongs to, or null for a token outside any session
+     */
+    public String generateToken(UserDetails userDetails, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         String role = userDetails.getAuthorities().stream()
                 .findFirst()
                 .map(GrantedAuthority::getAuthority)
                 .orElse("ROLE_USER");
 
-        claims.put("ROLE", role.toUpperCase().trim());
+        claims.put(ROLE_CLAIM, role.toUpperCase().trim());
+        if (userDetails instanceof UserPrincipal principal && principal.getId() != null) {
+            claims.put(USER_ID_CLAIM, principal.getId());
+            claims.put(TOKEN_VERSION_CLAIM, principal.getTokenVersion());
+        }
+        if (sessionId != null) {
+            claims.put(SESSION_ID_CLAIM, sessionId);
+        }
 
         return Jwts.builder()
                 .claims()
                 .add(claims)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .expiration(new Date(System.currentTimeMillis() + accessTtl.toMillis()))
                 .and()
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
-
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    /**
+     * Verifies the signature and expiry of a token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        Claims verified = claimsVerifiedForCurrentRequest(token);
+        return (verified != null ? verified : parseClaims(token)).getSubject();
     }
 
-    //todo:why multiple entries?
-    //todo: why is network now showing applied api endpoint when pressed?
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Checks already verified claims against the user they were issued for.
+     */
+    public boolean isValidFor(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUserName(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isValidFor(parseClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = extractClaim(token, Claims::getExpiration);
-        return expiration.before(new Date());
+    private static Claims claimsVerifiedForCurrentRequest(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !token.equals(attributes.getAttribute(VERIFIED_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return null;
+        }
+        return (Claims) attributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
     }
 }
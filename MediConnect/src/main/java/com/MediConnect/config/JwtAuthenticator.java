@@ -0,0 +1,87 @@
+package com.MediConnect.config;
+
+import com.MediConnect.EntryRelated.service.AccountStatusCache;
+import com.MediConnect.EntryRelated.service.MyUserDetailsService;
+import com.MediConnect.EntryRelated.service.SessionRevocationIndex;
+import com.MediConnect.EntryRelated.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Turns verified JWT claims into an Authentication for HTTP requests (JwtFilter) and STOMP CONNECTs.
+ *
+ * With security.jwt.stateless=true, a token carrying user id, role and token version is trusted as is: the
+ * principal is built from the claims and the only lookup is the cached {@link TokenVersionService} check,
+ * which rejects tokens issued before a suspension, ban or password reset, and the {@link AccountStatusCache}
+ * check, which stops accounts that are not active at once. Older tokens without those claims, and every token
+ * when the mode is off, go through the user lookup in the database. Tokens of a logged-out
+ * session are rejected through {@link SessionRevocationIndex}, which normally answers without a network call.
+ */
+@Component
+public class JwtAuthenticator {
+
+    /**
+     * Principal of a claims-authenticated request; getName() is the username, as with UserPrincipal.
+     */
+    public record JwtPrincipal(Long userId, String username, String role) implements Principal {
+        @Override
+        public String getName() {
+            return username;
+        }
+    }
+
+    private final JWTService jwtService;
+    private final TokenVersionService tokenVersionService;
+    private final SessionRevocationIndex sessionRevocationIndex;
+    private final AccountStatusCache accountStatusCache;
+    private final ApplicationContext applicationContext;
+    private final boolean stateless;
+
+    public JwtAuthenticator(JWTService jwtService,
+                            TokenVersionService tokenVersionService,
+                            SessionRevocationIndex sessionRevocationIndex,
+                            AccountStatusCache accountStatusCache,
+                            ApplicationContext applicationContext,
+                            @Value("${security.jwt.stateless:true}") boolean stateless) {
+        this.jwtService = jwtService;
+        this.tokenVersionService = tokenVersionService;
+        this.sessionRevocationIndex = sessionRevocationIndex;
+        this.accountStatusCache = accountStatusCache;
+        this.applicationContext = applicationContext;
+        this.stateless = stateless;
+    }
+
+    /**
+     * @param claims claims of a token whose signature and expiry were already verified
+     * @return the authentication, or null if the token must not be accepted
+     */
+    public UsernamePasswordAuthenticationToken authenticate(Claims claims) {
+        if (claims.getSubject() == null) return null;
+        String sessionId = claims.get(JWTService.SESSION_ID_CLAIM, String.class);
+        if (sessionId != null && sessionRevocationIndex.isRevoked(sessionId)) return null;
+
+        Long userId = claims.get(JWTService.USER_ID_CLAIM, Long.class);
+        Integer version = claims.get(JWTService.TOKEN_VERSION_CLAIM, Integer.class);
+        String role = claims.get(JWTService.ROLE_CLAIM, String.class);
+        if (stateless && userId != null && version != null && role != null) {
+            if (!tokenVersionService.isCurrent(userId, version)) return null;
+            if (!accountStatusCache.isActive(userId)) return null;
+            JwtPrincipal principal = new JwtPrincipal(userId, claims.getSubject(), role);
+            return new UsernamePasswordAuthenticationToken(principal, null, List.of(new SimpleGrantedAuthority(role)));
+        }
+
+        // Looked up lazily: MyUserDetailsService is also wired into SecurityConfig, which depends on the filter
+        UserDetails userDetails = applicationContext.getBean(MyUserDetailsService.class).loadUserByUsername(claims.getSubject());
+        if (!jwtService.isValidFor(claims, userDetails) || !userDetails.isEnabled()) return null;
+        if (version != null && userDetails instanceof UserPrincipal user && version < user.getTokenVersion()) return null;
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
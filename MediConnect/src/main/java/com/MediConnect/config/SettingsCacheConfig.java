@@ -0,0 +1,46 @@
+package com.MediConnect.config;
+
+import com.MediConnect.EntryRelated.dto.NotificationPreferencesDTO;
+import com.MediConnect.EntryRelated.dto.PrivacySettingsDTO;
+import com.MediConnect.util.TieredCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Caches for per-user settings that are read far more often than they change
+ * (notification preferences on every notification, privacy settings on every public profile view).
+ */
+@Configuration
+public class SettingsCacheConfig {
+
+    @Value("${settings.cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${settings.cache.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${settings.cache.redis-ttl-minutes:60}")
+    private long redisTtlMinutes;
+
+    @Bean
+    public TieredCache<NotificationPreferencesDTO> notificationPreferencesCache(
+            StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new TieredCache<>("settings:notification-preferences", NotificationPreferencesDTO.class,
+                redisTemplate, objectMapper, Duration.ofSeconds(localTtlSeconds), localMaxSize,
+                Duration.ofMinutes(redisTtlMinutes), meterRegistry);
+    }
+
+    @Bean
+    public TieredCache<PrivacySettingsDTO> privacySettingsCache(
+            StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new TieredCache<>("settings:privacy", PrivacySettingsDTO.class,
+                redisTemplate, objectMapper, Duration.ofSeconds(localTtlSeconds), localMaxSize,
+                Duration.ofMinutes(redisTtlMinutes), meterRegistry);
+    }
+}
@@ -16,6 +16,14 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    public Long getId() {
+        return user.getId();
+    }
+
+    public int getTokenVersion() {
+        return user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().toUpperCase().trim()));
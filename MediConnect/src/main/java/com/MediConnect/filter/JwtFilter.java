@@ -1,16 +1,16 @@
 package com.MediConnect.filter;
 
-import com.MediConnect.EntryRelated.service.MyUserDetailsService;
+import com.MediConnect.config.CurrentUser;
 import com.MediConnect.config.JWTService;
+import com.MediConnect.config.JwtAuthenticator;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,7 +21,7 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
     private final JWTService jwtService;
-    private final ApplicationContext applicationContext;
+    private final JwtAuthenticator jwtAuthenticator;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request
@@ -29,7 +29,7 @@ public class JwtFilter extends OncePerRequestFilter {
             , FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
         String token = null;
-        String username = null;
+        Claims claims = null;
         
         // Only process if Authorization header exists and starts with "Bearer "
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -41,11 +41,13 @@ public class JwtFilter extends OncePerRequestFilter {
                 return;
             }
             
-            // Try to extract username from token
+            // Verify the token once; controllers reading the username later reuse these claims
             // If token is malformed, expired, or invalid, catch the exception and continue
             // This allows requests without valid tokens to proceed (Spring Security will handle authorization)
             try {
-                username = jwtService.extractUserName(token);
+                claims = jwtService.parseClaims(token);
+                request.setAttribute(JWTService.VERIFIED_TOKEN_ATTRIBUTE, token);
+                request.setAttribute(JWTService.CLAIMS_ATTRIBUTE, claims);
             } catch (Exception e) {
                 // Token is invalid, malformed, or expired
                 // Only log errors, not successful authentications
@@ -56,14 +58,17 @@ public class JwtFilter extends OncePerRequestFilter {
         }
         
         // If we have a valid username and no existing authentication, proceed with authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = applicationContext.getBean(MyUserDetailsService.class).loadUserByUsername(username);
-                if (jwtService.validateToken(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authToken = jwtAuthenticator.authenticate(claims);
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    // Resolved once here; controllers take it as a CurrentUser parameter
+                    CurrentUser currentUser = CurrentUser.from(authToken);
+                    if (currentUser != null) {
+                        request.setAttribute(CurrentUser.REQUEST_ATTRIBUTE, currentUser);
+                    }
                 }
             } catch (Exception e) {
                 // If user lookup or token validation fails, continue without authentication
@@ -0,0 +1,133 @@
+package com.MediConnect.filter;
+
+import com.MediConnect.Service.RateLimiter;
+import com.MediConnect.config.CurrentUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Throttles the expensive public endpoints with token buckets (see RateLimiter), one bucket per route
+ * group and caller. Logins, registration and OTP calls are keyed by client address; AI chat and uploads
+ * by user when the request carries a valid token, otherwise by address. Runs after JwtFilter so the
+ * caller is known.
+ *
+ * A rejected request gets 429 with Retry-After in seconds. Limits are rate-limit.{group}.capacity (burst)
+ * and rate-limit.{group}.refill-per-minute. Client addresses are request.getRemoteAddr(); behind a proxy,
+ * server.forward-headers-strategy makes that the original client without trusting arbitrary headers.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record Group(String name, List<String> patterns, boolean perUser,
+                         long capacity, double refillPerMinute, Counter allowed, Counter rejected) {
+    }
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final List<Group> groups;
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.auth.capacity:10}") long authCapacity,
+            @Value("${rate-limit.auth.refill-per-minute:5}") double authRefill,
+            @Value("${rate-limit.otp.capacity:10}") long otpCapacity,
+            @Value("${rate-limit.otp.refill-per-minute:5}") double otpRefill,
+            @Value("${rate-limit.ai.capacity:5}") long aiCapacity,
+            @Value("${rate-limit.ai.refill-per-minute:10}") double aiRefill,
+            @Value("${rate-limit.upload.capacity:20}") long uploadCapacity,
+            @Value("${rate-limit.upload.refill-per-minute:20}") double uploadRefill) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.groups = List.of(
+                group(meterRegistry, "auth", List.of(
+                        "/patient/login", "/patient/verify-login-otp", "/patient/register",
+                        "/healthprovider/login", "/healthprovider/verify-login-otp", "/healthprovider/register",
+                        "/admin/login"), false, authCapacity, authRefill),
+                group(meterRegistry, "otp", List.of("/otp/**"), false, otpCapacity, otpRefill),
+                group(meterRegistry, "ai", List.of("/ai/chat"), true, aiCapacity, aiRefill),
+                group(meterRegistry, "upload", List.of("/api/upload/**"), true, uploadCapacity, uploadRefill));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights carry no credentials and must not use up the caller's tokens
+        return !enabled || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = match(request.getRequestURI().substring(request.getContextPath().length()));
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryTake(group.name() + ":" + callerKey(request, group),
+                group.capacity(), group.refillPerMinute());
+        response.setHeader("X-RateLimit-Limit", Long.toString(group.capacity()));
+        response.setHeader("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+        if (decision.allowed()) {
+            group.allowed().increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        group.rejected().increment();
+        long retryAfterSeconds = Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":\"error\",\"message\":\"Too many requests. Please try again in "
+                + retryAfterSeconds + " seconds.\"}");
+    }
+
+    private Group match(String path) {
+        for (Group group : groups) {
+            for (String pattern : group.patterns()) {
+                if (PATHS.match(pattern, path)) return group;
+            }
+        }
+        return null;
+    }
+
+    private static String callerKey(HttpServletRequest request, Group group) {
+        if (group.perUser() && request.getAttribute(CurrentUser.REQUEST_ATTRIBUTE) instanceof CurrentUser user) {
+            return "user:" + user.id();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static Group group(MeterRegistry meterRegistry, String name, List<String> patterns, boolean perUser,
+                               long capacity, double refillPerMinute) {
+        return new Group(name, patterns, perUser, capacity, refillPerMinute,
+                counter(meterRegistry, name, "allowed"), counter(meterRegistry, name, "rejected"));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String group, String outcome) {
+        return Counter.builder("http.rate_limit.requests")
+                .description("Requests checked by the rate limiter")
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -7,5 +7,6 @@ import lombok.Data;
 public class ChatMessageRequest {
     private Long channelId;
     private String content;
+    private String clientMessageId; // Client-generated id, unique per sender; the message is broadcast with it before it is persisted
     private String senderUsername; // We'll trust this or extract from Principal in advanced setups
 }
\ No newline at end of file
@@ -3,18 +3,16 @@ package com.MediConnect.socialmedia.chatrelated;
 import com.MediConnect.EntryRelated.entities.Users;
 import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
 import com.MediConnect.EntryRelated.repository.PatientRepo;
-import com.MediConnect.socialmedia.entity.ChatMessage;
 import com.MediConnect.socialmedia.service.ChatService;
+import com.MediConnect.socialmedia.service.chat.ChatPresenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
-import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -25,10 +23,15 @@ public class ChatWebSocketController {
     private final ChatService chatService;
     private final PatientRepo patientRepo;
     private final HealthcareProviderRepo providerRepo;
+    private final ChatPresenceService chatPresenceService;
 
+    /**
+     * Endpoint: /app/chat/{channelId}/sendMessage
+     * ChatService broadcasts the accepted message to /topic/chat/{channelId} itself,
+     * so nothing is returned here (a @SendTo would deliver every message twice).
+     */
     @MessageMapping("/chat/{channelId}/sendMessage")
-    @SendTo("/topic/chat/{channelId}")
-    public Map<String, Object> sendMessage(
+    public void sendMessage(
             @DestinationVariable Long channelId,
             @Payload ChatMessageRequest request,
             Principal principal
@@ -59,14 +62,25 @@ public class ChatWebSocketController {
 
             if (sender == null) throw new RuntimeException("User not found: " + username);
 
-            // 4. Save & Broadcast
-            ChatMessage savedMessage = chatService.sendMessage(channelId, sender, request.getContent());
-
-            return chatService.convertMessageToMap(savedMessage);
+            // 4. Accept (write-behind) & Broadcast
+            chatService.sendMessage(channelId, sender, request.getContent(), request.getClientMessageId());
 
         } catch (Exception e) {
             log.error("WebSocket Error: ", e);
-            return null;
+        }
+    }
+
+    /**
+     * Endpoint: /app/chat/{channelId}/typing (no payload)
+     * Typing indicators are broadcast (throttled) to /topic/chat/{channelId}/presence.
+     */
+    @MessageMapping("/chat/{channelId}/typing")
+    public void typing(@DestinationVariable Long channelId, Principal principal) {
+        if (principal == null) return;
+        try {
+            chatPresenceService.typing(principal.getName(), channelId);
+        } catch (Exception e) {
+            log.debug("Ignoring typing signal for channel {}: {}", channelId, e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.MediConnect.socialmedia.config;
 
 import com.MediConnect.config.JWTService;
+import com.MediConnect.config.JwtAuthenticator;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
@@ -15,8 +17,6 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService; // Import Interface
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -29,8 +29,7 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JWTService jwtService;
-    // Changed from CustomUserDetailsService to the generic interface
-    private final UserDetailsService userDetailsService;
+    private final JwtAuthenticator jwtAuthenticator;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -59,18 +58,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                     if (authHeader != null && authHeader.startsWith("Bearer ")) {
                         String token = authHeader.substring(7);
                         try {
-                            String username = jwtService.extractUserName(token);
-                            if (username != null) {
-                                // This will now use your existing MyUserDetailsService automatically
-                                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                                if (jwtService.validateToken(token, userDetails)) {
-                                    UsernamePasswordAuthenticationToken authToken =
-                                            new UsernamePasswordAuthenticationToken(
-                                                    userDetails, null, userDetails.getAuthorities());
-
-                                    accessor.setUser(authToken);
-                                }
+                            Claims claims = jwtService.parseClaims(token);
+                            UsernamePasswordAuthenticationToken authToken = jwtAuthenticator.authenticate(claims);
+                            if (authToken != null) {
+                                accessor.setUser(authToken);
                             }
                         } catch (Exception e) {
                             log.error("WebSocket Authentication failed: {}", e.getMessage());
@@ -9,11 +9,14 @@ import com.MediConnect.EntryRelated.repository.AppointmentRepository;
 import com.MediConnect.Entities.AppointmentEntity;
 import com.MediConnect.Entities.AppointmentStatus;
 import com.MediConnect.config.JWTService;
+import com.MediConnect.socialmedia.dto.ChatChannelParticipants;
 import com.MediConnect.socialmedia.entity.ChatChannel;
 import com.MediConnect.socialmedia.entity.ChatMessage;
 import com.MediConnect.socialmedia.service.ChatService;
+import com.MediConnect.socialmedia.service.chat.ChatPresenceService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -31,7 +34,9 @@ import java.util.stream.Collectors;
  * - GET /chat/channels/{channelId}/messages - Get messages in a channel
  * - POST /chat/channels/{channelId}/messages - Send a message
  * - PUT /chat/channels/{channelId}/read - Mark messages as read
+ * - GET /chat/channels/{channelId}/presence - Online/viewing state of both participants
  */
+@Slf4j
 @RestController
 @RequestMapping("/chat")
 @RequiredArgsConstructor
@@ -42,6 +47,7 @@ public class ChatController {
     private final HealthcareProviderRepo healthcareProviderRepo;
     private final AppointmentRepository appointmentRepository;
     private final JWTService jwtService;
+    private final ChatPresenceService chatPresenceService;
     
     /**
      * Get all chat channels for the authenticated user
@@ -185,7 +191,7 @@ public class ChatController {
     /**
      * Send a message in a chat channel
      * 
-     * Request body: { "content": "Message text" }
+     * Request body: { "content": "Message text", "clientMessageId": "optional client-generated id" }
      */
     @PostMapping("/channels/{channelId}/messages")
     public ResponseEntity<Map<String, Object>> sendMessage(
@@ -210,7 +216,7 @@ public class ChatController {
                     .body(errorResponse("Invalid token: " + e.getMessage()));
             }
             
-            System.out.println("DEBUG CHAT SEND: Looking up user with username: '" + username + "'");
+            log.debug("Chat send: looking up user {}", username);
             
             // Find sender (patient or doctor)
             Users sender = patientRepo.findByUsername(username).orElse(null);
@@ -219,12 +225,12 @@ public class ChatController {
             }
             
             if (sender == null) {
-                System.err.println("DEBUG CHAT SEND: User not found for username: " + username);
+                log.debug("Chat send: user not found for username {}", username);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(errorResponse("User not found for username: " + username));
             }
             
-            System.out.println("DEBUG CHAT SEND: Found sender - ID: " + sender.getId() + ", Type: " + sender.getClass().getSimpleName());
+            log.debug("Chat send: found sender {} ({})", sender.getId(), sender.getClass().getSimpleName());
             
             // Get message content
             String content = request.get("content") != null ? request.get("content").toString() : "";
@@ -233,14 +239,15 @@ public class ChatController {
                     .body(errorResponse("Message content cannot be empty"));
             }
             
-            System.out.println("DEBUG CHAT SEND: Sending message in channel " + channelId + ", content length: " + content.length());
+            log.debug("Chat send: channel {}, content length {}", channelId, content.length());
             
-            // Send message
-            ChatMessage message = chatService.sendMessage(channelId, sender, content);
+            // Send message (acknowledged once accepted; persisted by the write-behind flush)
+            String clientMessageId = request.get("clientMessageId") != null ? request.get("clientMessageId").toString() : null;
+            Map<String, Object> message = chatService.sendMessage(channelId, sender, content, clientMessageId);
             
-            System.out.println("DEBUG CHAT SEND: Message saved successfully - ID: " + message.getId());
+            log.debug("Chat send: message {} accepted", message.get("clientMessageId"));
             
-            return ResponseEntity.ok(successResponse("data", chatService.convertMessageToMap(message)));
+            return ResponseEntity.ok(successResponse("data", message));
             
         } catch (Exception e) {
             System.err.println("ERROR CHAT SEND: " + e.getClass().getSimpleName() + ": " + e.getMessage());
@@ -292,6 +299,59 @@ public class ChatController {
         }
     }
     
+    /**
+     * Get presence of both participants in a chat channel
+     * 
+     * Returns { "<userId>": { "online": bool, "viewing": bool } } for the patient and the doctor.
+     * Only the channel's participants may ask. Live changes are pushed to /topic/chat/{channelId}/presence.
+     */
+    @GetMapping("/channels/{channelId}/presence")
+    public ResponseEntity<Map<String, Object>> getPresence(
+            @PathVariable Long channelId,
+            HttpServletRequest request) {
+        try {
+            // Extract JWT token
+            String authHeader = request.getHeader("Authorization");
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(errorResponse("Authorization token required"));
+            }
+            
+            String token = authHeader.substring(7);
+            String username = jwtService.extractUserName(token);
+            
+            // Find user (patient or doctor)
+            Users user = patientRepo.findByUsername(username).orElse(null);
+            if (user == null) {
+                user = healthcareProviderRepo.findByUsername(username).orElse(null);
+            }
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(errorResponse("User not found"));
+            }
+            
+            ChatChannelParticipants participants = chatService.getChannelParticipants(channelId);
+            if (!participants.isParticipant(user.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(errorResponse("You are not a participant of this chat"));
+            }
+            
+            Map<String, Object> presence = new HashMap<>();
+            for (Long userId : List.of(participants.patientId(), participants.doctorId())) {
+                Map<String, Object> state = new HashMap<>();
+                state.put("online", chatPresenceService.isOnline(userId));
+                state.put("viewing", chatPresenceService.isViewing(userId, channelId));
+                presence.put(String.valueOf(userId), state);
+            }
+            
+            return ResponseEntity.ok(successResponse("data", presence));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse(e.getMessage()));
+        }
+    }
+    
     // Helper methods for responses
     private Map<String, Object> successResponse(String key, Object data) {
         Map<String, Object> response = new HashMap<>();
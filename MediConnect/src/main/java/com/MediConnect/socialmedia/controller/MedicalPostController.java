@@ -1,8 +1,7 @@
 package com.MediConnect.socialmedia.controller;
 
 
-import com.MediConnect.util.JwtTokenExtractor;
-import com.MediConnect.util.JwtTokenExtractor.UserContext;
+import com.MediConnect.config.CurrentUser;
 import com.MediConnect.socialmedia.dto.CreateCommentRequestDTO;
 import com.MediConnect.socialmedia.dto.CreatePostReportRequestDTO;
 import com.MediConnect.socialmedia.dto.CreatePostRequestDTO;
@@ -16,11 +15,11 @@ import com.MediConnect.socialmedia.service.post.MedicalPostService;
 import com.MediConnect.socialmedia.service.report.MedicalPostReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.List;
 import java.util.Locale;
@@ -35,7 +34,6 @@ public class MedicalPostController {
     private final MedicalPostService medicalPostService;
     private final MedicalPostCommentService medicalPostCommentService;
     private final MedicalPostReportService medicalPostReportService;
-    private final JwtTokenExtractor jwtTokenExtractor;
     private final CloudinaryService cloudinaryService;
 
     /**
@@ -72,25 +70,18 @@ public class MedicalPostController {
      * Get all posts feed with optional pagination.
      * If page and size are not provided, defaults to first page with 20 posts for better performance.
      * 
-     * @param token Authorization token (optional)
+     * @param currentUser the caller, or null if anonymous
      * @param page Page number (0-indexed, optional, defaults to 0)
      * @param size Page size (optional, defaults to 20)
      * @return Paginated response with posts and pagination metadata
      */
     @GetMapping("/feed")
     public ResponseEntity<?> getFeed(
-            @RequestHeader(value = "Authorization", required = false) String token,
+            @Nullable CurrentUser currentUser,
             @RequestParam(value = "page", required = false) Integer page,
             @RequestParam(value = "size", required = false) Integer size) {
         try {
-            Long userId = null;
-            if (token != null && !token.isEmpty()) {
-                try {
-                    userId = extractUserIdFromToken(token);
-                } catch (Exception e) {
-                    System.out.println("Failed to extract user ID from token: " + e.getMessage());
-                }
-            }
+            Long userId = currentUser != null ? currentUser.id() : null;
             
             // Default pagination: first page, 20 posts per page (for better performance)
             // If page/size are explicitly provided, use them; otherwise use defaults
@@ -108,13 +99,13 @@ public class MedicalPostController {
     /**
      * Create a new medical post with optional image/video upload
      * 
-     * Extracts the authenticated doctor from the JWT token and creates a post on their behalf.
+     * Creates a post on behalf of the authenticated doctor.
      * If a media file is provided, it will be uploaded to Cloudinary and the URL will be stored.
      * 
      * @param content Post content text
      * @param privacy Post privacy setting (PUBLIC, DOCTORS_ONLY, PRIVATE)
      * @param mediaFile Optional image or video file to upload
-     * @param authHeader JWT authorization token
+     * @param currentUser the authenticated caller
      * @return Response with post creation status
      */
     @PostMapping(value = "/create", consumes = {"multipart/form-data"})
@@ -122,34 +113,24 @@ public class MedicalPostController {
             @RequestParam("content") String content,
             @RequestParam(value = "privacy", required = false, defaultValue = "PUBLIC") String privacy,
             @RequestParam(value = "mediaFiles", required = false) MultipartFile[] mediaFiles,
-            @RequestHeader(value = "Authorization", required = false) String authHeader,
-            HttpServletRequest request) {
+            @Nullable CurrentUser currentUser) {
         try {
-            // Try to get Authorization header from request if not in parameter
-            if (authHeader == null || authHeader.isEmpty()) {
-                authHeader = request.getHeader("Authorization");
-            }
-            
-            // Extract doctor from JWT token for security
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (currentUser == null) {
                 return ResponseEntity.status(401).body(Map.of(
                     "status", "error",
                     "message", "Authorization token required"
                 ));
             }
             
-            // Extract user context from token to verify user type
-            UserContext userContext = extractUserContextFromToken(authHeader);
-            
             // Verify the user is a healthcare provider (only doctors can create posts)
-            if (userContext.type() != PostReporterType.DOCTOR) {
+            if (!currentUser.isDoctor()) {
                 return ResponseEntity.status(403).body(Map.of(
                     "status", "error",
                     "message", "Only healthcare providers can create posts"
                 ));
             }
             
-            Long providerId = userContext.id();
+            Long providerId = currentUser.id();
             
             // Validate content
             if (content == null || content.trim().isEmpty()) {
@@ -232,10 +213,9 @@ public class MedicalPostController {
     @PostMapping("/like/{postId}")
     public ResponseEntity<Map<String, Object>> likePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            // Extract user ID from token
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             boolean isLiked = medicalPostService.likePost(postId, userId);
             return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -254,10 +234,10 @@ public class MedicalPostController {
     @PostMapping("/comment")
     public ResponseEntity<Map<String, Object>> addComment(
             @RequestBody CreateCommentRequestDTO commentRequest,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            // Extract user ID from token instead of trusting the request body
-            Long userId = extractUserIdFromToken(token);
+            // Use the authenticated user's ID instead of trusting the request body
+            Long userId = currentUser.id();
             
             // Override the commenterId from the request with the authenticated user's ID
             commentRequest.setCommenterId(userId);
@@ -280,17 +260,15 @@ public class MedicalPostController {
     public ResponseEntity<Map<String, Object>> reportPost(
             @PathVariable Long postId,
             @RequestBody CreatePostReportRequestDTO reportRequest,
-            @RequestHeader("Authorization") String token) {
+            @Nullable CurrentUser currentUser) {
         try {
-            if (token == null || token.isBlank()) {
+            if (currentUser == null) {
                 return ResponseEntity.status(401).body(Map.of(
                         "status", "error",
                         "message", "Authorization token is required"
                 ));
             }
 
-            UserContext userContext = extractUserContextFromToken(token);
-
             if (reportRequest == null || reportRequest.getReason() == null) {
                 return ResponseEntity.badRequest().body(Map.of(
                         "status", "error",
@@ -302,8 +280,9 @@ public class MedicalPostController {
 
             medicalPostReportService.submitReport(
                     postId,
-                    userContext.id(),
-                    userContext.type(),
+                    currentUser.id(),
+                    // Admins report as patients, as before
+                    currentUser.isDoctor() ? PostReporterType.DOCTOR : PostReporterType.PATIENT,
                     reason,
                     reportRequest.getOtherReason(),
                     reportRequest.getDetails()
@@ -330,16 +309,9 @@ public class MedicalPostController {
     @GetMapping("/comments/{postId}")
     public ResponseEntity<List<Map<String, Object>>> getComments(
             @PathVariable Long postId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @Nullable CurrentUser currentUser) {
         try {
-            Long userId = null;
-            if (token != null && !token.isEmpty()) {
-                try {
-                    userId = extractUserIdFromToken(token);
-                } catch (Exception e) {
-                    System.out.println("Failed to extract user ID: " + e.getMessage());
-                }
-            }
+            Long userId = currentUser != null ? currentUser.id() : null;
             
             List<Map<String, Object>> comments = medicalPostCommentService.getCommentsByPostId(postId, userId);
             return ResponseEntity.ok(comments);
@@ -352,9 +324,9 @@ public class MedicalPostController {
     @PostMapping("/comment/like/{commentId}")
     public ResponseEntity<Map<String, Object>> likeComment(
             @PathVariable Long commentId,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             boolean isLiked = medicalPostCommentService.likeComment(commentId, userId);
             return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -373,9 +345,9 @@ public class MedicalPostController {
     @DeleteMapping("/comment/{commentId}")
     public ResponseEntity<Map<String, Object>> deleteComment(
             @PathVariable Long commentId,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             medicalPostCommentService.deleteComment(commentId, userId);
             return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -393,9 +365,9 @@ public class MedicalPostController {
     @PostMapping("/comment/reply")
     public ResponseEntity<Map<String, Object>> replyToComment(
             @RequestBody Map<String, Object> request,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             Long commentId = Long.valueOf(request.get("commentId").toString());
             String replyText = request.get("replyText").toString();
             
@@ -416,9 +388,9 @@ public class MedicalPostController {
     @PostMapping("/reply/like/{replyId}")
     public ResponseEntity<Map<String, Object>> likeReply(
             @PathVariable Long replyId,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             boolean isLiked = medicalPostCommentService.likeReply(replyId, userId);
             return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -437,9 +409,9 @@ public class MedicalPostController {
     @DeleteMapping("/reply/{replyId}")
     public ResponseEntity<Map<String, Object>> deleteReply(
             @PathVariable Long replyId,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             medicalPostCommentService.deleteReply(replyId, userId);
             return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -457,10 +429,9 @@ public class MedicalPostController {
     @DeleteMapping("/{postId}")
     public ResponseEntity<Map<String, Object>> deletePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            CurrentUser currentUser) {
         try {
-            // Extract user ID from token (you'll need to implement this)
-            Long userId = extractUserIdFromToken(token);
+            Long userId = currentUser.id();
             medicalPostService.deletePost(postId, userId);
             return ResponseEntity.ok(Map.of(
                 "status", "success",
@@ -513,7 +484,7 @@ public class MedicalPostController {
      * If page and size are not provided, defaults to first page with 20 posts for better performance.
      * 
      * @param doctorId The ID of the doctor
-     * @param token Authorization token (optional)
+     * @param currentUser the caller, or null if anonymous
      * @param page Page number (0-indexed, optional, defaults to 0)
      * @param size Page size (optional, defaults to 20)
      * @return Paginated response with posts and pagination metadata
@@ -521,19 +492,12 @@ public class MedicalPostController {
     @GetMapping("/doctor/{doctorId}")
     public ResponseEntity<?> getPostsByDoctor(
             @PathVariable Long doctorId,
-            @RequestHeader(value = "Authorization", required = false) String token,
+            @Nullable CurrentUser currentUser,
             @RequestParam(value = "page", required = false) Integer page,
             @RequestParam(value = "size", required = false) Integer size) {
         try {
-            Long userId = null;
-            if (token != null && !token.isEmpty()) {
-                try {
-                    userId = extractUserIdFromToken(token);
-                } catch (Exception e) {
-                    // If token extraction fails, just return posts without user-specific data
-                    System.out.println("Failed to extract user ID from token: " + e.getMessage());
-                }
-            }
+            // Anonymous callers get the posts without user-specific data
+            Long userId = currentUser != null ? currentUser.id() : null;
             
             // Default pagination: first page, 20 posts per page (for better performance)
             // If page/size are explicitly provided, use them; otherwise use defaults
@@ -548,26 +512,6 @@ public class MedicalPostController {
         }
     }
 
-    /**
-     * Extracts user ID from JWT token using the centralized utility.
-     * 
-     * @param token The JWT token (with or without "Bearer " prefix)
-     * @return The user ID
-     */
-    private Long extractUserIdFromToken(String token) {
-        return jwtTokenExtractor.extractUserIdFromToken(token);
-    }
-
-    /**
-     * Extracts user context (ID and type) from JWT token using the centralized utility.
-     * 
-     * @param token The JWT token (with or without "Bearer " prefix)
-     * @return UserContext containing user ID and PostReporterType
-     */
-    private UserContext extractUserContextFromToken(String token) {
-        return jwtTokenExtractor.extractUserContextFromToken(token);
-    }
-
     private PostReportReason parseReportReason(String rawReason) {
         try {
             return PostReportReason.valueOf(rawReason.trim().toUpperCase(Locale.ROOT));
@@ -1,6 +1,6 @@
 package com.MediConnect.socialmedia.controller;
 
-import com.MediConnect.util.JwtTokenExtractor;
+import com.MediConnect.config.CurrentUser;
 import com.MediConnect.socialmedia.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -19,13 +19,12 @@ public class NotificationController {
 
     
     private final NotificationService notificationService;
-    private final JwtTokenExtractor jwtTokenExtractor;
 
 
     @GetMapping
-    public ResponseEntity<?> getUserNotifications(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserNotifications(CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(authHeader);
+            Long userId = currentUser.id();
             List<Map<String, Object>> notifications = notificationService.getUserNotifications(userId);
             
             Map<String, Object> response = new HashMap<>();
@@ -45,11 +44,45 @@ public class NotificationController {
         }
     }
     
+    // Cursor-paginated notifications, newest first; pass the previous response's nextCursor to get older ones
+    @GetMapping("/page")
+    public ResponseEntity<?> getNotificationPage(
+            CurrentUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            Long userId = currentUser.id();
+            Map<String, Object> page = notificationService.getNotificationPage(userId, cursor, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("data", page.get("notifications"));
+            response.put("nextCursor", page.get("nextCursor"));
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            System.err.println("Error fetching notification page: " + e.getMessage());
+            e.printStackTrace();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Failed to fetch notifications");
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     // Get unread notification count
     @GetMapping("/unread-count")
-    public ResponseEntity<?> getUnreadCount(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUnreadCount(CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(authHeader);
+            Long userId = currentUser.id();
             
             Long count = notificationService.getUnreadCount(userId);
             
@@ -71,9 +104,7 @@ public class NotificationController {
     
     // Mark notification as read
     @PutMapping("/{notificationId}/read")
-    public ResponseEntity<?> markAsRead(
-            @PathVariable Long notificationId,
-            @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> markAsRead(@PathVariable Long notificationId) {
         try {
             notificationService.markAsRead(notificationId);
             
@@ -95,9 +126,9 @@ public class NotificationController {
     
     // Mark all notifications as read
     @PutMapping("/read-all")
-    public ResponseEntity<?> markAllAsRead(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> markAllAsRead(CurrentUser currentUser) {
         try {
-            Long userId = extractUserIdFromToken(authHeader);
+            Long userId = currentUser.id();
             
             notificationService.markAllAsRead(userId);
             
@@ -119,9 +150,7 @@ public class NotificationController {
     
     // Delete notification
     @DeleteMapping("/{notificationId}")
-    public ResponseEntity<?> deleteNotification(
-            @PathVariable Long notificationId,
-            @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> deleteNotification(@PathVariable Long notificationId) {
         try {
             notificationService.deleteNotification(notificationId);
             
@@ -140,15 +169,4 @@ public class NotificationController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-    
-    /**
-     * Extracts user ID from JWT token using the centralized utility.
-     * 
-     * @param token The JWT token (with or without "Bearer " prefix)
-     * @return The user ID
-     */
-    private Long extractUserIdFromToken(String token) {
-        return jwtTokenExtractor.extractUserIdFromToken(token);
-    }
 }
-
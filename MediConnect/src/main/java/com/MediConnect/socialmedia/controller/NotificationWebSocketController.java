@@ -0,0 +1,33 @@
+package com.MediConnect.socialmedia.controller;
+
+import com.MediConnect.socialmedia.dto.NotificationResumeRequestDTO;
+import com.MediConnect.socialmedia.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationWebSocketController {
+
+    private final NotificationService notificationService;
+
+    /**
+     * Endpoint: /app/notifications/resume  (payload: {"lastId": <newest id the client has> | null})
+     * Replies on /user/queue/notifications with a "resume" event; live events follow on the same queue.
+     */
+    @MessageMapping("/notifications/resume")
+    public void resume(@Payload(required = false) NotificationResumeRequestDTO request, Principal principal) {
+        if (principal == null) return;
+        try {
+            notificationService.resume(principal.getName(), request != null ? request.getLastId() : null);
+        } catch (Exception e) {
+            log.error("Notification resume failed for {}: {}", principal.getName(), e.getMessage());
+        }
+    }
+}
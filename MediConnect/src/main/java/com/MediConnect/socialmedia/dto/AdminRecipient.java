@@ -0,0 +1,7 @@
+package com.MediConnect.socialmedia.dto;
+
+/**
+ * The fields of an administrator needed to address a notification (see AdminRecipientDirectory).
+ */
+public record AdminRecipient(Long id, String username) {
+}
@@ -0,0 +1,19 @@
+package com.MediConnect.socialmedia.dto;
+
+/**
+ * The two participants of a chat channel, loaded without touching the Patient/HealthcareProvider entities.
+ * Participants never change for a channel, so this is safe to cache (see ChatParticipantCache).
+ */
+public record ChatChannelParticipants(Long channelId, Long patientId, Long doctorId) {
+
+    public boolean isParticipant(Long userId) {
+        return userId != null && (userId.equals(patientId) || userId.equals(doctorId));
+    }
+
+    /**
+     * @return the other participant's id (the recipient when {@code senderId} sends a message)
+     */
+    public Long otherParticipant(Long senderId) {
+        return senderId.equals(patientId) ? doctorId : patientId;
+    }
+}
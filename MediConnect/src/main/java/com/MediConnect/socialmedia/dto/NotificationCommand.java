@@ -0,0 +1,25 @@
+package com.MediConnect.socialmedia.dto;
+
+import com.MediConnect.socialmedia.entity.NotificationType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+/**
+ * Payload of a notification outbox event. Carries ids only; entities are loaded again when the
+ * event is delivered, so nothing attached to the caller's persistence context crosses threads.
+ * Which fields are set depends on the event kind.
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NotificationCommand(
+        Long actorId,
+        Long recipientId,
+        Long postId,
+        Long commentId,
+        Long relatedEntityId,
+        NotificationType type,
+        String message,
+        String additionalInfo,
+        Long scheduledAt,
+        Integer aggregateCount) {
+}
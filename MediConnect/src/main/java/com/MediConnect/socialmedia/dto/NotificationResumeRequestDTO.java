@@ -0,0 +1,10 @@
+package com.MediConnect.socialmedia.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class NotificationResumeRequestDTO {
+    private Long lastId; // Newest notification id the client already has; null on a cold start
+}
@@ -0,0 +1,26 @@
+package com.MediConnect.socialmedia.dto;
+
+import com.MediConnect.socialmedia.entity.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the paginated notification list, selected column by column so neither the actor's
+ * Users subclass tables nor the full post content are loaded. {@code postSnippet} is the start of the
+ * post content (see NotificationRepository#SNIPPET_QUERY_LENGTH).
+ */
+public record NotificationSummary(
+        Long id,
+        NotificationType type,
+        String message,
+        Boolean isRead,
+        LocalDateTime createdAt,
+        Long relatedEntityId,
+        Integer aggregateCount,
+        Long actorId,
+        String actorFirstName,
+        String actorLastName,
+        String actorProfilePicture,
+        Long postId,
+        String postSnippet) {
+}
@@ -28,6 +28,14 @@ public class ChatMessage {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    /**
+     * Client-generated message id
+     * Assigned when the message is accepted (before it is persisted) so it can be broadcast immediately;
+     * unique per sender (see DatabaseSchemaPatcher) so write-behind inserts and journal replays are idempotent
+     */
+    @Column(name = "client_message_id", length = 64)
+    private String clientMessageId;
+    
     /**
      * The chat channel this message belongs to
      * Required - every message must belong to a channel
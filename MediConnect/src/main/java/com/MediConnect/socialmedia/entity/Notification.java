@@ -21,11 +21,11 @@ public class Notification {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipient_id", nullable = false)
     private Users recipient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "actor_id", nullable = false)
     private Users actor; // Person who triggered the notification
     
@@ -33,11 +33,11 @@ public class Notification {
     @Column(nullable = false)
     private NotificationType type;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id")
     private MedicalPost post;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "comment_id")
     private MedicalPostComment comment;
     
@@ -52,6 +52,10 @@ public class Notification {
     
     // Link to the specific item (post ID, comment ID, etc.)
     private Long relatedEntityId;
+    
+    // Number of events merged into this row (e.g. a burst of chat messages in one channel)
+    @Column(name = "aggregate_count")
+    private Integer aggregateCount = 1;
 }
 
 
@@ -0,0 +1,74 @@
+package com.MediConnect.socialmedia.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be created, written in the same transaction as the action that caused it
+ * (see NotificationOutbox) and delivered by NotificationOutboxDispatcher.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationOutboxEvent {
+
+    public enum Kind {
+        POST_LIKE,
+        POST_COMMENT,
+        COMMENT_LIKE,
+        COMMENT_REPLY,
+        APPOINTMENT_REQUESTED,
+        APPOINTMENT_STATUS,
+        RESCHEDULE_RESPONSE,
+        APPOINTMENT_REMINDER,
+        CHAT_MESSAGE,
+        ADMIN
+    }
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED // gave up after notification.outbox.max-attempts
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Enqueuing the same key twice is a no-op
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 128)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Kind kind;
+
+    // NotificationCommand as JSON
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
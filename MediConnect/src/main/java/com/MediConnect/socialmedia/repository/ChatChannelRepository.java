@@ -2,8 +2,11 @@ package com.MediConnect.socialmedia.repository;
 
 import com.MediConnect.EntryRelated.entities.HealthcareProvider;
 import com.MediConnect.EntryRelated.entities.Patient;
+import com.MediConnect.socialmedia.dto.ChatChannelParticipants;
 import com.MediConnect.socialmedia.entity.ChatChannel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -45,5 +48,12 @@ public interface ChatChannelRepository extends JpaRepository<ChatChannel, Long>
      * Used for cleanup - returns all channels between patient and doctor
      */
     List<ChatChannel> findByPatientAndDoctorOrderByLastActivityAtDesc(Patient patient, HealthcareProvider doctor);
+    
+    /**
+     * Load only the participant ids of a channel (no Patient/HealthcareProvider entities)
+     * Used by the chat send path to authorize senders and pick the notification recipient
+     */
+    @Query("SELECT new com.MediConnect.socialmedia.dto.ChatChannelParticipants(c.id, c.patient.id, c.doctor.id) " +
+           "FROM ChatChannel c WHERE c.id = :channelId")
+    Optional<ChatChannelParticipants> findParticipantsById(@Param("channelId") Long channelId);
 }
-
@@ -0,0 +1,30 @@
+package com.MediConnect.socialmedia.repository;
+
+import com.MediConnect.socialmedia.entity.NotificationOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEvent, Long> {
+
+    // Due events in enqueue order (served by the partial index ix_notification_outbox_pending)
+    @Query(value = "SELECT id FROM notification_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Locks one pending event for delivery; empty if it is done or another instance holds it
+    @Query(value = "SELECT * FROM notification_outbox WHERE id = :id AND status = 'PENDING' FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<NotificationOutboxEvent> lockPending(@Param("id") Long id);
+
+    long countByStatus(NotificationOutboxEvent.Status status);
+
+    @Query("SELECT MIN(e.createdAt) FROM NotificationOutboxEvent e WHERE e.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") NotificationOutboxEvent.Status status);
+}
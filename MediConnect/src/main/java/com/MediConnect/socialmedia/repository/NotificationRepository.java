@@ -1,25 +1,84 @@
 package com.MediConnect.socialmedia.repository;
 
 import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.socialmedia.dto.NotificationSummary;
 import com.MediConnect.socialmedia.entity.MedicalPost;
 import com.MediConnect.socialmedia.entity.MedicalPostComment;
 import com.MediConnect.socialmedia.entity.Notification;
+import com.MediConnect.socialmedia.entity.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
+    // Characters of post content selected for NotificationSummary.postSnippet (one more than is shown, to detect truncation)
+    int SNIPPET_QUERY_LENGTH = 121;
+    
+    String SUMMARY_SELECT = "SELECT new com.MediConnect.socialmedia.dto.NotificationSummary(" +
+            "n.id, n.type, n.message, n.isRead, n.createdAt, n.relatedEntityId, n.aggregateCount, " +
+            "a.id, a.firstName, a.lastName, a.profilePicture, p.id, SUBSTRING(p.content, 1, " + SNIPPET_QUERY_LENGTH + ")) " +
+            "FROM Notification n JOIN n.actor a LEFT JOIN n.post p ";
+    
+    // Keyset pages ordered by (createdAt, id) descending, served by ix_notifications_recipient_created_at
+    @Query(SUMMARY_SELECT + "WHERE n.recipient.id = :recipientId ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationSummary> findSummaries(@Param("recipientId") Long recipientId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE n.recipient.id = :recipientId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationSummary> findSummariesBefore(@Param("recipientId") Long recipientId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+    
     List<Notification> findByRecipientOrderByCreatedAtDesc(Users recipient);
     
     List<Notification> findByRecipientAndIsReadFalseOrderByCreatedAtDesc(Users recipient);
     
     Long countByRecipientAndIsReadFalse(Users recipient);
     
+    long countByRecipientIdAndIsReadFalse(Long recipientId);
+    
     void deleteByRecipient(Users recipient);
     
+    // Single set-based UPDATE for "mark all as read"
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :recipientId AND n.isRead = false")
+    int markAllAsReadByRecipientId(@Param("recipientId") Long recipientId);
+    
+    // Conditional single-row mark-read: returns 0 when another request already marked it read
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.isRead = false")
+    int markAsReadById(@Param("id") Long id);
+    
+    // Latest unread notification of a type for one related entity (used to merge chat notifications per channel)
+    Optional<Notification> findFirstByRecipientIdAndTypeAndRelatedEntityIdAndIsReadFalseOrderByCreatedAtDesc(
+            Long recipientId, NotificationType type, Long relatedEntityId);
+    
+    // Notifications created (higher id) or refreshed (coalesced chat rows get a new createdAt) after the client's last one
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId " +
+           "AND (n.id > :lastId OR n.createdAt > :since) ORDER BY n.createdAt ASC, n.id ASC")
+    List<Notification> findChangedSince(@Param("recipientId") Long recipientId,
+                                        @Param("lastId") Long lastId,
+                                        @Param("since") LocalDateTime since,
+                                        Pageable pageable);
+    
+    // Recipients of unread notifications about to be deleted with a post/comment (one entry per row)
+    @Query("SELECT n.recipient.id FROM Notification n WHERE n.post = :post AND n.isRead = false")
+    List<Long> findUnreadRecipientIdsByPost(@Param("post") MedicalPost post);
+    
+    @Query("SELECT n.recipient.id FROM Notification n WHERE n.comment = :comment AND n.isRead = false")
+    List<Long> findUnreadRecipientIdsByComment(@Param("comment") MedicalPostComment comment);
+    
     // Find notifications by post
     List<Notification> findByPost(MedicalPost post);
     
@@ -0,0 +1,79 @@
+package com.MediConnect.socialmedia.service;
+
+import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.socialmedia.dto.AdminRecipient;
+import com.MediConnect.util.AfterCommit;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ids and usernames of all administrators, used to fan out admin notifications.
+ *
+ * The list is stored in Redis as JSON under admins:recipients (small records, not Users entities) and
+ * rebuilt from the database on a miss. Anything that grants or revokes the ADMIN role must call
+ * {@link #invalidate()}; the TTL bounds staleness from changes made outside the application.
+ * If Redis is unavailable the list is read from the database every time.
+ */
+@Slf4j
+@Component
+public class AdminRecipientDirectory {
+
+    private static final String KEY = "admins:recipients";
+    private static final TypeReference<List<AdminRecipient>> LIST_TYPE = new TypeReference<>() {};
+
+    private final UserRepo userRepo;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public AdminRecipientDirectory(
+            UserRepo userRepo,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${notification.admin-directory.ttl-minutes:10}") long ttlMinutes) {
+        this.userRepo = userRepo;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    public List<AdminRecipient> getAll() {
+        try {
+            String cached = redisTemplate.opsForValue().get(KEY);
+            if (cached != null) {
+                return objectMapper.readValue(cached, LIST_TYPE);
+            }
+        } catch (Exception e) {
+            log.debug("Admin directory cache unavailable, reading from the database: {}", e.getMessage());
+            return userRepo.findAdminRecipients();
+        }
+
+        List<AdminRecipient> admins = userRepo.findAdminRecipients();
+        try {
+            redisTemplate.opsForValue().set(KEY, objectMapper.writeValueAsString(admins), ttl);
+        } catch (Exception e) {
+            log.debug("Failed to cache admin directory: {}", e.getMessage());
+        }
+        return admins;
+    }
+
+    /**
+     * Drops the cached list once the surrounding transaction commits (immediately if there is none).
+     */
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            try {
+                redisTemplate.delete(KEY);
+            } catch (Exception e) {
+                log.warn("Failed to invalidate admin directory cache: {}", e.getMessage());
+            }
+        });
+    }
+}
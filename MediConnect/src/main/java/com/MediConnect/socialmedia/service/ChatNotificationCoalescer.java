@@ -0,0 +1,106 @@
+package com.MediConnect.socialmedia.service;
+
+import com.MediConnect.socialmedia.service.chat.ChatPresenceService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces chat-message notifications per (recipient, channel).
+ *
+ * Instead of one Notification row (and one unread-count eviction) per chat message, messages are
+ * collected in memory and enqueued once per burst: after the coalescing window has passed since the
+ * first message, one CHAT_MESSAGE event goes to the notification outbox, and its delivery inserts a row
+ * or updates the recipient's existing unread row for that channel with the new count and latest preview.
+ *
+ * Once enqueued, a burst is as durable as every other notification (retried by NotificationOutboxDispatcher).
+ * Before that it lives only here: a burst whose enqueue fails is kept for the next flush, bursts are flushed
+ * on shutdown, and a crash loses at most the bursts of the last coalescing window.
+ *
+ * Nothing is persisted while the recipient is viewing the channel (subscribed to /topic/chat/{channelId},
+ * tracked by ChatPresenceService); they already received the message live.
+ */
+@Slf4j
+@Component
+public class ChatNotificationCoalescer {
+
+    private final NotificationService notificationService;
+    private final ChatPresenceService chatPresenceService;
+    private final long windowMillis;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    public ChatNotificationCoalescer(
+            NotificationService notificationService,
+            ChatPresenceService chatPresenceService,
+            @Value("${notification.chat.coalesce-window-ms:5000}") long windowMillis) {
+        this.notificationService = notificationService;
+        this.chatPresenceService = chatPresenceService;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Records a chat message for the recipient's notification. Cheap and non-blocking.
+     */
+    public void record(Long senderId, Long recipientId, Long channelId, String messagePreview) {
+        if (senderId.equals(recipientId)) return;
+        if (chatPresenceService.isViewing(recipientId, channelId)) return;
+
+        long now = System.currentTimeMillis();
+        pending.compute(new Key(recipientId, channelId), (key, existing) -> existing == null
+                ? new Pending(senderId, 1, messagePreview, now)
+                : new Pending(senderId, existing.count() + 1, messagePreview, existing.firstAt()));
+    }
+
+    /**
+     * Writes every burst whose window has elapsed.
+     */
+    @Scheduled(fixedDelayString = "${notification.chat.flush-interval-ms:1000}")
+    public void flushDue() {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+            if (entry.getValue().firstAt() <= cutoff) {
+                write(entry.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        // Snapshot, so a burst put back after a failed enqueue is not retried in a loop
+        for (Key key : new ArrayList<>(pending.keySet())) {
+            write(key);
+        }
+    }
+
+    private void write(Key key) {
+        Pending burst = pending.remove(key);
+        if (burst == null) return;
+
+        // The recipient may have opened the chat since the burst started
+        if (chatPresenceService.isViewing(key.recipientId(), key.channelId())) return;
+
+        try {
+            notificationService.createChatMessageNotification(
+                    burst.senderId(), key.recipientId(), key.channelId(), burst.count(), burst.lastPreview());
+        } catch (Exception e) {
+            log.warn("Failed to enqueue chat notification for user {} channel {}, retrying on next flush: {}",
+                    key.recipientId(), key.channelId(), e.getMessage());
+            // Merge with messages recorded meanwhile; keep the older start so it is due again right away
+            pending.merge(key, burst, (newer, failed) ->
+                    new Pending(newer.senderId(), newer.count() + failed.count(), newer.lastPreview(), failed.firstAt()));
+        }
+    }
+
+    private record Key(Long recipientId, Long channelId) {
+    }
+
+    private record Pending(Long senderId, int count, String lastPreview, long firstAt) {
+    }
+}
@@ -2,26 +2,30 @@ package com.MediConnect.socialmedia.service;
 
 import com.MediConnect.EntryRelated.entities.HealthcareProvider;
 import com.MediConnect.EntryRelated.entities.Patient;
-import com.MediConnect.EntryRelated.repository.PatientRepo;
-import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
 import com.MediConnect.Entities.AppointmentEntity;
 import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.socialmedia.dto.ChatChannelParticipants;
 import com.MediConnect.socialmedia.entity.ChatChannel;
 import com.MediConnect.socialmedia.entity.ChatMessage;
 import com.MediConnect.socialmedia.repository.ChatChannelRepository;
 import com.MediConnect.socialmedia.repository.ChatMessageRepository;
-import com.MediConnect.socialmedia.service.NotificationService;
+import com.MediConnect.socialmedia.service.chat.ChatParticipantCache;
+import com.MediConnect.socialmedia.service.chat.ChatPresenceService;
+import com.MediConnect.socialmedia.service.chat.ChatWriteBehindBuffer;
+import com.MediConnect.socialmedia.service.chat.PendingChatMessage;
+import com.MediConnect.socialmedia.service.chat.ReadReceiptBatcher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -30,22 +34,24 @@ import java.util.stream.Collectors;
  * Handles all chat-related business logic:
  * - Creating chat channels when appointments are confirmed
  * - Ensuring only one channel exists per patient-doctor pair
- * - Sending and retrieving messages
- * - Managing read status
+ * - Sending (write-behind, see ChatWriteBehindBuffer) and retrieving messages
+ * - Managing read status (batched, see ReadReceiptBatcher) and presence (see ChatPresenceService)
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChatService {
     
+    private static final int MAX_CLIENT_MESSAGE_ID_LENGTH = 64;
+    
     private final ChatChannelRepository channelRepository;
     private final ChatMessageRepository messageRepository;
-    private final PatientRepo patientRepo;
-    private final HealthcareProviderRepo healthcareProviderRepo;
-    private final NotificationService notificationService;
+    private final ChatNotificationCoalescer chatNotificationCoalescer;
     private final SimpMessagingTemplate messagingTemplate;
-    
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final ChatWriteBehindBuffer writeBehindBuffer;
+    private final ChatParticipantCache participantCache;
+    private final ChatPresenceService chatPresenceService;
+    private final ReadReceiptBatcher readReceiptBatcher;
     
     /**
      * Create or get existing chat channel for a patient-doctor pair
@@ -87,6 +93,7 @@ public class ChatService {
         channel.setLastActivityAt(new Date());
         
         ChatChannel saved = channelRepository.save(channel);
+        participantCache.evictAfterCommit(saved.getId());
         System.out.println("Created chat channel between patient " + patient.getId() + 
                          " and doctor " + doctor.getId() + 
                          " for appointment " + appointment.getId());
@@ -146,135 +153,89 @@ public class ChatService {
     /**
      * Send a message in a chat channel
      * 
+     * The message is acknowledged and broadcast as soon as it is accepted by the write-behind buffer
+     * (journaled locally); the database insert and the channel's lastActivityAt update happen in the
+     * next batched flush. No channel or sender entity is loaded here:
+     * - channel participants come from ChatParticipantCache
+     * - the sender is the already-resolved caller, used only for the broadcast payload
+     * 
      * @param channelId The channel to send message in
      * @param sender The user sending the message (patient or doctor)
      * @param content The message content
-     * @return The saved message
+     * @param clientMessageId Client-generated message id (a UUID is generated when absent); resending the
+     *                        same id never creates a duplicate row
+     * @return The message payload as broadcast to subscribers
      */
-    @Transactional
-    public ChatMessage sendMessage(Long channelId, Users sender, String content) {
+    public Map<String, Object> sendMessage(Long channelId, Users sender, String content, String clientMessageId) {
+        // Validate sender is either the patient or doctor in this channel
+        ChatChannelParticipants participants = getChannelParticipants(channelId);
+        Long senderId = sender.getId();
+        if (!participants.isParticipant(senderId)) {
+            throw new RuntimeException("User " + senderId + " is not authorized to send messages in this channel");
+        }
+        
+        PendingChatMessage pending = new PendingChatMessage(
+            normalizeClientMessageId(clientMessageId),
+            channelId,
+            senderId,
+            content,
+            System.currentTimeMillis()
+        );
+        
+        // PERSIST (write-behind): journaled now, written to the database in the next batch
+        writeBehindBuffer.enqueue(pending);
+        
+        Map<String, Object> messageMap = convertPendingMessageToMap(pending, sender);
+        
+        // BROADCAST: Send message to WebSocket subscribers
         try {
-            // Find the channel
-            ChatChannel channel = channelRepository.findById(channelId)
-                .orElseThrow(() -> new RuntimeException("Chat channel not found with ID: " + channelId));
-            
-            System.out.println("DEBUG CHAT SERVICE: Channel found - ID: " + channel.getId() + 
-                              ", Patient: " + channel.getPatient().getId() + 
-                              ", Doctor: " + channel.getDoctor().getId());
-            
-            // Validate sender is either the patient or doctor in this channel
-            Long senderId = sender.getId();
-            if (!senderId.equals(channel.getPatient().getId()) && 
-                !senderId.equals(channel.getDoctor().getId())) {
-                throw new RuntimeException("User " + senderId + " is not authorized to send messages in this channel");
-            }
-            
-            System.out.println("DEBUG CHAT SERVICE: Creating message - Channel: " + channelId + 
-                              ", Sender ID: " + senderId + ", Sender Type: " + sender.getClass().getSimpleName() + 
-                              ", Content: " + (content.length() > 50 ? content.substring(0, 50) + "..." : content));
-            
-            // Ensure sender is a managed entity (important for JOINED inheritance)
-            // If sender is detached, re-fetch it from the appropriate repository
-            Users managedSender = sender;
-            if (!entityManager.contains(sender)) {
-                System.out.println("DEBUG CHAT SERVICE: Sender is detached, re-fetching...");
-                // Re-fetch based on sender's actual type
-                if (sender instanceof Patient) {
-                    managedSender = patientRepo.findById(sender.getId())
-                        .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + sender.getId()));
-                } else if (sender instanceof HealthcareProvider) {
-                    managedSender = healthcareProviderRepo.findById(sender.getId())
-                        .orElseThrow(() -> new RuntimeException("HealthcareProvider not found with ID: " + sender.getId()));
-                } else {
-                    // If it's just Users, we need to determine type from channel
-                    if (senderId.equals(channel.getPatient().getId())) {
-                        managedSender = patientRepo.findById(senderId)
-                            .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + senderId));
-                    } else {
-                        managedSender = healthcareProviderRepo.findById(senderId)
-                            .orElseThrow(() -> new RuntimeException("HealthcareProvider not found with ID: " + senderId));
-                    }
-                }
-                System.out.println("DEBUG CHAT SERVICE: Re-fetched sender - Type: " + managedSender.getClass().getSimpleName());
-            }
-            
-            // Create message
-            ChatMessage message = new ChatMessage();
-            message.setChannel(channel);
-            message.setSender(managedSender); // Use managed entity
-            message.setContent(content);
-            message.setSentAt(new Date());
-            message.setIsRead(false);
-            message.setIsDeleted(false); // Ensure isDeleted is set to false
-            
-            // Update channel's last activity time
-            channel.setLastActivityAt(new Date());
-            channelRepository.save(channel);
-            
-            System.out.println("DEBUG CHAT SERVICE: Attempting to save message...");
-            
-            // Save message
-            ChatMessage savedMessage = messageRepository.save(message);
-            
-            System.out.println("DEBUG CHAT SERVICE: Message saved successfully - ID: " + savedMessage.getId());
-            
-            // BROADCAST: Send message to WebSocket subscribers
-            try {
-                Map<String, Object> messageMap = convertMessageToMap(savedMessage);
-                messagingTemplate.convertAndSend("/topic/chat/" + channelId, messageMap);
-                System.out.println("DEBUG CHAT SERVICE: Broadcasted message to /topic/chat/" + channelId);
-            } catch (Exception e) {
-                System.err.println("ERROR CHAT SERVICE: Failed to broadcast message: " + e.getMessage());
-                e.printStackTrace();
-            }
-            
-            // NOTIFICATION: Send notification to the recipient (the other person in the chat)
-            // The recipient is whoever is NOT the sender (patient if doctor sent, doctor if patient sent)
-            Users recipient = null;
-            if (senderId.equals(channel.getPatient().getId())) {
-                // Patient sent the message, so doctor is the recipient
-                recipient = channel.getDoctor();
-            } else {
-                // Doctor sent the message, so patient is the recipient
-                recipient = channel.getPatient();
-            }
-            
-            // NOTIFICATION: Create notification for the recipient (the other person in the chat)
-            // This runs in a separate try-catch to ensure message sending succeeds even if notification fails
-            if (recipient != null) {
-                try {
-                    notificationService.createChatMessageNotification(
-                        managedSender,  // sender (actor)
-                        recipient,      // recipient (the other person in chat)
-                        channelId,      // channel ID for navigation
-                        content         // message preview
-                    );
-                    System.out.println("DEBUG CHAT SERVICE: Notification created successfully for recipient ID: " + recipient.getId());
-                } catch (Exception e) {
-                    // Log but don't fail message sending if notification fails
-                    // This ensures users can still send messages even if there's a notification issue
-                    System.err.println("ERROR CHAT SERVICE: Failed to create notification (message still sent): " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-            
-            return savedMessage;
+            messagingTemplate.convertAndSend("/topic/chat/" + channelId, messageMap);
         } catch (Exception e) {
-            System.err.println("ERROR CHAT SERVICE sendMessage: " + e.getClass().getSimpleName() + ": " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+            log.error("Failed to broadcast chat message {} to channel {}: {}", pending.clientMessageId(), channelId, e.getMessage());
+        }
+        
+        // PRESENCE: Sending ends the sender's typing indicator; a recipient viewing the channel reads it now
+        Long recipientId = participants.otherParticipant(senderId);
+        chatPresenceService.onMessageSent(channelId, senderId, recipientId);
+        
+        // NOTIFICATION: Notify the recipient (the other person in the chat); bursts are coalesced into one row
+        // This runs in a separate try-catch to ensure message sending succeeds even if notification fails
+        try {
+            chatNotificationCoalescer.record(
+                senderId,                                     // sender (actor)
+                recipientId,                                  // recipient (the other person in chat)
+                channelId,                                    // channel ID for navigation
+                content                                       // message preview
+            );
+        } catch (Exception e) {
+            // Log but don't fail message sending if notification fails
+            log.error("Failed to create chat notification (message still sent): {}", e.getMessage());
         }
+        
+        return messageMap;
+    }
+    
+    /**
+     * Get the participants of a channel (cached, see ChatParticipantCache).
+     * 
+     * @param channelId The channel ID
+     * @return The patient and doctor ids of the channel
+     */
+    public ChatChannelParticipants getChannelParticipants(Long channelId) {
+        return participantCache.get(channelId);
     }
     
     /**
      * Get all messages in a channel.
-     * This is a read-only query operation.
+     * This is a read-only query operation (pending write-behind messages are flushed in their own transaction).
      * 
      * @param channelId The channel ID
      * @return List of messages ordered by sent time (oldest first)
      */
     @Transactional(readOnly = true)
     public List<ChatMessage> getMessages(Long channelId) {
+        // Flush accepted-but-unwritten messages first so the history includes the caller's own messages
+        writeBehindBuffer.flush();
         return messageRepository.findByChannelIdOrderBySentAtAsc(channelId);
     }
     
@@ -341,12 +302,13 @@ public class ChatService {
     /**
      * Mark messages as read in a channel
      * 
+     * Recorded with ReadReceiptBatcher and applied (with a read receipt broadcast) in the next batch.
+     * 
      * @param channelId The channel ID
      * @param userId The user who is reading (to exclude their own messages)
      */
-    @Transactional
     public void markMessagesAsRead(Long channelId, Long userId) {
-        messageRepository.markMessagesAsRead(channelId, userId);
+        readReceiptBatcher.markRead(channelId, userId);
     }
     
     /**
@@ -359,6 +321,10 @@ public class ChatService {
      */
     @Transactional(readOnly = true)
     public Long countUnreadMessages(Long channelId, Long userId) {
+        // Channel was opened but the read batch has not run yet
+        if (readReceiptBatcher.isPending(channelId, userId)) {
+            return 0L;
+        }
         return messageRepository.countUnreadMessages(channelId, userId);
     }
     
@@ -427,21 +393,59 @@ public class ChatService {
         if (message.getReadAt() != null) {
             map.put("readAt", message.getReadAt().toInstant().toString());
         }
+        if (message.getClientMessageId() != null) {
+            map.put("clientMessageId", message.getClientMessageId());
+        }
         
         // Add sender information so frontend can display who sent the message
+        map.put("sender", convertSenderToMap(message.getSender()));
+        
+        return map;
+    }
+    
+    /**
+     * Convert a just-accepted (not yet persisted) message to the same shape as {@link #convertMessageToMap}.
+     * There is no database id yet, so "id" is left out; clients key messages on clientMessageId,
+     * which history returns as well once the message is written.
+     * 
+     * @param message The accepted message
+     * @param sender The sender, already resolved by the caller
+     * @return Map with message data including sender details
+     */
+    private Map<String, Object> convertPendingMessageToMap(PendingChatMessage message, Users sender) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("clientMessageId", message.clientMessageId());
+        map.put("channelId", message.channelId());
+        map.put("content", message.content());
+        map.put("sentAt", Instant.ofEpochMilli(message.sentAtMillis()).toString());
+        map.put("senderId", message.senderId());
+        map.put("isRead", false);
+        map.put("sender", convertSenderToMap(sender));
+        return map;
+    }
+    
+    private Map<String, Object> convertSenderToMap(Users sender) {
         Map<String, Object> senderMap = new HashMap<>();
-        senderMap.put("id", message.getSender().getId());
-        senderMap.put("firstName", message.getSender().getFirstName());
-        senderMap.put("lastName", message.getSender().getLastName());
-        senderMap.put("profilePicture", message.getSender().getProfilePicture());
+        senderMap.put("id", sender.getId());
+        senderMap.put("firstName", sender.getFirstName());
+        senderMap.put("lastName", sender.getLastName());
+        senderMap.put("profilePicture", sender.getProfilePicture());
         
         // Determine if sender is a doctor (HealthcareProvider) or patient
-        boolean isDoctor = message.getSender() instanceof HealthcareProvider;
+        boolean isDoctor = sender instanceof HealthcareProvider;
         senderMap.put("isDoctor", isDoctor);
-        
-        map.put("sender", senderMap);
-        
-        return map;
+        return senderMap;
+    }
+    
+    private String normalizeClientMessageId(String clientMessageId) {
+        if (clientMessageId == null || clientMessageId.isBlank()) {
+            return UUID.randomUUID().toString();
+        }
+        String trimmed = clientMessageId.trim();
+        if (trimmed.length() > MAX_CLIENT_MESSAGE_ID_LENGTH) {
+            throw new IllegalArgumentException("clientMessageId must be at most " + MAX_CLIENT_MESSAGE_ID_LENGTH + " characters");
+        }
+        return trimmed;
     }
 }
 
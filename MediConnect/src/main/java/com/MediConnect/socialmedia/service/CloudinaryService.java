@@ -2,8 +2,9 @@ package com.MediConnect.socialmedia.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
-import lombok.RequiredArgsConstructor;
+import com.MediConnect.util.Bulkhead;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -11,14 +12,20 @@ import java.io.IOException;
 import java.util.Map;
 
 /**
- * Service for uploading images and videos to Cloudinary
+ * Service for uploading images and videos to Cloudinary.
+ * Uploads and deletes share the mediaBulkhead, which bounds concurrent Cloudinary calls.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CloudinaryService {
 
     private final Cloudinary cloudinary;
+    private final Bulkhead mediaBulkhead;
+
+    public CloudinaryService(Cloudinary cloudinary, @Qualifier("mediaBulkhead") Bulkhead mediaBulkhead) {
+        this.cloudinary = cloudinary;
+        this.mediaBulkhead = mediaBulkhead;
+    }
 
     /**
      * Test Cloudinary connection by verifying credentials
@@ -112,10 +119,10 @@ public class CloudinaryService {
         try {
             // Upload file to Cloudinary
             @SuppressWarnings("unchecked")
-            Map<String, Object> uploadResult = (Map<String, Object>) cloudinary.uploader().upload(
+            Map<String, Object> uploadResult = (Map<String, Object>) withPermit(() -> cloudinary.uploader().upload(
                 file.getBytes(),
                 uploadOptions
-            );
+            ));
 
             // Extract the secure URL (HTTPS)
             String url = (String) uploadResult.get("secure_url");
@@ -169,11 +176,12 @@ public class CloudinaryService {
             }
 
             // Delete the file
+            String targetId = publicId;
             @SuppressWarnings("unchecked")
-            Map<String, Object> deleteResult = (Map<String, Object>) cloudinary.uploader().destroy(
-                publicId, 
+            Map<String, Object> deleteResult = (Map<String, Object>) withPermit(() -> cloudinary.uploader().destroy(
+                targetId,
                 (Map<String, Object>) ObjectUtils.emptyMap()
-            );
+            ));
             
             log.info("Deleted file from Cloudinary: {} (result: {})", publicId, deleteResult.get("result"));
             
@@ -182,5 +190,18 @@ public class CloudinaryService {
             throw new IOException("Failed to delete file from Cloudinary: " + e.getMessage(), e);
         }
     }
+
+    private <T> T withPermit(Bulkhead.IoCall<T> call) throws IOException {
+        try {
+            return mediaBulkhead.call(call);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a media upload slot", e);
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 }
 
@@ -0,0 +1,60 @@
+package com.MediConnect.socialmedia.service;
+
+import com.MediConnect.socialmedia.dto.NotificationCommand;
+import com.MediConnect.socialmedia.entity.NotificationOutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Writes notification outbox events.
+ *
+ * The row is inserted in the caller's transaction, so a notification exists exactly when the action that
+ * caused it commits. Inserts use ON CONFLICT DO NOTHING on the idempotency key: a duplicate is skipped
+ * without raising an error that would mark the caller's transaction rollback-only.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO notification_outbox (idempotency_key, kind, payload, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, 'PENDING', 0, ?, ?) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING";
+
+    /**
+     * Published once an enqueue has committed, so the dispatcher can start without waiting for its next poll.
+     */
+    public record Enqueued() {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void enqueue(NotificationOutboxEvent.Kind kind, NotificationCommand command) {
+        enqueue(kind, command, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @param idempotencyKey natural key of the event (e.g. one reminder per appointment); repeats are ignored
+     */
+    public void enqueue(NotificationOutboxEvent.Kind kind, NotificationCommand command, String idempotencyKey) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(command);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize notification command", e);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_EVENT, idempotencyKey, kind.name(), payload, now, now);
+        eventPublisher.publishEvent(new Enqueued());
+    }
+}
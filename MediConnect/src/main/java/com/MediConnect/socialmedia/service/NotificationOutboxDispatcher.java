@@ -0,0 +1,222 @@
+package com.MediConnect.socialmedia.service;
+
+import com.MediConnect.socialmedia.dto.NotificationCommand;
+import com.MediConnect.socialmedia.entity.NotificationOutboxEvent;
+import com.MediConnect.socialmedia.repository.NotificationOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drains the notification outbox.
+ *
+ * Due events are fetched in batches and delivered one by one. Each delivery runs in a single transaction
+ * that locks the event (FOR UPDATE SKIP LOCKED, so instances never deliver the same event), creates the
+ * notification and marks the event DONE, so an event is never delivered twice. A failed delivery is
+ * retried with exponential backoff and marked FAILED after notification.outbox.max-attempts.
+ *
+ * Runs on its own thread rather than the shared @Scheduled one: it polls every
+ * notification.outbox.poll-interval-ms and is also woken as soon as an enqueue commits.
+ *
+ * Metrics: notifications.outbox.depth and notifications.outbox.lag (age of the oldest pending event),
+ * notifications.outbox.delay (enqueue to delivery) and notifications.outbox.events by outcome.
+ */
+@Slf4j
+@Component
+public class NotificationOutboxDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long metricsRefreshMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "notification-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+    private long metricsRefreshedAt;
+    private final Timer deliveryDelay;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+
+    public NotificationOutboxDispatcher(
+            NotificationOutboxRepository outboxRepository,
+            NotificationService notificationService,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${notification.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+            @Value("${notification.outbox.batch-size:100}") int batchSize,
+            @Value("${notification.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${notification.outbox.initial-backoff-ms:1000}") long initialBackoffMillis,
+            @Value("${notification.outbox.max-backoff-ms:300000}") long maxBackoffMillis,
+            @Value("${notification.outbox.metrics-refresh-ms:5000}") long metricsRefreshMillis) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.metricsRefreshMillis = metricsRefreshMillis;
+
+        Gauge.builder("notifications.outbox.depth", depth, AtomicLong::get)
+                .description("Notification outbox events waiting to be delivered")
+                .register(meterRegistry);
+        Gauge.builder("notifications.outbox.lag", this, NotificationOutboxDispatcher::lagSeconds)
+                .description("Age of the oldest pending notification outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("notifications.outbox.delay")
+                .description("Time from enqueue to delivery of a notification outbox event")
+                .register(meterRegistry);
+        this.delivered = outcomeCounter(meterRegistry, "delivered");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::drainSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a drain right after an enqueue commits; wake-ups that arrive while one is queued are merged.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(NotificationOutbox.Enqueued event) {
+        if (!wakeQueued.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                wakeQueued.set(false);
+                drainSafely();
+            });
+        } catch (RejectedExecutionException e) {
+            wakeQueued.set(false); // shutting down; the next start picks the event up
+        }
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.warn("Notification outbox drain failed: {}", e.getMessage());
+        }
+    }
+
+    private void drain() {
+        List<Long> due;
+        do {
+            due = outboxRepository.findDueIds(LocalDateTime.now(), batchSize);
+            for (Long id : due) {
+                deliver(id);
+            }
+        } while (due.size() == batchSize);
+
+        refreshMetricsIfDue();
+    }
+
+    private void deliver(Long id) {
+        try {
+            Duration delay = transactionTemplate.execute(status -> outboxRepository.lockPending(id).map(event -> {
+                notificationService.deliver(event.getKind(), readCommand(event));
+                event.setStatus(NotificationOutboxEvent.Status.DONE);
+                event.setProcessedAt(LocalDateTime.now());
+                return Duration.between(event.getCreatedAt(), event.getProcessedAt());
+            }).orElse(null));
+            if (delay != null) {
+                delivered.increment();
+                deliveryDelay.record(delay);
+            }
+        } catch (Exception e) {
+            recordFailure(id, e);
+        }
+    }
+
+    private void recordFailure(Long id, Exception error) {
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.lockPending(id).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(String.valueOf(error.getMessage()));
+            if (attempts >= maxAttempts) {
+                event.setStatus(NotificationOutboxEvent.Status.FAILED);
+                failed.increment();
+                log.error("Giving up on notification outbox event {} ({}) after {} attempts: {}",
+                        id, event.getKind(), attempts, error.getMessage());
+            } else {
+                long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 20));
+                event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+                retried.increment();
+                log.warn("Notification outbox event {} ({}) failed, retrying in {} ms: {}",
+                        id, event.getKind(), backoff, error.getMessage());
+            }
+        }));
+    }
+
+    private NotificationCommand readCommand(NotificationOutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), NotificationCommand.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable notification outbox payload", e);
+        }
+    }
+
+    private void refreshMetricsIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - metricsRefreshedAt < metricsRefreshMillis) return;
+        metricsRefreshedAt = now;
+        depth.set(outboxRepository.countByStatus(NotificationOutboxEvent.Status.PENDING));
+        oldestPending.set(outboxRepository.findOldestCreatedAt(NotificationOutboxEvent.Status.PENDING));
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("notifications.outbox.events")
+                .description("Notification outbox events processed, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
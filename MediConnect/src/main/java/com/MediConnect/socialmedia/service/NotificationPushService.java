@@ -0,0 +1,97 @@
+package com.MediConnect.socialmedia.service;
+
+import com.MediConnect.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes notification changes to the recipient's /user/queue/notifications.
+ *
+ * Every event carries "event" and, where the unread badge changes, "unreadDelta":
+ * - created:  {notification, unreadDelta: 1}
+ * - updated:  {notification, unreadDelta: 0}   (a coalesced chat notification got new messages)
+ * - read:     {ids, unreadDelta: -n}
+ * - read-all: {unreadCount: 0}
+ * - deleted:  {id, unreadDelta: 0 | -1}
+ * - resume:   {notifications, unreadCount, truncated}   (reply to /app/notifications/resume)
+ *
+ * Events raised inside a transaction are sent after it commits, so a client never sees a
+ * notification that was rolled back or that REST cannot return yet.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationPushService {
+
+    static final String QUEUE = "/queue/notifications";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void created(String username, Map<String, Object> notification) {
+        Map<String, Object> event = event("created");
+        event.put("notification", notification);
+        event.put("unreadDelta", 1);
+        send(username, event);
+    }
+
+    public void updated(String username, Map<String, Object> notification) {
+        Map<String, Object> event = event("updated");
+        event.put("notification", notification);
+        event.put("unreadDelta", 0);
+        send(username, event);
+    }
+
+    public void read(String username, List<Long> ids) {
+        Map<String, Object> event = event("read");
+        event.put("ids", ids);
+        event.put("unreadDelta", -ids.size());
+        send(username, event);
+    }
+
+    public void readAll(String username) {
+        Map<String, Object> event = event("read-all");
+        event.put("unreadCount", 0);
+        send(username, event);
+    }
+
+    public void deleted(String username, Long id, boolean wasUnread) {
+        Map<String, Object> event = event("deleted");
+        event.put("id", id);
+        event.put("unreadDelta", wasUnread ? -1 : 0);
+        send(username, event);
+    }
+
+    public void resumed(String username, List<Map<String, Object>> notifications, long unreadCount, boolean truncated) {
+        Map<String, Object> event = event("resume");
+        event.put("notifications", notifications);
+        event.put("unreadCount", unreadCount);
+        event.put("truncated", truncated);
+        send(username, event);
+    }
+
+    private static Map<String, Object> event(String name) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("event", name);
+        return event;
+    }
+
+    private void send(String username, Map<String, Object> event) {
+        if (username == null) return;
+        AfterCommit.run(() -> deliver(username, event));
+    }
+
+    private void deliver(String username, Map<String, Object> event) {
+        try {
+            messagingTemplate.convertAndSendToUser(username, QUEUE, event);
+        } catch (Exception e) {
+            // Clients resync through the resume handshake or the REST endpoints
+            log.debug("Failed to push notification event {} to {}: {}", event.get("event"), username, e.getMessage());
+        }
+    }
+}
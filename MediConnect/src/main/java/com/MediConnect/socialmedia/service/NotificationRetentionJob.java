@@ -0,0 +1,156 @@
+package com.MediConnect.socialmedia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deletes notifications older than notification.retention.days.
+ *
+ * Rows are removed oldest first in batches of notification.retention.batch-size, each batch in its own
+ * short transaction, so a large backlog never holds locks on the table for long. The inner SELECT uses
+ * SKIP LOCKED so a batch neither waits for nor conflicts with rows another instance is pruning.
+ * Unread counters of recipients who lost unread rows are invalidated and rebuilt on their next read.
+ * Delivered notification outbox events older than notification.outbox.retention-hours are removed the same way.
+ *
+ * Metrics: notifications.retention.pruned (rows deleted, tagged by table) and
+ * notifications.retention.duration (per run).
+ */
+@Slf4j
+@Component
+public class NotificationRetentionJob {
+
+    private static final String DELETE_BATCH =
+            "DELETE FROM notifications WHERE id IN (" +
+            "SELECT id FROM notifications WHERE created_at < ? ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING recipient_id, is_read";
+
+    private static final String DELETE_OUTBOX_BATCH =
+            "DELETE FROM notification_outbox WHERE id IN (" +
+            "SELECT id FROM notification_outbox WHERE status = 'DONE' AND processed_at < ? " +
+            "ORDER BY processed_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationUnreadCounter unreadCounter;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int outboxRetentionHours;
+    private final Counter prunedCounter;
+    private final Counter outboxPrunedCounter;
+    private final Timer runTimer;
+
+    public NotificationRetentionJob(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            NotificationUnreadCounter unreadCounter,
+            MeterRegistry meterRegistry,
+            @Value("${notification.retention.enabled:true}") boolean enabled,
+            @Value("${notification.retention.days:90}") int retentionDays,
+            @Value("${notification.retention.batch-size:1000}") int batchSize,
+            @Value("${notification.retention.max-batches-per-run:100}") int maxBatchesPerRun,
+            @Value("${notification.outbox.retention-hours:48}") int outboxRetentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounter = unreadCounter;
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.outboxRetentionHours = outboxRetentionHours;
+        this.prunedCounter = Counter.builder("notifications.retention.pruned")
+                .description("Rows deleted by the notification retention job")
+                .tag("table", "notifications")
+                .register(meterRegistry);
+        this.outboxPrunedCounter = Counter.builder("notifications.retention.pruned")
+                .description("Rows deleted by the notification retention job")
+                .tag("table", "notification_outbox")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("notifications.retention.duration")
+                .description("Time taken by one retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * *}")
+    public void scheduledPrune() {
+        if (!enabled) return;
+        try {
+            prune();
+        } catch (Exception e) {
+            log.warn("Notification retention run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one retention pass.
+     *
+     * @return number of notifications deleted
+     */
+    public long prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        long started = System.nanoTime();
+        long pruned = 0;
+        int batches = 0;
+
+        try {
+            while (batches < maxBatchesPerRun) {
+                List<Map<String, Object>> deleted = transactionTemplate.execute(status ->
+                        jdbcTemplate.queryForList(DELETE_BATCH, cutoff, batchSize));
+                batches++;
+                if (deleted == null || deleted.isEmpty()) break;
+
+                pruned += deleted.size();
+                prunedCounter.increment(deleted.size());
+                invalidateUnreadCounters(deleted);
+                if (deleted.size() < batchSize) break;
+            }
+            pruneOutbox();
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(Duration.ofNanos(elapsed));
+            if (pruned > 0) {
+                log.info("Pruned {} notifications older than {} days in {} batch(es), {} ms",
+                        pruned, retentionDays, batches, elapsed / 1_000_000);
+            }
+        }
+        return pruned;
+    }
+
+    private void pruneOutbox() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(outboxRetentionHours));
+        for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+            Integer deleted = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(DELETE_OUTBOX_BATCH, cutoff, batchSize));
+            if (deleted == null || deleted == 0) return;
+
+            outboxPrunedCounter.increment(deleted);
+            if (deleted < batchSize) return;
+        }
+    }
+
+    private void invalidateUnreadCounters(List<Map<String, Object>> deleted) {
+        Set<Long> recipients = new HashSet<>();
+        for (Map<String, Object> row : deleted) {
+            if (!Boolean.TRUE.equals(row.get("is_read"))) {
+                recipients.add(((Number) row.get("recipient_id")).longValue());
+            }
+        }
+        recipients.forEach(unreadCounter::invalidate);
+    }
+}
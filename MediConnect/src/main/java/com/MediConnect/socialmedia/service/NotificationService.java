@@ -2,18 +2,32 @@ package com.MediConnect.socialmedia.service;
 
 import com.MediConnect.EntryRelated.entities.Users;
 import com.MediConnect.EntryRelated.service.NotificationPreferencesService;
+import com.MediConnect.socialmedia.dto.AdminRecipient;
+import com.MediConnect.socialmedia.dto.NotificationCommand;
+import com.MediConnect.socialmedia.dto.NotificationSummary;
 import com.MediConnect.socialmedia.entity.*;
+import com.MediConnect.socialmedia.repository.MedicalPostCommentRepository;
+import com.MediConnect.socialmedia.repository.MedicalPostRepository;
 import com.MediConnect.socialmedia.repository.NotificationRepository;
 import com.MediConnect.Repos.UserRepo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,12 +35,22 @@ import java.util.stream.Collectors;
 
 /**
  * Service for managing notifications.
- * Notification creation methods are asynchronous to improve response times.
+ * create* methods only record an outbox event in the caller's transaction; the notification itself is
+ * written by NotificationOutboxDispatcher, so user actions never wait on it and a failure is retried.
+ * Every change is also pushed to the recipient over WebSocket (see NotificationPushService);
+ * the REST endpoints serve cold starts.
  */
 @Slf4j
 @Service
 public class NotificationService {
 
+    // One row per admin in a single statement; the join skips ids that are no longer admins (stale directory)
+    private static final String INSERT_ADMIN_FAN_OUT =
+            "INSERT INTO notifications (recipient_id, actor_id, type, related_entity_id, message, is_read, created_at, aggregate_count) " +
+            "SELECT u.id, ?, ?, ?, ?, false, ?, 1 FROM unnest(?) AS r(id) " +
+            "JOIN users u ON u.id = r.id AND UPPER(u.role) = 'ADMIN' " +
+            "RETURNING id, recipient_id";
+
     @Autowired
     private NotificationRepository notificationRepository;
 
@@ -36,43 +60,207 @@ public class NotificationService {
     @Autowired
     private NotificationPreferencesService notificationPreferencesService;
 
-    @Cacheable(value = "adminUsers", key = "'all'")
-    @Transactional(readOnly = true)
-    public List<Users> getAdminUsers() {
-        log.debug("Fetching admin users from database (cache miss)");
-        return userRepo.findByRoleIgnoreCase("ADMIN");
-    }
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Autowired
+    private NotificationUnreadCounter unreadCounter;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private MedicalPostRepository medicalPostRepository;
+
+    @Autowired
+    private MedicalPostCommentRepository medicalPostCommentRepository;
+
+    @Autowired
+    private AdminRecipientDirectory adminRecipientDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${notification.push.resume-limit:50}")
+    private int resumeLimit;
+
+    @Value("${notification.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${notification.page.max-size:100}")
+    private int maxPageSize;
+
+    // --- ENQUEUE ---
+    // These run in the caller's transaction and only write an outbox event (see NotificationOutbox);
+    // NotificationOutboxDispatcher delivers it through deliver() below.
 
-    @Async("notificationTaskExecutor")
-    @Transactional
     public void createAdminNotification(Users actor, String message, NotificationType notificationType, Long relatedEntityId) {
         if (actor == null || notificationType == null) return;
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.ADMIN, NotificationCommand.builder()
+                .actorId(actor.getId())
+                .message(message)
+                .type(notificationType)
+                .relatedEntityId(relatedEntityId)
+                .build());
+    }
 
-        List<Users> admins = getAdminUsers();
-        if (admins == null || admins.isEmpty()) return;
+    public void createPostLikeNotification(Users actor, MedicalPost post) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.POST_LIKE, NotificationCommand.builder()
+                .actorId(actor.getId())
+                .postId(post.getId())
+                .build());
+    }
+
+    public void createPostCommentNotification(Users actor, MedicalPost post, MedicalPostComment comment) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.POST_COMMENT, NotificationCommand.builder()
+                .actorId(actor.getId())
+                .postId(post.getId())
+                .commentId(comment.getId())
+                .build());
+    }
+
+    public void createCommentLikeNotification(Users actor, MedicalPostComment comment) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.COMMENT_LIKE, NotificationCommand.builder()
+                .actorId(actor.getId())
+                .commentId(comment.getId())
+                .build());
+    }
+
+    public void createCommentReplyNotification(Users actor, CommentReply reply, MedicalPostComment parentComment) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.COMMENT_REPLY, NotificationCommand.builder()
+                .actorId(actor.getId())
+                .commentId(parentComment.getId())
+                .build());
+    }
+
+    public void createAppointmentRequestedNotification(Long patientId, Long doctorId, Long appointmentId) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.APPOINTMENT_REQUESTED, NotificationCommand.builder()
+                .actorId(patientId)
+                .recipientId(doctorId)
+                .relatedEntityId(appointmentId)
+                .build());
+    }
 
-        for (Users admin : admins) {
-            if (admin.getId().equals(actor.getId())) continue;
+    public void createAppointmentStatusNotification(Long doctorId, Long patientId, NotificationType notificationType, Long appointmentId, String additionalInfo) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.APPOINTMENT_STATUS, NotificationCommand.builder()
+                .actorId(doctorId)
+                .recipientId(patientId)
+                .type(notificationType)
+                .relatedEntityId(appointmentId)
+                .additionalInfo(additionalInfo)
+                .build());
+    }
 
+    public void createRescheduleResponseNotification(Long patientId, Long doctorId, NotificationType notificationType, Long appointmentId) {
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.RESCHEDULE_RESPONSE, NotificationCommand.builder()
+                .actorId(patientId)
+                .recipientId(doctorId)
+                .type(notificationType)
+                .relatedEntityId(appointmentId)
+                .build());
+    }
+
+    /**
+     * Reminder for both participants. Keyed by appointment, so a reminder is only ever enqueued once.
+     */
+    public void createAppointmentReminderNotification(Users patient, Users doctor, NotificationType notificationType, Long appointmentId, java.util.Date appointmentDateTime) {
+        if (notificationType != NotificationType.APPOINTMENT_REMINDER_24H) return;
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.APPOINTMENT_REMINDER, NotificationCommand.builder()
+                .actorId(doctor.getId())
+                .recipientId(patient.getId())
+                .type(notificationType)
+                .relatedEntityId(appointmentId)
+                .scheduledAt(appointmentDateTime.getTime())
+                .build(), notificationType.name() + ":" + appointmentId);
+    }
+
+    /**
+     * Chat Message (called by ChatNotificationCoalescer once per recipient/channel burst, off the request path)
+     *
+     * @param messageCount number of messages in the burst
+     * @param lastMessagePreview content of the most recent message
+     */
+    public void createChatMessageNotification(Long senderId, Long recipientId, Long channelId, int messageCount, String lastMessagePreview) {
+        if (senderId.equals(recipientId)) return;
+        notificationOutbox.enqueue(NotificationOutboxEvent.Kind.CHAT_MESSAGE, NotificationCommand.builder()
+                .actorId(senderId)
+                .recipientId(recipientId)
+                .relatedEntityId(channelId)
+                .message(lastMessagePreview)
+                .aggregateCount(messageCount)
+                .build());
+    }
+
+    // --- DELIVERY ---
+
+    /**
+     * Creates the notification(s) for one outbox event, inside the dispatcher's delivery transaction.
+     * Entities are loaded fresh; an event whose users/post/comment no longer exist is dropped.
+     */
+    @Transactional
+    public void deliver(NotificationOutboxEvent.Kind kind, NotificationCommand command) {
+        switch (kind) {
+            case ADMIN -> deliverAdminNotification(command);
+            case POST_LIKE -> deliverPostLikeNotification(command);
+            case POST_COMMENT -> deliverPostCommentNotification(command);
+            case COMMENT_LIKE -> deliverCommentLikeNotification(command);
+            case COMMENT_REPLY -> deliverCommentReplyNotification(command);
+            case APPOINTMENT_REQUESTED -> deliverAppointmentRequestedNotification(command);
+            case APPOINTMENT_STATUS -> deliverAppointmentStatusNotification(command);
+            case RESCHEDULE_RESPONSE -> deliverRescheduleResponseNotification(command);
+            case APPOINTMENT_REMINDER -> deliverAppointmentReminderNotification(command);
+            case CHAT_MESSAGE -> deliverChatMessageNotification(command);
+        }
+    }
+
+    private void deliverAdminNotification(NotificationCommand command) {
+        Users actor = userRepo.findById(command.actorId()).orElse(null);
+        if (actor == null) return;
+
+        Map<Long, String> usernames = new HashMap<>();
+        for (AdminRecipient admin : adminRecipientDirectory.getAll()) {
+            if (!admin.id().equals(actor.getId())) usernames.put(admin.id(), admin.username());
+        }
+        if (usernames.isEmpty()) return;
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<long[]> inserted = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_ADMIN_FAN_OUT);
+            Array recipientIds = connection.createArrayOf("bigint", usernames.keySet().toArray());
+            statement.setLong(1, actor.getId());
+            statement.setString(2, command.type().name());
+            if (command.relatedEntityId() != null) {
+                statement.setLong(3, command.relatedEntityId());
+            } else {
+                statement.setNull(3, Types.BIGINT);
+            }
+            statement.setString(4, command.message());
+            statement.setTimestamp(5, Timestamp.valueOf(createdAt));
+            statement.setArray(6, recipientIds);
+            return statement;
+        }, (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("recipient_id")});
+        if (inserted.isEmpty()) return;
+
+        unreadCounter.incrementAll(inserted.stream().map(row -> row[1]).collect(Collectors.toList()));
+        for (long[] row : inserted) {
             Notification notification = new Notification();
-            notification.setRecipient(admin);
+            notification.setId(row[0]);
             notification.setActor(actor);
-            notification.setType(notificationType);
-            notification.setRelatedEntityId(relatedEntityId);
-            notification.setMessage(message);
-            notification.setIsRead(false);
-            notification.setCreatedAt(LocalDateTime.now());
-            notificationRepository.save(notification);
-
-            evictUnreadCountCache(admin.getId());
+            notification.setType(command.type());
+            notification.setRelatedEntityId(command.relatedEntityId());
+            notification.setMessage(command.message());
+            notification.setCreatedAt(createdAt);
+            notificationPushService.created(usernames.get(row[1]), convertToMap(notification));
         }
     }
 
-    // --- SOCIAL MEDIA NOTIFICATIONS (Keep accepting Entities for now) ---
+    // --- SOCIAL MEDIA NOTIFICATIONS ---
+
+    private void deliverPostLikeNotification(NotificationCommand command) {
+        Users actor = userRepo.findById(command.actorId()).orElse(null);
+        MedicalPost post = medicalPostRepository.findById(command.postId()).orElse(null);
+        if (actor == null || post == null) return;
 
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createPostLikeNotification(Users actor, MedicalPost post) {
         if (post.getPostProvider().getId().equals(actor.getId())) return;
         if (!notificationPreferencesService.isNotificationEnabled(post.getPostProvider(), "post_likes")) return;
 
@@ -80,9 +268,12 @@ public class NotificationService {
                 actor.getFirstName() + " " + actor.getLastName() + " liked your post", post.getId(), post, null);
     }
 
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createPostCommentNotification(Users actor, MedicalPost post, MedicalPostComment comment) {
+    private void deliverPostCommentNotification(NotificationCommand command) {
+        Users actor = userRepo.findById(command.actorId()).orElse(null);
+        MedicalPost post = medicalPostRepository.findById(command.postId()).orElse(null);
+        MedicalPostComment comment = medicalPostCommentRepository.findById(command.commentId()).orElse(null);
+        if (actor == null || post == null || comment == null) return;
+
         if (post.getPostProvider().getId().equals(actor.getId())) return;
         if (!notificationPreferencesService.isNotificationEnabled(post.getPostProvider(), "post_comments")) return;
 
@@ -90,9 +281,11 @@ public class NotificationService {
                 actor.getFirstName() + " " + actor.getLastName() + " commented on your post", post.getId(), post, comment);
     }
 
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createCommentLikeNotification(Users actor, MedicalPostComment comment) {
+    private void deliverCommentLikeNotification(NotificationCommand command) {
+        Users actor = userRepo.findById(command.actorId()).orElse(null);
+        MedicalPostComment comment = medicalPostCommentRepository.findById(command.commentId()).orElse(null);
+        if (actor == null || comment == null) return;
+
         Users commentOwner = userRepo.findById(comment.getCommenterId()).orElse(null);
         if (commentOwner == null || commentOwner.getId().equals(actor.getId())) return;
 
@@ -103,9 +296,11 @@ public class NotificationService {
                 comment.getPost().getId(), comment.getPost(), comment);
     }
 
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createCommentReplyNotification(Users actor, CommentReply reply, MedicalPostComment parentComment) {
+    private void deliverCommentReplyNotification(NotificationCommand command) {
+        Users actor = userRepo.findById(command.actorId()).orElse(null);
+        MedicalPostComment parentComment = medicalPostCommentRepository.findById(command.commentId()).orElse(null);
+        if (actor == null || parentComment == null) return;
+
         Users commentOwner = userRepo.findById(parentComment.getCommenterId()).orElse(null);
         if (commentOwner == null || commentOwner.getId().equals(actor.getId())) return;
 
@@ -116,17 +311,14 @@ public class NotificationService {
                 parentComment.getPost().getId(), parentComment.getPost(), parentComment);
     }
 
-    // --- APPOINTMENT NOTIFICATIONS (UPDATED TO USE IDs) ---
+    // --- APPOINTMENT NOTIFICATIONS ---
 
     /**
-     * 1. Appointment Requested (Updated to accept IDs)
+     * 1. Appointment Requested (patient -> doctor)
      */
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createAppointmentRequestedNotification(Long patientId, Long doctorId, Long appointmentId) {
-        // Fetch entities fresh inside the Async thread
-        Users patient = userRepo.findById(patientId).orElse(null);
-        Users doctor = userRepo.findById(doctorId).orElse(null);
+    private void deliverAppointmentRequestedNotification(NotificationCommand command) {
+        Users patient = userRepo.findById(command.actorId()).orElse(null);
+        Users doctor = userRepo.findById(command.recipientId()).orElse(null);
 
         if (patient == null || doctor == null) return;
 
@@ -135,18 +327,15 @@ public class NotificationService {
         }
 
         String message = patient.getFirstName() + " " + patient.getLastName() + " requested an appointment with you";
-        saveNotification(doctor, patient, NotificationType.APPOINTMENT_REQUESTED, message, appointmentId, null, null);
+        saveNotification(doctor, patient, NotificationType.APPOINTMENT_REQUESTED, message, command.relatedEntityId(), null, null);
     }
 
     /**
-     * 2. Appointment Status Update (Updated to accept IDs)
+     * 2. Appointment Status Update (doctor -> patient)
      */
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createAppointmentStatusNotification(Long doctorId, Long patientId, NotificationType notificationType, Long appointmentId, String additionalInfo) {
-        // Fetch entities fresh
-        Users doctor = userRepo.findById(doctorId).orElse(null);
-        Users patient = userRepo.findById(patientId).orElse(null);
+    private void deliverAppointmentStatusNotification(NotificationCommand command) {
+        Users doctor = userRepo.findById(command.actorId()).orElse(null);
+        Users patient = userRepo.findById(command.recipientId()).orElse(null);
 
         if (doctor == null || patient == null) return;
 
@@ -154,8 +343,9 @@ public class NotificationService {
             return;
         }
 
+        String additionalInfo = command.additionalInfo();
         String message = "";
-        switch (notificationType) {
+        switch (command.type()) {
             case APPOINTMENT_CONFIRMED:
                 message = "Dr. " + doctor.getFirstName() + " " + doctor.getLastName() + " confirmed your appointment";
                 break;
@@ -171,18 +361,15 @@ public class NotificationService {
             default: return;
         }
 
-        saveNotification(patient, doctor, notificationType, message, appointmentId, null, null);
+        saveNotification(patient, doctor, command.type(), message, command.relatedEntityId(), null, null);
     }
 
     /**
-     * 3. Reschedule Response (Updated to accept IDs)
+     * 3. Reschedule Response (patient -> doctor)
      */
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createRescheduleResponseNotification(Long patientId, Long doctorId, NotificationType notificationType, Long appointmentId) {
-        // Fetch entities fresh
-        Users patient = userRepo.findById(patientId).orElse(null);
-        Users doctor = userRepo.findById(doctorId).orElse(null);
+    private void deliverRescheduleResponseNotification(NotificationCommand command) {
+        Users patient = userRepo.findById(command.actorId()).orElse(null);
+        Users doctor = userRepo.findById(command.recipientId()).orElse(null);
 
         if (patient == null || doctor == null) return;
 
@@ -191,7 +378,7 @@ public class NotificationService {
         }
 
         String message = "";
-        switch (notificationType) {
+        switch (command.type()) {
             case APPOINTMENT_RESCHEDULE_CONFIRMED:
                 message = patient.getFirstName() + " " + patient.getLastName() + " accepted the new appointment time";
                 break;
@@ -201,57 +388,95 @@ public class NotificationService {
             default: return;
         }
 
-        saveNotification(doctor, patient, notificationType, message, appointmentId, null, null);
+        saveNotification(doctor, patient, command.type(), message, command.relatedEntityId(), null, null);
     }
 
-    // --- OTHER NOTIFICATIONS ---
+    /**
+     * 4. 24h Reminder (to both patient and doctor)
+     */
+    private void deliverAppointmentReminderNotification(NotificationCommand command) {
+        Users doctor = userRepo.findById(command.actorId()).orElse(null);
+        Users patient = userRepo.findById(command.recipientId()).orElse(null);
 
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createChatMessageNotification(Users sender, Users recipient, Long channelId, String messagePreview) {
-        if (sender.getId().equals(recipient.getId())) return;
+        if (doctor == null || patient == null) return;
 
-        try {
-            if (!notificationPreferencesService.isNotificationEnabled(recipient, "chat_messages")) return;
-        } catch (Exception e) {
-            // Ignore preference error
-        }
+        java.text.SimpleDateFormat dateFormat = new java.text.SimpleDateFormat("MMM dd, yyyy 'at' HH:mm");
+        String formattedDateTime = dateFormat.format(new java.util.Date(command.scheduledAt()));
+        Long appointmentId = command.relatedEntityId();
 
-        String senderName = sender.getFirstName() + " " + sender.getLastName();
-        String message = senderName + " sent you a message";
-        if (messagePreview != null && !messagePreview.trim().isEmpty()) {
-            String preview = messagePreview.length() > 50 ? messagePreview.substring(0, 50) + "..." : messagePreview;
-            message += ": \"" + preview + "\"";
+        if (notificationPreferencesService.isNotificationEnabled(patient, "appointment_reminders")) {
+            String msg = "Reminder: You have an appointment with Dr. " + doctor.getFirstName() + " " + doctor.getLastName() + " in 24 hours (" + formattedDateTime + ")";
+            saveNotification(patient, doctor, NotificationType.APPOINTMENT_REMINDER_24H, msg, appointmentId, null, null);
         }
 
-        saveNotification(recipient, sender, NotificationType.CHAT_MESSAGE, message, channelId, null, null);
+        if (notificationPreferencesService.isNotificationEnabled(doctor, "appointment_reminders")) {
+            String msg = "Reminder: You have an appointment with " + patient.getFirstName() + " " + patient.getLastName() + " in 24 hours (" + formattedDateTime + ")";
+            saveNotification(doctor, patient, NotificationType.APPOINTMENT_REMINDER_24H, msg, appointmentId, null, null);
+        }
     }
 
-    @Async("notificationTaskExecutor")
-    @Transactional
-    public void createAppointmentReminderNotification(Users patient, Users doctor, NotificationType notificationType, Long appointmentId, java.util.Date appointmentDateTime) {
-        if (notificationType != NotificationType.APPOINTMENT_REMINDER_24H) return;
-
-        java.text.SimpleDateFormat dateFormat = new java.text.SimpleDateFormat("MMM dd, yyyy 'at' HH:mm");
-        String formattedDateTime = dateFormat.format(appointmentDateTime);
-
-        try {
-            if (notificationPreferencesService.isNotificationEnabled(patient, "appointment_reminders")) {
-                String msg = "Reminder: You have an appointment with Dr. " + doctor.getFirstName() + " " + doctor.getLastName() + " in 24 hours (" + formattedDateTime + ")";
-                saveNotification(patient, doctor, NotificationType.APPOINTMENT_REMINDER_24H, msg, appointmentId, null, null);
-            }
-        } catch (Exception e) { log.warn("Failed to send patient reminder", e); }
+    /**
+     * 5. Chat Message
+     *
+     * Merges into the recipient's latest unread chat notification for the same channel if there is one,
+     * so a conversation produces a single unread row whose count and preview are kept up to date.
+     */
+    private void deliverChatMessageNotification(NotificationCommand command) {
+        Users sender = userRepo.findById(command.actorId()).orElse(null);
+        Users recipient = userRepo.findById(command.recipientId()).orElse(null);
+
+        if (sender == null || recipient == null) return;
+        if (!notificationPreferencesService.isNotificationEnabled(recipient, "chat_messages")) return;
+
+        Long channelId = command.relatedEntityId();
+        Notification existing = notificationRepository
+                .findFirstByRecipientIdAndTypeAndRelatedEntityIdAndIsReadFalseOrderByCreatedAtDesc(
+                        recipient.getId(), NotificationType.CHAT_MESSAGE, channelId)
+                .orElse(null);
+
+        int messageCount = command.aggregateCount() != null ? command.aggregateCount() : 1;
+        int total = messageCount + (existing != null && existing.getAggregateCount() != null ? existing.getAggregateCount() : 0);
+        String message = buildChatMessageText(sender, total, command.message());
+
+        if (existing != null) {
+            // Still unread, so the unread count does not change
+            existing.setActor(sender);
+            existing.setMessage(message);
+            existing.setAggregateCount(total);
+            existing.setCreatedAt(LocalDateTime.now());
+            notificationRepository.save(existing);
+            notificationPushService.updated(recipient.getUsername(), convertToMap(existing));
+            return;
+        }
 
-        try {
-            if (notificationPreferencesService.isNotificationEnabled(doctor, "appointment_reminders")) {
-                String msg = "Reminder: You have an appointment with " + patient.getFirstName() + " " + patient.getLastName() + " in 24 hours (" + formattedDateTime + ")";
-                saveNotification(doctor, patient, NotificationType.APPOINTMENT_REMINDER_24H, msg, appointmentId, null, null);
-            }
-        } catch (Exception e) { log.warn("Failed to send doctor reminder", e); }
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setActor(sender);
+        notification.setType(NotificationType.CHAT_MESSAGE);
+        notification.setRelatedEntityId(channelId);
+        notification.setMessage(message);
+        notification.setIsRead(false);
+        notification.setAggregateCount(total);
+        notification.setCreatedAt(LocalDateTime.now());
+        notificationRepository.save(notification);
+        unreadCounter.increment(recipient.getId());
+        notificationPushService.created(recipient.getUsername(), convertToMap(notification));
     }
 
     // --- HELPER METHODS ---
 
+    private String buildChatMessageText(Users sender, int messageCount, String messagePreview) {
+        String senderName = sender.getFirstName() + " " + sender.getLastName();
+        String message = messageCount > 1
+                ? senderName + " sent you " + messageCount + " messages"
+                : senderName + " sent you a message";
+        if (messagePreview != null && !messagePreview.trim().isEmpty()) {
+            String preview = messagePreview.length() > 50 ? messagePreview.substring(0, 50) + "..." : messagePreview;
+            message += ": \"" + preview + "\"";
+        }
+        return message;
+    }
+
     private void saveNotification(Users recipient, Users actor, NotificationType type, String message, Long relatedId, MedicalPost post, MedicalPostComment comment) {
         Notification notification = new Notification();
         notification.setRecipient(recipient);
@@ -265,52 +490,207 @@ public class NotificationService {
         if (comment != null) notification.setComment(comment);
 
         notificationRepository.save(notification);
-        evictUnreadCountCache(recipient.getId());
+        unreadCounter.increment(recipient.getId());
+        notificationPushService.created(recipient.getUsername(), convertToMap(notification));
     }
 
+    /**
+     * Every notification of the user, newest first. Prefer getNotificationPage for anything user-facing.
+     */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getUserNotifications(Long userId) {
-        Users user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.findByRecipientOrderByCreatedAtDesc(user).stream()
+        if (!userRepo.existsById(userId)) throw new RuntimeException("User not found");
+        return notificationRepository.findSummaries(userId, Pageable.unpaged()).stream()
                 .map(this::convertToMap)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "unreadCount", key = "#userId")
+    /**
+     * One page of the user's notifications, newest first.
+     *
+     * Pages are keyed on (createdAt, id) of the last row returned rather than an offset, so each page is a
+     * short range scan of ix_notifications_recipient_created_at no matter how deep the client scrolls.
+     *
+     * @param cursor opaque cursor from a previous page's "nextCursor", or null for the first page
+     * @param size requested page size (clamped to notification.page.max-size)
+     * @return "notifications" and "nextCursor" (null when there are no older notifications)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
     @Transactional(readOnly = true)
+    public Map<String, Object> getNotificationPage(Long userId, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<NotificationSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findSummaries(userId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = notificationRepository.findSummariesBefore(userId, position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<Map<String, Object>> notifications = new ArrayList<>(page.size());
+        for (NotificationSummary summary : page) {
+            notifications.add(convertToMap(summary));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("notifications", notifications);
+        if (hasMore) {
+            NotificationSummary last = page.get(page.size() - 1);
+            result.put("nextCursor", new PageCursor(last.createdAt(), last.id()).encode());
+        } else {
+            result.put("nextCursor", null);
+        }
+        return result;
+    }
+
+    /**
+     * Unread badge count, served from the Redis counter (see NotificationUnreadCounter).
+     */
     public Long getUnreadCount(Long userId) {
-        Users user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        Long count = notificationRepository.countByRecipientAndIsReadFalse(user);
-        return count != null ? Long.valueOf(count) : 0L;
+        return unreadCounter.get(userId);
     }
 
-    @CacheEvict(value = "unreadCount", key = "#result?.recipient?.id", beforeInvocation = false)
     @Transactional
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
-        evictUnreadCountCache(notification.getRecipient().getId());
-    }
-
-    @CacheEvict(value = "unreadCount", key = "#userId")
-    public void evictUnreadCountCache(Long userId) {
-        log.debug("Evicting unread count cache for user {}", userId);
+        Users recipient = notification.getRecipient();
+        Long recipientId = recipient.getId();
+        String recipientUsername = recipient.getUsername();
+        // Only the request whose UPDATE flipped the row lowers the counter; a concurrent one sees 0 rows
+        if (notificationRepository.markAsReadById(notificationId) == 1) {
+            unreadCounter.decrement(recipientId);
+            notificationPushService.read(recipientUsername, List.of(notificationId));
+        }
     }
 
-    @CacheEvict(value = "unreadCount", key = "#userId")
     @Transactional
     public void markAllAsRead(Long userId) {
         Users user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        List<Notification> unreadNotifications = notificationRepository.findByRecipientAndIsReadFalseOrderByCreatedAtDesc(user);
-        unreadNotifications.forEach(n -> n.setIsRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+        int marked = notificationRepository.markAllAsReadByRecipientId(userId);
+        unreadCounter.decrementBy(userId, marked);
+        notificationPushService.readAll(user.getUsername());
     }
 
     @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        Notification notification = notificationRepository.findById(notificationId).orElse(null);
+        if (notification == null) return;
+
+        boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
+        notificationRepository.delete(notification);
+        if (wasUnread) {
+            unreadCounter.decrement(notification.getRecipient().getId());
+        }
+        notificationPushService.deleted(notification.getRecipient().getUsername(), notificationId, wasUnread);
+    }
+
+    /**
+     * Removes the notifications about a post that is being deleted, keeping unread counters in step.
+     */
+    @Transactional
+    public void deleteNotificationsForPost(MedicalPost post) {
+        notificationRepository.findUnreadRecipientIdsByPost(post).forEach(unreadCounter::decrement);
+        notificationRepository.deleteByPost(post);
+    }
+
+    /**
+     * Removes the notifications about a comment that is being deleted, keeping unread counters in step.
+     */
+    @Transactional
+    public void deleteNotificationsForComment(MedicalPostComment comment) {
+        notificationRepository.findUnreadRecipientIdsByComment(comment).forEach(unreadCounter::decrement);
+        notificationRepository.deleteByComment(comment);
+    }
+
+    /**
+     * Resume handshake for a (re)connected WebSocket client.
+     *
+     * Pushes everything created or refreshed after {@code lastId} together with the exact unread count.
+     * "truncated" tells the client to reload through REST instead: on a cold start (no lastId), when the
+     * last notification it saw no longer exists, or when more changes are pending than fit in one reply.
+     */
+    @Transactional(readOnly = true)
+    public void resume(String username, Long lastId) {
+        Users user = userRepo.findByUsername(username).orElse(null);
+        if (user == null) return;
+
+        long unreadCount = unreadCounter.get(user.getId());
+        Notification last = lastId != null ? notificationRepository.findById(lastId).orElse(null) : null;
+        if (last == null || !last.getRecipient().getId().equals(user.getId())) {
+            notificationPushService.resumed(username, List.of(), unreadCount, true);
+            return;
+        }
+
+        List<Notification> changed = notificationRepository.findChangedSince(
+                user.getId(), lastId, last.getCreatedAt(), PageRequest.of(0, resumeLimit + 1));
+        boolean truncated = changed.size() > resumeLimit;
+
+        List<Map<String, Object>> notifications = new ArrayList<>();
+        for (Notification notification : truncated ? changed.subList(0, resumeLimit) : changed) {
+            notifications.add(convertToMap(notification));
+        }
+        notificationPushService.resumed(username, notifications, unreadCount, truncated);
+    }
+
+    // Same shape as convertToMap(Notification), with the post content cut down to a snippet
+    private Map<String, Object> convertToMap(NotificationSummary summary) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", summary.id());
+        map.put("type", summary.type().name());
+        map.put("message", summary.message());
+        map.put("isRead", summary.isRead());
+        map.put("createdAt", summary.createdAt().toString());
+        map.put("relatedEntityId", summary.relatedEntityId());
+        map.put("count", summary.aggregateCount() != null ? summary.aggregateCount() : 1);
+
+        Map<String, Object> actorMap = new HashMap<>();
+        actorMap.put("id", summary.actorId());
+        actorMap.put("firstName", summary.actorFirstName());
+        actorMap.put("lastName", summary.actorLastName());
+        actorMap.put("profilePicture", summary.actorProfilePicture());
+        map.put("actor", actorMap);
+
+        if (summary.postId() != null) {
+            String snippet = summary.postSnippet();
+            int shown = NotificationRepository.SNIPPET_QUERY_LENGTH - 1;
+            if (snippet != null && snippet.length() > shown) {
+                snippet = snippet.substring(0, shown) + "...";
+            }
+            Map<String, Object> postMap = new HashMap<>();
+            postMap.put("id", summary.postId());
+            postMap.put("content", snippet);
+            map.put("post", postMap);
+        }
+        return map;
+    }
+
+    /**
+     * Position of the last row of a page, handed to clients as an opaque URL-safe token.
+     */
+    private record PageCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                if (separator < 0) throw new IllegalArgumentException("Invalid notification cursor");
+                return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid notification cursor", e);
+            }
+        }
     }
 
     private Map<String, Object> convertToMap(Notification notification) {
@@ -321,6 +701,7 @@ public class NotificationService {
         map.put("isRead", notification.getIsRead());
         map.put("createdAt", notification.getCreatedAt().toString());
         map.put("relatedEntityId", notification.getRelatedEntityId());
+        map.put("count", notification.getAggregateCount() != null ? notification.getAggregateCount() : 1);
 
         Map<String, Object> actorMap = new HashMap<>();
         actorMap.put("id", notification.getActor().getId());
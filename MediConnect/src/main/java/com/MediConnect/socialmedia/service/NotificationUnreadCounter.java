@@ -0,0 +1,145 @@
+package com.MediConnect.socialmedia.service;
+
+import com.MediConnect.socialmedia.repository.NotificationRepository;
+import com.MediConnect.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-user unread notification counter kept in Redis (key notifications:unread:{userId}).
+ *
+ * Reads are a single GET. On a miss the count is rebuilt from the database once and stored with SET NX.
+ * Changes are applied with INCRBY/DECRBY after the surrounding transaction commits, and only while the
+ * key exists; a missing key is rebuilt from committed rows on the next read instead. Decrements never
+ * go below zero. Mark-read paths decrement by the rows their conditional UPDATE (is_read = false) actually
+ * changed, so concurrent mark-reads of the same row lower the counter once. The TTL bounds drift from a change that commits between a rebuild's COUNT and its SET NX.
+ *
+ * If Redis is unavailable, reads fall back to COUNT(*) and writes are skipped.
+ */
+@Slf4j
+@Component
+public class NotificationUnreadCounter {
+
+    private static final String KEY_PREFIX = "notifications:unread:";
+
+    // Adjusts an existing counter (clamped at 0); returns nil without creating the key when it is missing
+    private static final String ADJUST_IF_PRESENT_LUA =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end " +
+            "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "if value < 0 then redis.call('INCRBY', KEYS[1], -value) return 0 end " +
+            "return value";
+    private static final RedisScript<Long> ADJUST_IF_PRESENT = new DefaultRedisScript<>(ADJUST_IF_PRESENT_LUA, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationRepository notificationRepository;
+    private final Duration ttl;
+
+    public NotificationUnreadCounter(
+            StringRedisTemplate redisTemplate,
+            NotificationRepository notificationRepository,
+            @Value("${notification.unread-counter.ttl-minutes:60}") long ttlMinutes) {
+        this.redisTemplate = redisTemplate;
+        this.notificationRepository = notificationRepository;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    public long get(Long userId) {
+        String key = key(userId);
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            log.debug("Unread counter unavailable for user {}, counting in the database: {}", userId, e.getMessage());
+            return countInDatabase(userId);
+        }
+
+        long count = countInDatabase(userId);
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, Long.toString(count), ttl);
+        } catch (Exception e) {
+            log.debug("Failed to store unread counter for user {}: {}", userId, e.getMessage());
+        }
+        return count;
+    }
+
+    public void increment(Long userId) {
+        AfterCommit.run(() -> adjust(userId, 1));
+    }
+
+    public void decrement(Long userId) {
+        AfterCommit.run(() -> adjust(userId, -1));
+    }
+
+    /**
+     * Increments the counters of many users (e.g. an admin fan-out) in one pipelined round trip.
+     */
+    public void incrementAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        AfterCommit.run(() -> {
+            byte[] script = ADJUST_IF_PRESENT_LUA.getBytes(StandardCharsets.UTF_8);
+            byte[] delta = "1".getBytes(StandardCharsets.UTF_8);
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Long userId : userIds) {
+                        connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                                key(userId).getBytes(StandardCharsets.UTF_8), delta);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.debug("Failed to increment unread counters of {} users: {}", userIds.size(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Lowers the counter by the number of rows a bulk update marked read (e.g. "mark all as read"). Setting
+     * it to 0 instead would wipe the increment of a notification created after the update.
+     */
+    public void decrementBy(Long userId, int count) {
+        if (count <= 0) return;
+        AfterCommit.run(() -> adjust(userId, -count));
+    }
+
+    /**
+     * Drops the counter so the next read recounts committed rows (used after bulk deletes).
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            try {
+                redisTemplate.delete(key(userId));
+            } catch (Exception e) {
+                log.debug("Failed to invalidate unread counter for user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    private void adjust(Long userId, long delta) {
+        try {
+            redisTemplate.execute(ADJUST_IF_PRESENT, List.of(key(userId)), Long.toString(delta));
+        } catch (Exception e) {
+            log.debug("Failed to adjust unread counter for user {} by {}: {}", userId, delta, e.getMessage());
+        }
+    }
+
+    private long countInDatabase(Long userId) {
+        return notificationRepository.countByRecipientIdAndIsReadFalse(userId);
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,130 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes queued chat messages, coalesced channel activity and read receipts in JDBC batches.
+ *
+ * Uses plain JDBC instead of ChatMessageRepository.save so that a batch of N messages is a single
+ * round trip and no entities are loaded. Messages go in as one INSERT ... SELECT FROM unnest(arrays)
+ * rather than a JDBC batch because the driver reports no per-row counts for rewritten batches, and the
+ * caller needs to know which rows were skipped.
+ * Inserts skip rows whose (sender_id, client_message_id) already exists, which makes journal replay idempotent.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMessageBatchWriter {
+
+    private static final String INSERT_MESSAGES =
+            "INSERT INTO chat_messages (client_message_id, channel_id, sender_id, content, sent_at, is_read, is_deleted) " +
+            "SELECT m.client_message_id, m.channel_id, m.sender_id, m.content, m.sent_at, false, false " +
+            "FROM unnest(?::varchar[], ?::bigint[], ?::bigint[], ?::text[], ?::timestamp[]) " +
+            "AS m(client_message_id, channel_id, sender_id, content, sent_at) " +
+            "ON CONFLICT (sender_id, client_message_id) DO NOTHING " +
+            "RETURNING sender_id, client_message_id";
+
+    private static final String UPDATE_LAST_ACTIVITY =
+            "UPDATE chat_channels SET last_activity_at = ? WHERE id = ? AND last_activity_at < ?";
+
+    private static final String MARK_READ =
+            "UPDATE chat_messages SET is_read = true, read_at = ? " +
+            "WHERE channel_id = ? AND sender_id <> ? AND is_read = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Persists messages and channel activity in one transaction.
+     * Runs in its own transaction so callers inside a read-only transaction can still flush.
+     *
+     * @param messages      messages to insert, in acceptance order
+     * @param lastActivity  latest activity time per channel id (epoch millis)
+     * @return the messages that were not inserted because the sender already has a message with that client id
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<PendingChatMessage> write(List<PendingChatMessage> messages, Map<Long, Long> lastActivity) {
+        List<PendingChatMessage> skipped = messages.isEmpty() ? List.of() : insertMessages(messages);
+
+        if (!lastActivity.isEmpty()) {
+            List<Map.Entry<Long, Long>> updates = new ArrayList<>(lastActivity.entrySet());
+            jdbcTemplate.batchUpdate(UPDATE_LAST_ACTIVITY, updates, updates.size(), (ps, entry) -> {
+                Timestamp activityAt = new Timestamp(entry.getValue());
+                ps.setTimestamp(1, activityAt);
+                ps.setLong(2, entry.getKey());
+                ps.setTimestamp(3, activityAt);
+            });
+        }
+        return skipped;
+    }
+
+    private List<PendingChatMessage> insertMessages(List<PendingChatMessage> messages) {
+        int size = messages.size();
+        String[] clientMessageIds = new String[size];
+        Long[] channelIds = new Long[size];
+        Long[] senderIds = new Long[size];
+        String[] contents = new String[size];
+        Timestamp[] sentAts = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            PendingChatMessage message = messages.get(i);
+            clientMessageIds[i] = message.clientMessageId();
+            channelIds[i] = message.channelId();
+            senderIds[i] = message.senderId();
+            contents[i] = message.content();
+            sentAts[i] = new Timestamp(message.sentAtMillis());
+        }
+
+        List<String> insertedKeys = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_MESSAGES);
+            ps.setArray(1, con.createArrayOf("varchar", clientMessageIds));
+            ps.setArray(2, con.createArrayOf("bigint", channelIds));
+            ps.setArray(3, con.createArrayOf("bigint", senderIds));
+            ps.setArray(4, con.createArrayOf("text", contents));
+            ps.setArray(5, con.createArrayOf("timestamp", sentAts));
+            return ps;
+        }, (rs, rowNum) -> key(rs.getLong("sender_id"), rs.getString("client_message_id")));
+
+        if (insertedKeys.size() == size) return List.of();
+
+        // A key can appear twice in one batch; only its first occurrence was inserted
+        Set<String> inserted = new HashSet<>(insertedKeys);
+        List<PendingChatMessage> skipped = new ArrayList<>();
+        for (PendingChatMessage message : messages) {
+            if (!inserted.remove(key(message.senderId(), message.clientMessageId()))) {
+                skipped.add(message);
+            }
+        }
+        return skipped;
+    }
+
+    private static String key(long senderId, String clientMessageId) {
+        return senderId + ":" + clientMessageId;
+    }
+
+    /**
+     * Applies read marks in one JDBC batch: every message in the channel sent by the other participant
+     * and still unread becomes read.
+     *
+     * @param marks  channel/reader pairs
+     * @param readAt read timestamp to record
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markRead(List<ChatReadMark> marks, Timestamp readAt) {
+        if (marks.isEmpty()) return;
+        jdbcTemplate.batchUpdate(MARK_READ, marks, marks.size(), (ps, mark) -> {
+            ps.setTimestamp(1, readAt);
+            ps.setLong(2, mark.channelId());
+            ps.setLong(3, mark.userId());
+        });
+    }
+}
@@ -0,0 +1,195 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, segmented journal for chat messages that are queued but not yet persisted.
+ *
+ * Layout inside the journal directory:
+ * - active-{seq}.log : the segment currently receiving appends (one JSON line per message)
+ * - sealed-{seq}.log : a closed segment whose messages are being (or still need to be) written to the database
+ * - rejected-{date}.log : messages the database refused (e.g. their channel was deleted), kept for inspection
+ *   and never replayed
+ *
+ * A segment is deleted only after its messages are committed, so anything left on disk after a crash
+ * (sealed segments, or an active segment from the previous process) is replayed on startup.
+ * Inserts are idempotent on client_message_id, so replaying a segment twice is harmless.
+ *
+ * Not thread-safe on its own; {@link ChatWriteBehindBuffer} serialises access.
+ */
+@Slf4j
+public class ChatMessageJournal implements Closeable {
+
+    private static final String ACTIVE_PREFIX = "active-";
+    private static final String SEALED_PREFIX = "sealed-";
+    private static final String REJECTED_PREFIX = "rejected-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long sequence;
+    private Path activePath;
+    private FileChannel activeChannel;
+    private int activeEntries;
+
+    /**
+     * Opens the journal, sealing any active segment left behind by a previous process
+     * so that it is picked up by {@link #sealedSegments()}.
+     *
+     * @param directory directory holding the segments (created if missing)
+     * @param fsync     force every append to disk; without it appends survive a process crash but not power loss
+     */
+    public ChatMessageJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+
+        long maxSequence = 0;
+        for (Path file : listSegments()) {
+            maxSequence = Math.max(maxSequence, sequenceOf(file));
+            if (file.getFileName().toString().startsWith(ACTIVE_PREFIX)) {
+                Files.move(file, directory.resolve(SEALED_PREFIX + sequenceOf(file) + SUFFIX),
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        this.sequence = maxSequence;
+        openNewActiveSegment();
+    }
+
+    /**
+     * Appends one message to the active segment.
+     */
+    public void append(PendingChatMessage message) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+        if (fsync) {
+            activeChannel.force(false);
+        }
+        activeEntries++;
+    }
+
+    /**
+     * Closes the active segment and starts a new one.
+     *
+     * @return the sealed segment, or null if the active segment had no entries
+     */
+    public Path seal() throws IOException {
+        if (activeEntries == 0) {
+            return null;
+        }
+        activeChannel.force(false);
+        activeChannel.close();
+        Path sealed = directory.resolve(SEALED_PREFIX + sequence + SUFFIX);
+        Files.move(activePath, sealed, StandardCopyOption.ATOMIC_MOVE);
+        openNewActiveSegment();
+        return sealed;
+    }
+
+    /**
+     * @return all sealed segments on disk, oldest first
+     */
+    public List<Path> sealedSegments() throws IOException {
+        return listSegments().stream()
+                .filter(p -> p.getFileName().toString().startsWith(SEALED_PREFIX))
+                .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                .toList();
+    }
+
+    /**
+     * Reads every message in a segment. A torn trailing line (crash mid-append) is skipped,
+     * since the sender was never acknowledged for it.
+     */
+    public List<PendingChatMessage> read(Path segment) throws IOException {
+        List<PendingChatMessage> messages = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    messages.add(objectMapper.readValue(line, PendingChatMessage.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable chat journal entry in {}: {}", segment.getFileName(), e.getMessage());
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Records a message that can never be written, with the reason, in today's rejected file.
+     */
+    public void reject(PendingChatMessage message, String reason) throws IOException {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("message", message);
+        entry.put("reason", reason);
+        entry.put("rejectedAt", Instant.now().toString());
+        Path rejected = directory.resolve(REJECTED_PREFIX + LocalDate.now() + SUFFIX);
+        Files.write(rejected, (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Removes a segment once its messages are committed.
+     */
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (activeChannel != null && activeChannel.isOpen()) {
+            activeChannel.force(false);
+            activeChannel.close();
+        }
+        if (activeEntries == 0 && activePath != null) {
+            Files.deleteIfExists(activePath);
+        }
+    }
+
+    private void openNewActiveSegment() throws IOException {
+        sequence++;
+        activePath = directory.resolve(ACTIVE_PREFIX + sequence + SUFFIX);
+        activeChannel = FileChannel.open(activePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeEntries = 0;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.endsWith(SUFFIX) && (name.startsWith(ACTIVE_PREFIX) || name.startsWith(SEALED_PREFIX));
+            }).toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        String digits = name.substring(name.indexOf('-') + 1, name.length() - SUFFIX.length());
+        return Long.parseLong(digits);
+    }
+}
@@ -0,0 +1,61 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import com.MediConnect.socialmedia.dto.ChatChannelParticipants;
+import com.MediConnect.socialmedia.repository.ChatChannelRepository;
+import com.MediConnect.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Channel id -> participant ids, so sends, presence and subscriptions do not load the channel each time.
+ *
+ * The application never changes a channel's participants, but rows can still be changed or removed
+ * outside it, so entries expire after a TTL and can be evicted explicitly when a channel is written.
+ * Size is bounded by the number of patient-doctor pairs.
+ */
+@Component
+public class ChatParticipantCache {
+
+    private final ChatChannelRepository channelRepository;
+    private final long ttlMillis;
+
+    private final Map<Long, CachedParticipants> participants = new ConcurrentHashMap<>();
+
+    public ChatParticipantCache(
+            ChatChannelRepository channelRepository,
+            @Value("${chat.participants.cache-ttl-ms:600000}") long ttlMillis) {
+        this.channelRepository = channelRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @throws RuntimeException if the channel does not exist
+     */
+    public ChatChannelParticipants get(Long channelId) {
+        long now = System.currentTimeMillis();
+        CachedParticipants cached = participants.get(channelId);
+        if (cached != null && cached.expiresAt() >= now) {
+            return cached.participants();
+        }
+        ChatChannelParticipants loaded = channelRepository.findParticipantsById(channelId)
+                .orElseThrow(() -> {
+                    participants.remove(channelId);
+                    return new RuntimeException("Chat channel not found with ID: " + channelId);
+                });
+        participants.put(channelId, new CachedParticipants(loaded, now + ttlMillis));
+        return loaded;
+    }
+
+    /**
+     * Drops the cached participants once the surrounding transaction commits (immediately if there is none).
+     */
+    public void evictAfterCommit(Long channelId) {
+        AfterCommit.run(() -> participants.remove(channelId));
+    }
+
+    private record CachedParticipants(ChatChannelParticipants participants, long expiresAt) {
+    }
+}
@@ -0,0 +1,265 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.socialmedia.dto.ChatChannelParticipants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory chat presence: who is online, who is viewing which channel, and who is typing.
+ *
+ * State is driven by STOMP session events:
+ * - CONNECT / DISCONNECT: online status (a user is online while at least one session is open)
+ * - SUBSCRIBE / UNSUBSCRIBE to /topic/chat/{channelId}: the user is "viewing" that channel
+ *
+ * Changes are broadcast to /topic/chat/{channelId}/presence:
+ * - {"type": "viewing", "userId", "viewing": true|false}
+ * - {"type": "typing", "userId", "typing": true|false}   (throttled; auto-stops after inactivity)
+ *
+ * Opening a channel also records a read mark with {@link ReadReceiptBatcher}.
+ *
+ * Kept in process memory because the STOMP broker is the in-memory simple broker, which is
+ * single-node as well; both would move to a shared store together.
+ */
+@Slf4j
+@Service
+public class ChatPresenceService {
+
+    private static final Pattern CHAT_TOPIC = Pattern.compile("^/topic/chat/(\\d+)$");
+
+    private final ChatParticipantCache participantCache;
+    private final ReadReceiptBatcher readReceiptBatcher;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserRepo userRepo;
+    private final long typingThrottleMillis;
+    private final long typingTimeoutMillis;
+
+    // STOMP session id -> session state
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    // User id -> open STOMP session ids
+    private final Map<Long, Set<String>> userSessions = new ConcurrentHashMap<>();
+
+    // (channel, user) -> last typing signal / last typing broadcast (epoch millis)
+    private final Map<TypingKey, TypingState> typing = new ConcurrentHashMap<>();
+
+    // Username (STOMP principal name) -> user id
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+
+    public ChatPresenceService(
+            ChatParticipantCache participantCache,
+            ReadReceiptBatcher readReceiptBatcher,
+            SimpMessagingTemplate messagingTemplate,
+            UserRepo userRepo,
+            @Value("${chat.presence.typing-throttle-ms:2000}") long typingThrottleMillis,
+            @Value("${chat.presence.typing-timeout-ms:5000}") long typingTimeoutMillis) {
+        this.participantCache = participantCache;
+        this.readReceiptBatcher = readReceiptBatcher;
+        this.messagingTemplate = messagingTemplate;
+        this.userRepo = userRepo;
+        this.typingThrottleMillis = typingThrottleMillis;
+        this.typingTimeoutMillis = typingTimeoutMillis;
+    }
+
+    // --- QUERIES ---
+
+    public boolean isOnline(Long userId) {
+        Set<String> open = userSessions.get(userId);
+        return open != null && !open.isEmpty();
+    }
+
+    /**
+     * @return true if the user currently has the channel open (subscribed to its topic) in any session
+     */
+    public boolean isViewing(Long userId, Long channelId) {
+        Set<String> open = userSessions.get(userId);
+        if (open == null) return false;
+        for (String sessionId : open) {
+            SessionState state = sessions.get(sessionId);
+            if (state != null && state.subscriptions().containsValue(channelId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- SIGNALS ---
+
+    /**
+     * Typing signal from a participant. Broadcast at most once per throttle interval; a
+     * "typing: false" follows automatically once signals stop.
+     */
+    public void typing(String username, Long channelId) {
+        Long userId = resolveUserId(username);
+        if (userId == null || !participantCache.get(channelId).isParticipant(userId)) return;
+
+        long now = System.currentTimeMillis();
+        TypingKey key = new TypingKey(channelId, userId);
+        TypingState previous = typing.get(key);
+        boolean broadcast = previous == null || now - previous.lastBroadcastAt() >= typingThrottleMillis;
+        typing.put(key, new TypingState(now, broadcast ? now : previous.lastBroadcastAt()));
+        if (broadcast) {
+            broadcastTyping(channelId, userId, true);
+        }
+    }
+
+    /**
+     * A message from the user ends their typing indicator; if the recipient is viewing the channel,
+     * the message is read immediately.
+     */
+    public void onMessageSent(Long channelId, Long senderId, Long recipientId) {
+        if (typing.remove(new TypingKey(channelId, senderId)) != null) {
+            broadcastTyping(channelId, senderId, false);
+        }
+        if (isViewing(recipientId, channelId)) {
+            readReceiptBatcher.markRead(channelId, recipientId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.typing-sweep-ms:1000}")
+    public void expireTyping() {
+        long cutoff = System.currentTimeMillis() - typingTimeoutMillis;
+        for (Map.Entry<TypingKey, TypingState> entry : typing.entrySet()) {
+            if (entry.getValue().lastSignalAt() < cutoff && typing.remove(entry.getKey(), entry.getValue())) {
+                broadcastTyping(entry.getKey().channelId(), entry.getKey().userId(), false);
+            }
+        }
+    }
+
+    // --- SESSION EVENTS ---
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = resolveUserId(event.getUser());
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (userId == null || sessionId == null) return;
+
+        sessions.put(sessionId, new SessionState(userId, new ConcurrentHashMap<>()));
+        userSessions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionState state = sessions.remove(event.getSessionId());
+        if (state == null) return;
+
+        userSessions.computeIfPresent(state.userId(), (id, open) -> {
+            open.remove(event.getSessionId());
+            return open.isEmpty() ? null : open;
+        });
+        for (Long channelId : state.subscriptions().values()) {
+            onStoppedViewing(state.userId(), channelId);
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long channelId = parseChatChannel(accessor.getDestination());
+        SessionState state = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (channelId == null || state == null || accessor.getSubscriptionId() == null) return;
+
+        ChatChannelParticipants participants;
+        try {
+            participants = participantCache.get(channelId);
+        } catch (RuntimeException e) {
+            return;
+        }
+        if (!participants.isParticipant(state.userId())) return;
+
+        boolean wasViewing = isViewing(state.userId(), channelId);
+        state.subscriptions().put(accessor.getSubscriptionId(), channelId);
+        readReceiptBatcher.markRead(channelId, state.userId());
+        if (!wasViewing) {
+            broadcastViewing(channelId, state.userId(), true);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        SessionState state = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (state == null || accessor.getSubscriptionId() == null) return;
+
+        Long channelId = state.subscriptions().remove(accessor.getSubscriptionId());
+        if (channelId != null) {
+            onStoppedViewing(state.userId(), channelId);
+        }
+    }
+
+    // --- HELPERS ---
+
+    private void onStoppedViewing(Long userId, Long channelId) {
+        if (!isViewing(userId, channelId)) {
+            broadcastViewing(channelId, userId, false);
+        }
+        if (typing.remove(new TypingKey(channelId, userId)) != null) {
+            broadcastTyping(channelId, userId, false);
+        }
+    }
+
+    private void broadcastViewing(Long channelId, Long userId, boolean viewing) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "viewing");
+        event.put("userId", userId);
+        event.put("viewing", viewing);
+        send(channelId, event);
+    }
+
+    private void broadcastTyping(Long channelId, Long userId, boolean isTyping) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "typing");
+        event.put("userId", userId);
+        event.put("typing", isTyping);
+        send(channelId, event);
+    }
+
+    private void send(Long channelId, Map<String, Object> event) {
+        try {
+            messagingTemplate.convertAndSend("/topic/chat/" + channelId + "/presence", event);
+        } catch (Exception e) {
+            log.debug("Failed to broadcast presence event to channel {}: {}", channelId, e.getMessage());
+        }
+    }
+
+    private Long resolveUserId(Principal principal) {
+        return principal != null ? resolveUserId(principal.getName()) : null;
+    }
+
+    private Long resolveUserId(String username) {
+        if (username == null) return null;
+        return userIds.computeIfAbsent(username, name -> userRepo.findIdByUsername(name).orElse(null));
+    }
+
+    private static Long parseChatChannel(String destination) {
+        if (destination == null) return null;
+        Matcher matcher = CHAT_TOPIC.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private record SessionState(Long userId, Map<String, Long> subscriptions) {
+    }
+
+    private record TypingKey(Long channelId, Long userId) {
+    }
+
+    private record TypingState(long lastSignalAt, long lastBroadcastAt) {
+    }
+}
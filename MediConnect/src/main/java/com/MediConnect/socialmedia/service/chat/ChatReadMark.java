@@ -0,0 +1,7 @@
+package com.MediConnect.socialmedia.service.chat;
+
+/**
+ * "User has read everything in this channel up to now", waiting to be applied by {@link ReadReceiptBatcher}.
+ */
+public record ChatReadMark(Long channelId, Long userId) {
+}
@@ -0,0 +1,295 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for chat messages.
+ *
+ * ChatService acknowledges and broadcasts a message as soon as it is accepted here; the message is
+ * then persisted by a scheduled flush in JDBC batches together with one coalesced lastActivityAt
+ * update per channel (instead of a channel save + message save per message).
+ *
+ * Durability:
+ * - Every accepted message is appended to a local {@link ChatMessageJournal} before it is acknowledged,
+ *   and the journal segment is only deleted after the batch commits. Segments left behind by a crash
+ *   or a failed flush are replayed on startup / the next flush.
+ * - A message the database refuses (constraint or data error, e.g. its channel or sender was deleted) must
+ *   not hold back the others: a chunk that fails that way is retried message by message, and messages that
+ *   still fail are logged and recorded in the journal's rejected file. Any other failure (database down)
+ *   leaves the segment for the next flush.
+ * - The queue is bounded. When it is full the message is written synchronously on the caller's thread
+ *   (backpressure) rather than dropped.
+ * - On shutdown the queue is drained before the data source goes away.
+ */
+@Slf4j
+@Component
+public class ChatWriteBehindBuffer {
+
+    private final ChatMessageBatchWriter batchWriter;
+    private final BlockingQueue<PendingChatMessage> queue;
+    private final int batchSize;
+    private final ChatMessageJournal journal;
+
+    // Latest activity time per channel, coalesced between flushes
+    private final Map<Long, Long> pendingActivity = new ConcurrentHashMap<>();
+
+    // Guards queue + journal so a drained batch always matches exactly one sealed segment
+    private final Object appendLock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile boolean ready = false;
+    private volatile boolean recoveryPending;
+
+    public ChatWriteBehindBuffer(
+            ChatMessageBatchWriter batchWriter,
+            @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.write-behind.batch-size:500}") int batchSize,
+            @Value("${chat.write-behind.journal.enabled:true}") boolean journalEnabled,
+            @Value("${chat.write-behind.journal.directory:data/chat-journal}") String journalDirectory,
+            @Value("${chat.write-behind.journal.fsync:false}") boolean journalFsync) {
+        this.batchWriter = batchWriter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        if (journalEnabled) {
+            Path directory = Paths.get(journalDirectory);
+            try {
+                this.journal = new ChatMessageJournal(directory, journalFsync);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to open chat journal at " + directory.toAbsolutePath(), e);
+            }
+            this.recoveryPending = true;
+        } else {
+            this.journal = null;
+            this.recoveryPending = false;
+        }
+    }
+
+    /**
+     * Accepts a message for persistence. Returns once the message is journaled (or, under backpressure,
+     * committed), so the caller may acknowledge it to the client.
+     */
+    public void enqueue(PendingChatMessage message) {
+        boolean queued;
+        synchronized (appendLock) {
+            queued = queue.offer(message);
+            if (queued && journal != null) {
+                try {
+                    journal.append(message);
+                } catch (IOException e) {
+                    // Fall back to a synchronous write rather than acknowledging an unjournaled message
+                    log.warn("Chat journal append failed, writing message {} synchronously: {}",
+                            message.clientMessageId(), e.getMessage());
+                    queue.remove(message);
+                    queued = false;
+                }
+            }
+        }
+
+        if (queued) {
+            pendingActivity.merge(message.channelId(), message.sentAtMillis(), Math::max);
+        } else {
+            reportSkipped(batchWriter.write(List.of(message), Map.of(message.channelId(), message.sentAtMillis())));
+        }
+    }
+
+    /**
+     * Periodic flush; the interval bounds how long a message stays only in memory/journal.
+     */
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Writes everything accepted so far. Also called before reading a channel's history
+     * so a user always sees their own messages.
+     */
+    public void flush() {
+        if (!ready) return;
+
+        flushLock.lock();
+        try {
+            if (recoveryPending) {
+                recoverSealedSegments();
+            }
+
+            List<PendingChatMessage> batch = new ArrayList<>();
+            Path segment = null;
+            synchronized (appendLock) {
+                queue.drainTo(batch);
+                if (journal != null && !batch.isEmpty()) {
+                    try {
+                        segment = journal.seal();
+                    } catch (IOException e) {
+                        // Entries stay in the active segment and are removed with a later batch
+                        log.warn("Failed to seal chat journal segment: {}", e.getMessage());
+                    }
+                }
+            }
+            Map<Long, Long> activity = drainPendingActivity();
+            if (batch.isEmpty() && activity.isEmpty()) return;
+
+            try {
+                writeInChunks(batch, activity);
+                if (segment != null) {
+                    journal.delete(segment);
+                }
+                log.debug("Flushed {} chat messages, {} channel activity updates", batch.size(), activity.size());
+            } catch (IOException | RuntimeException e) {
+                log.error("Chat write-behind flush of {} messages failed: {}", batch.size(), e.getMessage(), e);
+                activity.forEach((channelId, at) -> pendingActivity.merge(channelId, at, Math::max));
+                if (segment != null) {
+                    // The sealed segment is still on disk; replay it on the next flush
+                    recoveryPending = true;
+                } else {
+                    requeue(batch);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of messages accepted but not yet flushed
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Schema patches (client_message_id unique index) have run by now
+        ready = true;
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Failed to close chat journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void recoverSealedSegments() {
+        try {
+            for (Path segment : journal.sealedSegments()) {
+                List<PendingChatMessage> messages = journal.read(segment);
+                Map<Long, Long> activity = new HashMap<>();
+                for (PendingChatMessage message : messages) {
+                    activity.merge(message.channelId(), message.sentAtMillis(), Math::max);
+                }
+                writeInChunks(messages, activity);
+                journal.delete(segment);
+                log.info("Recovered {} chat messages from journal segment {}", messages.size(), segment.getFileName());
+            }
+            recoveryPending = false;
+        } catch (IOException | RuntimeException e) {
+            log.error("Chat journal recovery failed, will retry on next flush: {}", e.getMessage(), e);
+        }
+    }
+
+    private void writeInChunks(List<PendingChatMessage> messages, Map<Long, Long> activity) {
+        if (messages.isEmpty()) {
+            batchWriter.write(messages, activity);
+            return;
+        }
+        for (int from = 0; from < messages.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, messages.size());
+            // Channel activity goes with the last chunk so it never runs ahead of the messages
+            Map<Long, Long> chunkActivity = to == messages.size() ? activity : Map.of();
+            List<PendingChatMessage> chunk = messages.subList(from, to);
+            try {
+                reportSkipped(batchWriter.write(chunk, chunkActivity));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Writing {} chat messages as a batch failed, retrying one by one: {}", chunk.size(), e.getMessage());
+                writeOneByOne(chunk, chunkActivity);
+            }
+        }
+    }
+
+    private void writeOneByOne(List<PendingChatMessage> messages, Map<Long, Long> activity) {
+        for (PendingChatMessage message : messages) {
+            try {
+                reportSkipped(batchWriter.write(List.of(message), Map.of()));
+            } catch (DataIntegrityViolationException e) {
+                reject(message, e);
+            }
+        }
+        if (!activity.isEmpty()) {
+            batchWriter.write(List.of(), activity);
+        }
+    }
+
+    /**
+     * A skipped message is either a journal replay of one that was already committed or a client reusing
+     * one of its own message ids; either way it was acknowledged but is not stored under this send.
+     */
+    private void reportSkipped(List<PendingChatMessage> skipped) {
+        if (skipped == null || skipped.isEmpty()) return;
+        log.warn("{} chat messages not inserted, their sender already has a message with the same client id: {}",
+                skipped.size(), skipped.stream()
+                        .map(message -> message.senderId() + "/" + message.clientMessageId())
+                        .toList());
+    }
+
+    private void reject(PendingChatMessage message, DataIntegrityViolationException cause) {
+        String reason = cause.getMostSpecificCause().getMessage();
+        log.error("Discarding chat message {} (channel {}, sender {}) refused by the database: {}",
+                message.clientMessageId(), message.channelId(), message.senderId(), reason);
+        if (journal == null) return;
+        try {
+            journal.reject(message, reason);
+        } catch (IOException e) {
+            log.warn("Could not record rejected chat message {}: {}", message.clientMessageId(), e.getMessage());
+        }
+    }
+
+    private Map<Long, Long> drainPendingActivity() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Long channelId : pendingActivity.keySet()) {
+            Long at = pendingActivity.remove(channelId);
+            if (at != null) {
+                drained.put(channelId, at);
+            }
+        }
+        return drained;
+    }
+
+    private void requeue(List<PendingChatMessage> batch) {
+        int dropped = 0;
+        for (PendingChatMessage message : batch) {
+            if (!queue.offer(message)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.error("Chat write-behind queue full while retrying, {} messages dropped", dropped);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.MediConnect.socialmedia.service.chat;
+
+/**
+ * A chat message that has been acknowledged and broadcast but not yet written to chat_messages.
+ *
+ * Kept deliberately flat (ids and epoch millis only) so it can be journaled as a single JSON line
+ * and replayed after a crash without touching any JPA entity.
+ *
+ * @param clientMessageId client-generated id, unique per message; makes inserts idempotent on replay
+ * @param channelId       chat channel the message belongs to
+ * @param senderId        id of the patient or doctor who sent it
+ * @param content         message text
+ * @param sentAtMillis    acceptance time in epoch milliseconds (becomes sent_at)
+ */
+public record PendingChatMessage(
+        String clientMessageId,
+        Long channelId,
+        Long senderId,
+        String content,
+        long sentAtMillis
+) {
+}
@@ -0,0 +1,84 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batches chat read receipts.
+ *
+ * Opening a channel (REST or subscribing to its topic) and receiving a message while viewing a channel
+ * only record a {@link ChatReadMark}. A periodic flush applies all marks in one JDBC batch and then
+ * broadcasts a "read" event to /topic/chat/{channelId}/presence so the sender sees the receipt.
+ * Repeated opens of the same channel between flushes collapse into one UPDATE.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadReceiptBatcher {
+
+    private final ChatMessageBatchWriter batchWriter;
+    private final ChatWriteBehindBuffer writeBehindBuffer;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Set<ChatReadMark> pending = ConcurrentHashMap.newKeySet();
+
+    public void markRead(Long channelId, Long userId) {
+        pending.add(new ChatReadMark(channelId, userId));
+    }
+
+    /**
+     * @return true if the user has opened the channel and the read mark is not yet applied
+     *         (their unread count for it is effectively zero)
+     */
+    public boolean isPending(Long channelId, Long userId) {
+        return pending.contains(new ChatReadMark(channelId, userId));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-receipts.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<ChatReadMark> marks = new ArrayList<>();
+        for (ChatReadMark mark : pending) {
+            if (pending.remove(mark)) {
+                marks.add(mark);
+            }
+        }
+        if (marks.isEmpty()) return;
+
+        // Messages still in the write-behind queue must exist before they can be marked read
+        writeBehindBuffer.flush();
+
+        Timestamp readAt = new Timestamp(System.currentTimeMillis());
+        try {
+            batchWriter.markRead(marks, readAt);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply {} chat read receipts: {}", marks.size(), e.getMessage());
+            pending.addAll(marks);
+            return;
+        }
+
+        for (ChatReadMark mark : marks) {
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", "read");
+            event.put("userId", mark.userId());
+            event.put("readAt", readAt.toInstant().toString());
+            try {
+                messagingTemplate.convertAndSend("/topic/chat/" + mark.channelId() + "/presence", event);
+            } catch (Exception e) {
+                log.debug("Failed to broadcast read receipt for channel {}: {}", mark.channelId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -39,7 +39,6 @@ public class MedicalPostCommentServiceImpl implements MedicalPostCommentService
     private final CommentReplyLikeRepository commentReplyLikeRepository;
     private final UserRepo userRepo;
     private final NotificationService notificationService;
-    private final NotificationRepository notificationRepository;
 
     /**
      * Creates a new comment on a medical post.
@@ -177,7 +176,7 @@ public class MedicalPostCommentServiceImpl implements MedicalPostCommentService
         }
         
         // Remove notifications tied to this comment before deleting (to avoid foreign key constraint violation)
-        notificationRepository.deleteByComment(comment);
+        notificationService.deleteNotificationsForComment(comment);
         
         // Delete comment (cascade will handle related likes and replies)
         medicalPostCommentRepository.delete(comment);
@@ -204,7 +203,7 @@ public class MedicalPostCommentServiceImpl implements MedicalPostCommentService
                 });
 
         // Remove notifications tied to this comment before deleting
-        notificationRepository.deleteByComment(comment);
+        notificationService.deleteNotificationsForComment(comment);
 
         // Delete comment (cascade will handle related likes and replies)
         medicalPostCommentRepository.delete(comment);
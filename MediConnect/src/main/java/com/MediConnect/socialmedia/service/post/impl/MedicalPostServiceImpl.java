@@ -15,7 +15,6 @@ import com.MediConnect.socialmedia.repository.MedicalPostRepository;
 import com.MediConnect.socialmedia.repository.MedicalPostLikeRepository;
 import com.MediConnect.socialmedia.repository.MedicalPostCommentRepository;
 import com.MediConnect.socialmedia.repository.MedicalPostReportRepository;
-import com.MediConnect.socialmedia.repository.NotificationRepository;
 import com.MediConnect.socialmedia.service.post.dto.AdminPostFilter;
 import com.MediConnect.socialmedia.service.NotificationService;
 import com.MediConnect.socialmedia.service.post.MedicalPostService;
@@ -55,7 +54,6 @@ public class MedicalPostServiceImpl implements MedicalPostService {
     private final MedicalPostCommentRepository medicalPostCommentRepository;
     private final UserRepo userRepo;
     private final NotificationService notificationService;
-    private final NotificationRepository notificationRepository;
     private final MedicalPostReportRepository medicalPostReportRepository;
 
     @Override
@@ -1010,12 +1008,12 @@ public class MedicalPostServiceImpl implements MedicalPostService {
 
     private void removePostWithDependencies(MedicalPost post) {
         // Delete notifications related to the post
-        notificationRepository.deleteByPost(post);
+        notificationService.deleteNotificationsForPost(post);
 
         // Delete notifications related to comments
         if (post.getComments() != null && !post.getComments().isEmpty()) {
             for (com.MediConnect.socialmedia.entity.MedicalPostComment comment : post.getComments()) {
-                notificationRepository.deleteByComment(comment);
+                notificationService.deleteNotificationsForComment(comment);
             }
         }
 
@@ -0,0 +1,68 @@
+package com.MediConnect.socialmedia.videorelated;
+
+import com.MediConnect.EntryRelated.dto.appointment.VideoCallParticipants;
+import com.MediConnect.EntryRelated.repository.AppointmentRepository;
+import com.MediConnect.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches who may signal on an appointment's video call.
+ *
+ * Call setup sends dozens of SDP/ICE signals within a few seconds; only the first one per call
+ * hits the database. Entries expire after a short TTL and are evicted when the doctor starts or
+ * ends the call, so a stale "active" state cannot outlive the call.
+ */
+@Component
+public class VideoCallAuthorizationCache {
+
+    private final AppointmentRepository appointmentRepository;
+    private final long ttlMillis;
+
+    private final Map<Integer, CachedCall> calls = new ConcurrentHashMap<>();
+
+    public VideoCallAuthorizationCache(
+            AppointmentRepository appointmentRepository,
+            @Value("${video.signaling.authorization-ttl-ms:30000}") long ttlMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return the call's participants if {@code username} takes part in it and the call is active
+     * @throws RuntimeException if the appointment does not exist, the call is not active, or the user is not a participant
+     */
+    public VideoCallParticipants authorize(Integer appointmentId, String username) {
+        long now = System.currentTimeMillis();
+        CachedCall cached = calls.get(appointmentId);
+        if (cached == null || cached.expiresAt() < now) {
+            VideoCallParticipants loaded = appointmentRepository.findVideoCallParticipants(appointmentId)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found"));
+            cached = new CachedCall(loaded, now + ttlMillis);
+            calls.put(appointmentId, cached);
+        }
+
+        VideoCallParticipants participants = cached.participants();
+        if (!Boolean.TRUE.equals(participants.callActive())) {
+            throw new RuntimeException("Video call is not active for appointment " + appointmentId);
+        }
+        if (!participants.isParticipant(username)) {
+            throw new RuntimeException("User " + username + " is not a participant of appointment " + appointmentId);
+        }
+        return participants;
+    }
+
+    /**
+     * Drops the cached state once the surrounding transaction commits (immediately if there is none),
+     * so the next signal sees the new isCallActive value.
+     */
+    public void evictAfterCommit(Integer appointmentId) {
+        AfterCommit.run(() -> calls.remove(appointmentId));
+    }
+
+    private record CachedCall(VideoCallParticipants participants, long expiresAt) {
+    }
+}
@@ -4,13 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class VideoSignal {
-    private String type;      // "offer", "answer", or "ice-candidate"
+    private String type;      // "offer", "answer", "ice-candidate" or "ice-candidates" (server-side batch)
     private String sdp;       // Session Description Protocol (Connection technical details)
     private Object candidate; // Network candidate details
     private String sender;    // Who sent this? (e.g., "doctor" or "patient")
     private String recipient; // Who should receive this?
+    private List<Object> candidates; // Batched candidates for "ice-candidates"
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.MediConnect.socialmedia.videorelated;
+
+import com.MediConnect.EntryRelated.dto.appointment.VideoCallParticipants;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point WebRTC signaling between the two participants of a video appointment.
+ *
+ * Each signal is delivered only to the other participant's user queue
+ * (/user/queue/video/{appointmentId}) instead of being broadcast to every subscriber of a topic,
+ * so clients no longer receive (and filter out) their own echoes.
+ *
+ * ICE candidates arrive in quick bursts during call setup; candidates from the same sender are held
+ * for a few milliseconds and delivered as one "ice-candidates" signal carrying a list. Any pending
+ * candidates are flushed before an offer/answer from the same sender so ordering is preserved.
+ */
+@Slf4j
+@Service
+public class VideoSignalingService {
+
+    static final String ICE_CANDIDATE = "ice-candidate";
+    static final String ICE_CANDIDATES = "ice-candidates";
+
+    private final VideoCallAuthorizationCache authorizationCache;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long iceCoalesceMillis;
+
+    // (appointment, sender) -> candidates waiting to be delivered
+    private final Map<IceKey, PendingIce> pendingIce = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService iceFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "video-ice-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public VideoSignalingService(
+            VideoCallAuthorizationCache authorizationCache,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${video.signaling.ice-coalesce-ms:30}") long iceCoalesceMillis) {
+        this.authorizationCache = authorizationCache;
+        this.messagingTemplate = messagingTemplate;
+        this.iceCoalesceMillis = iceCoalesceMillis;
+    }
+
+    /**
+     * Relays a signal from {@code username} to the other participant of the appointment.
+     *
+     * @throws RuntimeException if the sender is not allowed to signal on this call
+     */
+    public void relay(Integer appointmentId, String username, VideoSignal signal) {
+        VideoCallParticipants participants = authorizationCache.authorize(appointmentId, username);
+        String recipient = participants.otherParticipant(username);
+
+        // Enforce that the sender/recipient fields match the authenticated users
+        signal.setSender(username);
+        signal.setRecipient(recipient);
+
+        IceKey key = new IceKey(appointmentId, username);
+        if (ICE_CANDIDATE.equals(signal.getType()) && iceCoalesceMillis > 0) {
+            boolean[] first = {false};
+            pendingIce.compute(key, (k, pending) -> {
+                PendingIce next = pending;
+                if (next == null) {
+                    next = new PendingIce(recipient, new ArrayList<>());
+                    first[0] = true;
+                }
+                next.candidates().add(signal.getCandidate());
+                return next;
+            });
+            if (first[0]) {
+                iceFlusher.schedule(() -> flushIce(key), iceCoalesceMillis, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+
+        flushIce(key);
+        send(appointmentId, recipient, signal);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        iceFlusher.shutdownNow();
+    }
+
+    private void flushIce(IceKey key) {
+        PendingIce pending = pendingIce.remove(key);
+        if (pending == null || pending.candidates().isEmpty()) return;
+
+        VideoSignal batch = new VideoSignal();
+        batch.setType(ICE_CANDIDATES);
+        batch.setCandidates(pending.candidates());
+        batch.setSender(key.sender());
+        batch.setRecipient(pending.recipient());
+        send(key.appointmentId(), pending.recipient(), batch);
+    }
+
+    private void send(Integer appointmentId, String recipient, VideoSignal signal) {
+        messagingTemplate.convertAndSendToUser(recipient, "/queue/video/" + appointmentId, signal);
+        log.debug("Video signal [{}] for appointment {} from {} to {}",
+                signal.getType(), appointmentId, signal.getSender(), recipient);
+    }
+
+    private record IceKey(Integer appointmentId, String sender) {
+    }
+
+    private record PendingIce(String recipient, List<Object> candidates) {
+    }
+}
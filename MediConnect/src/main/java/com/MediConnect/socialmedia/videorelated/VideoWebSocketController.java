@@ -5,7 +5,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -15,29 +14,29 @@ import java.security.Principal;
 @Slf4j
 public class VideoWebSocketController {
 
+    private final VideoSignalingService videoSignalingService;
+
     /**
      * Endpoint: /app/video/{appointmentId}
-     * Broadcasts to: /topic/video/{appointmentId}
-     * * Handles: "offer", "answer", "ice-candidate"
+     * Delivers to the other participant only: /user/queue/video/{appointmentId}
+     * * Handles: "offer", "answer", "ice-candidate" (ICE is delivered batched as "ice-candidates")
      */
     @MessageMapping("/video/{appointmentId}")
-    @SendTo("/topic/video/{appointmentId}")
-    public VideoSignal handleVideoSignal(
-            @DestinationVariable String appointmentId,
+    public void handleVideoSignal(
+            @DestinationVariable Integer appointmentId,
             @Payload VideoSignal signal,
             Principal principal
     ) {
-        // Enforce that the 'sender' field matches the authenticated user
-        // This prevents logic errors on the frontend
-        if (principal != null) {
-            signal.setSender(principal.getName());
+        if (principal == null) {
+            log.warn("Dropping unauthenticated video signal for appointment {}", appointmentId);
+            return;
         }
 
-        log.info("Video Signal [{}] for Appointment {} from {}",
-                signal.getType(), appointmentId, signal.getSender());
-
-        // The frontend subscribes to this topic.
-        // Frontend Logic: "If signal.sender === myUsername, ignore. Else, process."
-        return signal;
+        try {
+            videoSignalingService.relay(appointmentId, principal.getName(), signal);
+        } catch (RuntimeException e) {
+            log.warn("Dropping video signal [{}] for appointment {} from {}: {}",
+                    signal.getType(), appointmentId, principal.getName(), e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
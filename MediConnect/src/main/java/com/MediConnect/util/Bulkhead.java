@@ -0,0 +1,95 @@
+package com.MediConnect.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent calls to one external dependency (Cloudinary, OpenAI).
+ *
+ * Cheap threads (virtual or an async request) make it easy to open far more connections to a slow
+ * dependency than it can serve; callers beyond the limit wait up to {@code maxWait} for a permit and
+ * then fail fast with {@link BulkheadFullException} instead of piling up.
+ *
+ * Publishes dependency.bulkhead.available (free permits) tagged with the dependency name.
+ */
+public class Bulkhead {
+
+    /**
+     * Answered with 503 and Retry-After by BulkheadFullExceptionHandler.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class BulkheadFullException extends RuntimeException {
+        private final Duration retryAfter;
+
+        public BulkheadFullException(String message) {
+            this(message, Duration.ofSeconds(1));
+        }
+
+        public BulkheadFullException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    @FunctionalInterface
+    public interface IoCall<T> {
+        T call() throws Exception;
+    }
+
+    private final String name;
+    private final Semaphore permits;
+    private final Duration maxWait;
+
+    public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.maxWait = maxWait;
+        Gauge.builder("dependency.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Free concurrent-call permits toward an external dependency")
+                .tag("dependency", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} while holding a permit. Checked exceptions from the call are rethrown unchanged.
+     *
+     * @throws BulkheadFullException if no permit became free within the configured wait
+     */
+    public <T> T call(IoCall<T> call) throws Exception {
+        if (!permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new BulkheadFullException(name + " is busy, please try again shortly", maxWait);
+        }
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Variant of {@link #call} for code that throws no checked exceptions.
+     */
+    public <T> T callUnchecked(Callable<T> call) {
+        try {
+            return call(call::call);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name, e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
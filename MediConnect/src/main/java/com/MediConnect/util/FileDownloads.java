@@ -0,0 +1,74 @@
+package com.MediConnect.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+
+/**
+ * Download responses for stored documents: strong ETag, Cache-Control, conditional GET and byte ranges.
+ *
+ * A request whose If-None-Match matches gets a 304 without the document being opened. Range requests are
+ * answered with 206 by Spring MVC, which writes only the requested regions of the Resource, so PDF viewers
+ * can fetch pages incrementally. A full GET of a file on disk is handed to Tomcat's sendfile, which copies it
+ * to the socket with FileChannel.transferTo instead of through a heap buffer; other resources are streamed.
+ */
+public final class FileDownloads {
+
+    /** Documents are private to the user, and always revalidated so a replaced or deleted one is not served. */
+    public static final CacheControl PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileDownloads() {
+    }
+
+    /**
+     * @param etag strong validator of the content (e.g. its hash), or null if none is known. Documents still
+     *             served from the legacy BYTEA columns have no blob key yet, so they get no ETag and every GET
+     *             is answered in full until LegacyBlobMigrationJob has moved them
+     * @return the response, or null if a 304 was already written
+     */
+    public static ResponseEntity<Resource> serve(HttpServletRequest request, HttpServletResponse response,
+                                                 Resource content, String etag, MediaType contentType,
+                                                 String contentDisposition) throws IOException {
+        if (etag != null && new ServletWebRequest(request, response).checkNotModified(etag)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, PRIVATE_REVALIDATE.getHeaderValue());
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(contentType)
+                .cacheControl(PRIVATE_REVALIDATE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+
+        if (canSendfile(request, content)) {
+            long length = content.contentLength();
+            request.setAttribute(SENDFILE_FILENAME, content.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return builder.contentLength(length).build();
+        }
+        return builder.body(content);
+    }
+
+    private static boolean canSendfile(HttpServletRequest request, Resource content) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && content.isFile();
+    }
+}
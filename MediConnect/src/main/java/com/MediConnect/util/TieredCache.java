@@ -0,0 +1,147 @@
+package com.MediConnect.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Two-level read-through cache keyed by id: an in-process Caffeine cache (L1) in front of Redis (L2).
+ *
+ * L1 entries live only briefly because other instances cannot evict them; L2 is shared and holds values
+ * as JSON under "{prefix}{id}". Writes go through {@link #put}, which updates both levels after the
+ * surrounding transaction commits. Redis failures are logged and treated as misses.
+ */
+@Slf4j
+public class TieredCache<V> {
+
+    private final String name;
+    private final String keyPrefix;
+    private final Class<V> type;
+    private final Cache<Long, V> local;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+
+    public TieredCache(String name, Class<V> type, StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                       Duration localTtl, long localMaxSize, Duration redisTtl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.keyPrefix = name + ":";
+        this.type = type;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+    }
+
+    public V get(Long id, Function<Long, V> loader) {
+        V value = local.getIfPresent(id);
+        if (value != null) return value;
+
+        value = readRemote(id);
+        if (value == null) {
+            value = loader.apply(id);
+            writeRemote(id, value);
+        }
+        local.put(id, value);
+        return value;
+    }
+
+    /**
+     * Loads many ids at once: L1 first, then one Redis MGET, then a single bulk load for the rest.
+     *
+     * @param bulkLoader returns values for the ids it is given; ids it leaves out are not cached
+     */
+    public Map<Long, V> getAll(Collection<Long> ids, Function<Collection<Long>, Map<Long, V>> bulkLoader) {
+        Map<Long, V> result = new HashMap<>(local.getAllPresent(ids));
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (!result.containsKey(id)) missing.add(id);
+        }
+        if (missing.isEmpty()) return result;
+
+        List<Long> notInRedis = new ArrayList<>();
+        List<String> cached = readRemote(missing);
+        for (int i = 0; i < missing.size(); i++) {
+            V value = cached != null ? deserialize(cached.get(i)) : null;
+            if (value != null) {
+                result.put(missing.get(i), value);
+                local.put(missing.get(i), value);
+            } else {
+                notInRedis.add(missing.get(i));
+            }
+        }
+
+        if (!notInRedis.isEmpty()) {
+            bulkLoader.apply(notInRedis).forEach((id, value) -> {
+                result.put(id, value);
+                local.put(id, value);
+                writeRemote(id, value);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Write-through: stores the new value in both levels once the surrounding transaction commits.
+     */
+    public void put(Long id, V value) {
+        AfterCommit.run(() -> {
+            local.put(id, value);
+            writeRemote(id, value);
+        });
+    }
+
+    private V readRemote(Long id) {
+        try {
+            return deserialize(redisTemplate.opsForValue().get(keyPrefix + id));
+        } catch (Exception e) {
+            log.debug("{} cache read failed for {}: {}", name, id, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<String> readRemote(List<Long> ids) {
+        try {
+            return redisTemplate.opsForValue().multiGet(ids.stream().map(id -> keyPrefix + id).toList());
+        } catch (Exception e) {
+            log.debug("{} cache multi-read failed: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRemote(Long id, V value) {
+        try {
+            redisTemplate.opsForValue().set(keyPrefix + id, objectMapper.writeValueAsString(value), redisTtl);
+        } catch (Exception e) {
+            log.debug("{} cache write failed for {}: {}", name, id, e.getMessage());
+        }
+    }
+
+    private V deserialize(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            log.debug("Dropping unreadable {} cache entry: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
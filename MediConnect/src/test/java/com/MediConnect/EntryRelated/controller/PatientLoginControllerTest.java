@@ -0,0 +1,72 @@
+package com.MediConnect.EntryRelated.controller;
+
+import com.MediConnect.EntryRelated.exception.BulkheadFullExceptionHandler;
+import com.MediConnect.EntryRelated.repository.HealthcareProviderRepo;
+import com.MediConnect.EntryRelated.repository.LabResultRepo;
+import com.MediConnect.EntryRelated.repository.PatientRepo;
+import com.MediConnect.EntryRelated.service.ActivityService;
+import com.MediConnect.EntryRelated.service.NotificationPreferencesService;
+import com.MediConnect.EntryRelated.service.OTPService;
+import com.MediConnect.EntryRelated.service.PrivacySettingsService;
+import com.MediConnect.EntryRelated.service.blob.DocumentStorageService;
+import com.MediConnect.EntryRelated.service.patient.PatientService;
+import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.Service.UserService;
+import com.MediConnect.config.JWTService;
+import com.MediConnect.socialmedia.service.CloudinaryService;
+import com.MediConnect.util.Bulkhead;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PatientLoginControllerTest {
+
+    private static final String LOGIN = "{\"username\":\"patient\",\"password\":\"secret\"}";
+
+    private MockMvc mockMvc;
+    private PatientService patientService;
+
+    @BeforeEach
+    public void setup() {
+        patientService = mock(PatientService.class);
+        PatientController controller = new PatientController(patientService, mock(UserService.class),
+                mock(PatientRepo.class), mock(LabResultRepo.class), mock(JWTService.class), mock(OTPService.class),
+                mock(ActivityService.class), mock(NotificationPreferencesService.class),
+                mock(PrivacySettingsService.class), mock(CloudinaryService.class), mock(DocumentStorageService.class),
+                mock(HealthcareProviderRepo.class), mock(UserRepo.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new BulkheadFullExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void testSaturatedPasswordHashingIsRetryable() throws Exception {
+        when(patientService.login(any(), any()))
+                .thenThrow(new Bulkhead.BulkheadFullException("Too many sign-ins in progress, please try again shortly"));
+
+        mockMvc.perform(post("/patient/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.status").value("error"));
+    }
+
+    @Test
+    public void testBadCredentialsStayUnauthorized() throws Exception {
+        when(patientService.login(any(), any())).thenThrow(new RuntimeException("Invalid username or password"));
+
+        mockMvc.perform(post("/patient/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,84 @@
+package com.MediConnect.EntryRelated.service;
+
+import com.MediConnect.EntryRelated.entities.LoginSession;
+import com.MediConnect.EntryRelated.entities.Patient;
+import com.MediConnect.EntryRelated.repository.AccountActivityRepository;
+import com.MediConnect.EntryRelated.repository.LoginSessionRepository;
+import com.MediConnect.EntryRelated.service.activity.ActivityLogBuffer;
+import com.MediConnect.Repos.UserRepo;
+import com.MediConnect.Service.UserService;
+import com.MediConnect.config.JWTService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AuthSessionServiceTest {
+
+    private final List<LoginSession> sessions = new ArrayList<>();
+    private ActivityLogBuffer activityLogBuffer;
+    private SessionRevocationIndex sessionRevocationIndex;
+    private AuthSessionService authSessionService;
+
+    @BeforeEach
+    public void setup() {
+        LoginSessionRepository loginSessionRepository = mock(LoginSessionRepository.class);
+        when(loginSessionRepository.save(any(LoginSession.class))).thenAnswer(invocation -> {
+            LoginSession session = invocation.getArgument(0);
+            if (!sessions.contains(session)) sessions.add(session);
+            return session;
+        });
+        when(loginSessionRepository.findBySessionToken(anyString())).thenAnswer(invocation -> sessions.stream()
+                .filter(session -> session.getSessionToken().equals(invocation.getArgument(0)))
+                .findFirst());
+
+        activityLogBuffer = new ActivityLogBuffer(mock(JdbcTemplate.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(), 10, 10, 0, 3);
+        ActivityService activityService = new ActivityService(loginSessionRepository,
+                mock(AccountActivityRepository.class), activityLogBuffer);
+        sessionRevocationIndex = mock(SessionRevocationIndex.class);
+        authSessionService = new AuthSessionService(mock(JdbcTemplate.class), new JWTService("x".repeat(64)),
+                activityService, sessionRevocationIndex, mock(UserRepo.class), mock(UserService.class), 14, 30);
+    }
+
+    @Test
+    public void testLogoutBeforeActivityFlushEndsTheSession() {
+        Patient patient = new Patient();
+        patient.setId(7L);
+        patient.setUsername("patient");
+        patient.setRole("PATIENT");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("User-Agent", "Mozilla/5.0 Chrome");
+
+        AuthSessionService.Tokens tokens = authSessionService.start(patient, request);
+
+        // The session row exists as soon as the login returns; only the LOGIN activity waits for a flush
+        assertEquals(1, sessions.size());
+        assertEquals(1, activityLogBuffer.getQueueDepth());
+        LoginSession session = sessions.get(0);
+        assertNotNull(session.getRefreshTokenHash());
+        String sessionId = tokens.refreshToken().substring(0, tokens.refreshToken().indexOf('.'));
+        assertEquals(sessionId, session.getSessionToken());
+
+        authSessionService.logout(sessionId);
+
+        assertFalse(session.getIsActive());
+        assertNotNull(session.getLogoutTime());
+        verify(sessionRevocationIndex).revoke(sessionId);
+    }
+}
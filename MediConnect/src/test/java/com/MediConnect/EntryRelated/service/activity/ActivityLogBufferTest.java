@@ -0,0 +1,101 @@
+package com.MediConnect.EntryRelated.service.activity;
+
+import com.MediConnect.EntryRelated.entities.AccountActivity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ActivityLogBufferTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ActivityLogBuffer buffer;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        buffer = new ActivityLogBuffer(jdbcTemplate, transactionTemplate, meterRegistry, 3, 2, 0, 2);
+    }
+
+    @Test
+    public void testDropsEventsWhenTheQueueIsFull() {
+        assertTrue(buffer.enqueue(activity(1L)));
+        assertTrue(buffer.enqueue(activity(2L)));
+        assertTrue(buffer.enqueue(activity(3L)));
+        assertFalse(buffer.enqueue(activity(4L)));
+
+        assertEquals(3, buffer.getQueueDepth());
+        assertEquals(1.0, outcome("dropped"));
+    }
+
+    @Test
+    public void testWritesActivitiesInBatches() {
+        buffer.enqueue(ActivityEvent.login(1L, "10.0.0.1", "Mozilla/5.0 (iPhone) Safari"));
+        buffer.enqueue(ActivityEvent.login(2L, null, null));
+        buffer.enqueue(activity(3L));
+
+        buffer.flush();
+
+        // Three events at batch size 2: two batches; login sessions are not written by the buffer
+        verify(jdbcTemplate, times(1)).batchUpdate(argThat((String sql) -> sql.startsWith("INSERT INTO account_activities")),
+                argThat((List<Object[]> rows) -> rows.size() == 2
+                        && "Successful login from Safari on Mobile".equals(rows.get(0)[2])
+                        && "Unknown".equals(rows.get(1)[3])));
+        verify(jdbcTemplate, times(2)).batchUpdate(argThat((String sql) -> sql.startsWith("INSERT INTO account_activities")),
+                anyList());
+        verify(jdbcTemplate, never()).batchUpdate(argThat((String sql) -> sql.startsWith("INSERT INTO login_sessions")),
+                anyList());
+        assertEquals(0, buffer.getQueueDepth());
+        assertEquals(3.0, outcome("written"));
+    }
+
+    @Test
+    public void testRetriesFailedEventsOneByOneThenDiscardsThem() {
+        // User 2 no longer exists: every write containing it fails
+        when(jdbcTemplate.batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                rows != null && rows.stream().anyMatch(row -> Long.valueOf(2L).equals(row[0])))))
+                .thenThrow(new DataIntegrityViolationException("fk_user"));
+        buffer.enqueue(activity(1L));
+        buffer.enqueue(activity(2L));
+
+        buffer.flush();
+        assertEquals(1.0, outcome("written"));
+        assertEquals(1, buffer.getQueueDepth());
+
+        buffer.flush();
+        assertEquals(0, buffer.getQueueDepth());
+        assertEquals(1.0, outcome("failed"));
+        // Per flush: the batch, then the event on its own
+        verify(jdbcTemplate, times(4)).batchUpdate(anyString(),
+                argThat((List<Object[]> rows) -> rows != null && rows.stream().anyMatch(row -> Long.valueOf(2L).equals(row[0]))));
+    }
+
+    private static ActivityEvent activity(Long userId) {
+        return ActivityEvent.activity(userId, AccountActivity.ActivityType.PASSWORD_CHANGE, "Password changed",
+                "10.0.0.1", "Mozilla/5.0 Chrome");
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("activity.log.events").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,69 @@
+package com.MediConnect.EntryRelated.service.blob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalBlobStoreTest {
+
+    @TempDir
+    private Path root;
+
+    private LocalBlobStore store;
+
+    @BeforeEach
+    public void setup() {
+        store = new LocalBlobStore(root.toString());
+    }
+
+    @Test
+    public void testStoresContentUnderItsHash() throws IOException {
+        byte[] content = "%PDF-1.4 lab result".getBytes(StandardCharsets.UTF_8);
+
+        BlobStore.StoredBlob blob = store.put(new ByteArrayInputStream(content));
+
+        assertEquals(64, blob.key().length());
+        assertEquals(content.length, blob.size());
+        Resource resource = store.get(blob.key()).orElseThrow();
+        try (InputStream in = resource.getInputStream()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(content.length, resource.contentLength());
+    }
+
+    @Test
+    public void testIdenticalContentIsStoredOnce() throws IOException {
+        byte[] content = "same document".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.put(new ByteArrayInputStream(content)).key();
+        String second = store.put(new ByteArrayInputStream(content)).key();
+
+        assertEquals(first, second);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+
+        store.delete(first);
+        assertTrue(store.get(first).isEmpty());
+    }
+
+    @Test
+    public void testRejectsKeysThatAreNotHashes() {
+        assertThrows(IllegalArgumentException.class, () -> store.get("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.delete("abc"));
+    }
+}
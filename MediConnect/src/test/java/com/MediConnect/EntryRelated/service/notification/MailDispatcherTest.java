@@ -0,0 +1,132 @@
+package com.MediConnect.EntryRelated.service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MailDispatcherTest {
+
+    private FakeSmtpServer smtp;
+    private SimpleMeterRegistry meterRegistry;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (dispatcher != null) dispatcher.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    public void testMessagesShareOneConnection() throws Exception {
+        dispatcher = dispatcher(1, 10, 3);
+        dispatcher.start();
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(dispatcher.enqueue(message("user" + i + "@example.com", "OTP " + i), MailDispatcher.Priority.NORMAL));
+        }
+
+        awaitDelivered(3);
+        assertEquals(1, smtp.connections());
+        assertEquals(3.0, meterRegistry.get("mail.messages").tag("outcome", "sent").counter().count());
+        assertEquals(3, meterRegistry.get("mail.queue.time").tag("priority", "normal").timer().count());
+    }
+
+    @Test
+    public void testTransientFailureIsRetried() throws Exception {
+        smtp.failNextMessages(1);
+        dispatcher = dispatcher(1, 10, 3);
+        dispatcher.start();
+        dispatcher.enqueue(message("user@example.com", "Your Login Verification OTP"), MailDispatcher.Priority.HIGH);
+
+        awaitDelivered(1);
+        assertEquals(1.0, meterRegistry.get("mail.messages").tag("outcome", "retried").counter().count());
+        assertEquals(1, meterRegistry.get("mail.send.time").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    public void testConnectionClosedByServerIsReopenedWithoutBackoff() throws Exception {
+        // Backoff far longer than the test waits: only an immediate resend can deliver the second message
+        dispatcher = dispatcher(1, 10, 3, 60_000);
+        dispatcher.start();
+        dispatcher.enqueue(message("a@example.com", "first"), MailDispatcher.Priority.HIGH);
+        awaitDelivered(1);
+
+        smtp.dropOpenConnections();
+        dispatcher.enqueue(message("b@example.com", "second"), MailDispatcher.Priority.HIGH);
+
+        awaitDelivered(2);
+        assertEquals(2, smtp.connections());
+        assertEquals(0.0, meterRegistry.get("mail.messages").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    public void testHighPriorityIsSentFirst() throws Exception {
+        dispatcher = dispatcher(1, 10, 3);
+        dispatcher.enqueue(message("a@example.com", "registration"), MailDispatcher.Priority.NORMAL);
+        dispatcher.enqueue(message("b@example.com", "account approved"), MailDispatcher.Priority.NORMAL);
+        dispatcher.enqueue(message("c@example.com", "login"), MailDispatcher.Priority.HIGH);
+        dispatcher.start();
+
+        awaitDelivered(3);
+        List<String> received = smtp.messages();
+        assertTrue(received.get(0).contains("login"));
+        assertTrue(received.get(1).contains("registration"));
+    }
+
+    @Test
+    public void testFullQueueRejects() {
+        dispatcher = dispatcher(1, 2, 3);
+        assertTrue(dispatcher.enqueue(message("a@example.com", "1"), MailDispatcher.Priority.NORMAL));
+        assertTrue(dispatcher.enqueue(message("b@example.com", "2"), MailDispatcher.Priority.NORMAL));
+        assertFalse(dispatcher.enqueue(message("c@example.com", "3"), MailDispatcher.Priority.HIGH));
+        assertEquals(2, dispatcher.pendingCount());
+    }
+
+    private MailDispatcher dispatcher(int workers, int capacity, int maxAttempts) {
+        return dispatcher(workers, capacity, maxAttempts, 10);
+    }
+
+    private MailDispatcher dispatcher(int workers, int capacity, int maxAttempts, long initialBackoffMillis) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.port());
+        sender.getJavaMailProperties().put("mail.smtp.localhost", "localhost");
+        return new MailDispatcher(sender, meterRegistry, workers, capacity, maxAttempts, initialBackoffMillis,
+                Math.max(50, initialBackoffMillis), 5000);
+    }
+
+    private static SimpleMailMessage message(String to, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@mediconnect.test");
+        message.setTo(to);
+        message.setSubject("MediConnect");
+        message.setText(text);
+        return message;
+    }
+
+    private void awaitDelivered(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (smtp.messages().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, smtp.messages().size());
+        // The counter is bumped right after the server acknowledges; give the worker a moment
+        while (dispatcher.pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.MediConnect.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    public void shutdown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    public void testLegacyBcryptHashesStillMatchWithoutRehash() {
+        service = new PasswordHashingService(meterRegistry, "bcrypt", 4, 2, 10);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret-1");
+
+        assertTrue(service.matches("secret-1", legacy));
+        assertFalse(service.matches("wrong", legacy));
+        // Same algorithm and cost: no need to re-hash just to add the {bcrypt} prefix
+        assertFalse(service.upgradeEncoding(legacy));
+        assertEquals(2L, meterRegistry.get("auth.password.hash.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void testNewHashesArePrefixedAndVerified() {
+        service = new PasswordHashingService(meterRegistry, "bcrypt", 4, 2, 10);
+        String hash = service.encode("secret-2");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(service.matches("secret-2", hash));
+        assertFalse(service.upgradeEncoding(hash));
+    }
+
+    @Test
+    public void testWeakerOrOtherAlgorithmHashesAreUpgraded() {
+        String cost4 = new BCryptPasswordEncoder(4).encode("secret-3");
+
+        service = new PasswordHashingService(meterRegistry, "bcrypt", 5, 1, 10);
+        assertTrue(service.upgradeEncoding(cost4));
+        assertTrue(service.upgradeEncoding("{bcrypt}" + cost4));
+        service.shutdown();
+
+        service = new PasswordHashingService(new SimpleMeterRegistry(), "pbkdf2", 4, 1, 10);
+        assertTrue(service.matches("secret-3", cost4));
+        assertTrue(service.upgradeEncoding(cost4));
+        assertTrue(service.encode("secret-3").startsWith("{pbkdf2}"));
+        assertEquals(2.0, meterRegistry.get("auth.password.upgrades").counter().count());
+    }
+}
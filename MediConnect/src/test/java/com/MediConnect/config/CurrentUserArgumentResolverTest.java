@@ -0,0 +1,70 @@
+package com.MediConnect.config;
+
+import com.MediConnect.EntryRelated.entities.Users;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CurrentUserArgumentResolverTest {
+
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver();
+
+    @SuppressWarnings("unused")
+    private void handler(CurrentUser required, @Nullable CurrentUser optional) {
+    }
+
+    @Test
+    public void resolvesTheCallerSetByTheFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        CurrentUser caller = new CurrentUser(7L, CurrentUser.Type.DOCTOR, "dr.house");
+        request.setAttribute(CurrentUser.REQUEST_ATTRIBUTE, caller);
+
+        assertTrue(resolver.supportsParameter(parameter(0)));
+        assertSame(caller, resolver.resolveArgument(parameter(0), null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    public void missingCallerIsUnauthorizedUnlessNullable() throws Exception {
+        ServletWebRequest anonymous = new ServletWebRequest(new MockHttpServletRequest());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> resolver.resolveArgument(parameter(0), null, anonymous, null));
+        assertEquals(401, e.getStatusCode().value());
+        assertNull(resolver.resolveArgument(parameter(1), null, anonymous, null));
+    }
+
+    @Test
+    public void buildsCallerFromEitherKindOfPrincipal() {
+        JwtAuthenticator.JwtPrincipal fromClaims = new JwtAuthenticator.JwtPrincipal(7L, "dr.house", "ROLE_HEALTHPROVIDER");
+        CurrentUser doctor = CurrentUser.from(new UsernamePasswordAuthenticationToken(
+                fromClaims, null, List.of(new SimpleGrantedAuthority("ROLE_HEALTHPROVIDER"))));
+        assertEquals(new CurrentUser(7L, CurrentUser.Type.DOCTOR, "dr.house"), doctor);
+
+        Users user = new Users();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setRole("ADMIN");
+        UserPrincipal loaded = new UserPrincipal(user);
+        CurrentUser admin = CurrentUser.from(new UsernamePasswordAuthenticationToken(loaded, null, loaded.getAuthorities()));
+        assertEquals(new CurrentUser(1L, CurrentUser.Type.ADMIN, "admin"), admin);
+    }
+
+    private MethodParameter parameter(int index) throws NoSuchMethodException {
+        Method method = getClass().getDeclaredMethod("handler", CurrentUser.class, CurrentUser.class);
+        return new MethodParameter(method, index);
+    }
+}
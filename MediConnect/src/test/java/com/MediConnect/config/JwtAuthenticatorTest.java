@@ -0,0 +1,126 @@
+package com.MediConnect.config;
+
+import com.MediConnect.EntryRelated.entities.Users;
+import com.MediConnect.EntryRelated.service.AccountStatusCache;
+import com.MediConnect.EntryRelated.service.MyUserDetailsService;
+import com.MediConnect.EntryRelated.service.SessionRevocationIndex;
+import com.MediConnect.EntryRelated.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthenticatorTest {
+
+    private final JWTService jwtService = new JWTService("x".repeat(64));
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private SessionRevocationIndex sessionRevocationIndex;
+
+    @Mock
+    private AccountStatusCache accountStatusCache;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private MyUserDetailsService userDetailsService;
+
+    private JwtAuthenticator authenticator;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(applicationContext.getBean(MyUserDetailsService.class)).thenReturn(userDetailsService);
+        when(accountStatusCache.isActive(anyLong())).thenReturn(true);
+        authenticator = new JwtAuthenticator(jwtService, tokenVersionService, sessionRevocationIndex,
+                accountStatusCache, applicationContext, true);
+    }
+
+    @Test
+    public void buildsPrincipalFromClaimsWithoutLoadingTheUser() {
+        when(tokenVersionService.isCurrent(42L, 3)).thenReturn(true);
+
+        UsernamePasswordAuthenticationToken auth = authenticator.authenticate(claimsFor(user(42L, "alice", "PATIENT", 3)));
+
+        assertNotNull(auth);
+        assertEquals("alice", auth.getName());
+        JwtAuthenticator.JwtPrincipal principal = assertInstanceOf(JwtAuthenticator.JwtPrincipal.class, auth.getPrincipal());
+        assertEquals(42L, principal.userId());
+        assertEquals("ROLE_PATIENT", auth.getAuthorities().iterator().next().getAuthority());
+        verify(applicationContext, never()).getBean(MyUserDetailsService.class);
+    }
+
+    @Test
+    public void rejectsTokenIssuedBeforeRevocation() {
+        when(tokenVersionService.isCurrent(42L, 3)).thenReturn(false);
+
+        assertNull(authenticator.authenticate(claimsFor(user(42L, "alice", "PATIENT", 3))));
+    }
+
+    @Test
+    public void rejectsTokenOfInactiveAccount() {
+        when(tokenVersionService.isCurrent(42L, 3)).thenReturn(true);
+        when(accountStatusCache.isActive(42L)).thenReturn(false);
+
+        assertNull(authenticator.authenticate(claimsFor(user(42L, "alice", "PATIENT", 3))));
+    }
+
+    @Test
+    public void rejectsTokenOfRevokedSession() {
+        when(tokenVersionService.isCurrent(42L, 3)).thenReturn(true);
+        when(sessionRevocationIndex.isRevoked("session-1")).thenReturn(true);
+
+        Claims revoked = jwtService.parseClaims(jwtService.generateToken(user(42L, "alice", "PATIENT", 3), "session-1"));
+        Claims other = jwtService.parseClaims(jwtService.generateToken(user(42L, "alice", "PATIENT", 3), "session-2"));
+
+        assertNull(authenticator.authenticate(revoked));
+        assertNotNull(authenticator.authenticate(other));
+    }
+
+    @Test
+    public void tokenWithoutVersionClaimsFallsBackToUserLookup() {
+        when(userDetailsService.loadUserByUsername("bob"))
+                .thenReturn(User.withUsername("bob").password("unused").authorities("ROLE_HEALTHPROVIDER").build());
+        Claims claims = jwtService.parseClaims(jwtService.generateToken(
+                User.withUsername("bob").password("unused").authorities("ROLE_HEALTHPROVIDER").build()));
+
+        UsernamePasswordAuthenticationToken auth = authenticator.authenticate(claims);
+
+        assertNotNull(auth);
+        assertEquals("bob", auth.getName());
+        assertEquals("ROLE_HEALTHPROVIDER", auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+        verify(tokenVersionService, never()).isCurrent(anyLong(), anyInt());
+    }
+
+    private Claims claimsFor(UserPrincipal principal) {
+        return jwtService.parseClaims(jwtService.generateToken(principal));
+    }
+
+    private static UserPrincipal user(Long id, String username, String role, int tokenVersion) {
+        Users user = new Users();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(role);
+        user.setTokenVersion(tokenVersion);
+        return new UserPrincipal(user);
+    }
+}
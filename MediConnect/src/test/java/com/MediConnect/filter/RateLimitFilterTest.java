@@ -0,0 +1,76 @@
+package com.MediConnect.filter;
+
+import com.MediConnect.Service.RateLimiter;
+import com.MediConnect.config.CurrentUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        // The mocked Redis returns no script result, so the limiter runs on its in-memory buckets
+        RateLimiter rateLimiter = new RateLimiter(mock(StringRedisTemplate.class), 60, 1000);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(rateLimiter, meterRegistry, true,
+                2, 1, 2, 1, 1, 1, 2, 1);
+    }
+
+    @Test
+    public void rejectsLoginsBeyondTheBurstWithRetryAfter() throws Exception {
+        assertEquals(200, send("POST", "/patient/login", "10.0.0.1", null).getStatus());
+        assertEquals(200, send("POST", "/patient/login", "10.0.0.1", null).getStatus());
+
+        MockHttpServletResponse rejected = send("POST", "/healthprovider/login", "10.0.0.1", null);
+        assertEquals(429, rejected.getStatus());
+        // One token per minute
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertEquals(200, send("POST", "/patient/login", "10.0.0.2", null).getStatus());
+
+        assertEquals(3.0, meterRegistry.get("http.rate_limit.requests").tags("group", "auth", "outcome", "allowed").counter().count());
+        assertEquals(1.0, meterRegistry.get("http.rate_limit.requests").tags("group", "auth", "outcome", "rejected").counter().count());
+    }
+
+    @Test
+    public void aiChatIsLimitedPerUserRatherThanPerAddress() throws Exception {
+        CurrentUser alice = new CurrentUser(1L, CurrentUser.Type.PATIENT, "alice");
+        CurrentUser bob = new CurrentUser(2L, CurrentUser.Type.PATIENT, "bob");
+
+        assertEquals(200, send("POST", "/ai/chat", "10.0.0.1", alice).getStatus());
+        assertEquals(429, send("POST", "/ai/chat", "10.0.0.1", alice).getStatus());
+        assertEquals(200, send("POST", "/ai/chat", "10.0.0.1", bob).getStatus());
+    }
+
+    @Test
+    public void leavesPreflightsAndOtherRoutesAlone() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse preflight = send("OPTIONS", "/patient/login", "10.0.0.1", null);
+            assertEquals(200, preflight.getStatus());
+            assertNull(preflight.getHeader("X-RateLimit-Remaining"));
+            assertEquals(200, send("GET", "/posts/feed", "10.0.0.1", null).getStatus());
+        }
+        assertNotNull(send("POST", "/otp/forgot-password", "10.0.0.1", null).getHeader("X-RateLimit-Remaining"));
+    }
+
+    private MockHttpServletResponse send(String method, String path, String address, CurrentUser user) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(address);
+        if (user != null) request.setAttribute(CurrentUser.REQUEST_ATTRIBUTE, user);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,72 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChatMessageJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    public void testUnflushedMessagesAreRecoveredAfterCrash() throws Exception {
+        // Accept two messages, then "crash": the journal is never sealed, flushed or closed
+        ChatMessageJournal journal = new ChatMessageJournal(journalDir, true);
+        journal.append(message("m-1", "hello"));
+        journal.append(message("m-2", "are you there?"));
+
+        // Restart: the previous active segment must be offered for replay
+        ChatMessageJournal restarted = new ChatMessageJournal(journalDir, true);
+        List<Path> segments = restarted.sealedSegments();
+        assertEquals(1, segments.size());
+
+        List<PendingChatMessage> recovered = restarted.read(segments.get(0));
+        assertEquals(2, recovered.size());
+        assertEquals("m-1", recovered.get(0).clientMessageId());
+        assertEquals("are you there?", recovered.get(1).content());
+        assertEquals(7L, recovered.get(1).channelId());
+
+        // Once replayed and committed, the segment is removed
+        restarted.delete(segments.get(0));
+        assertTrue(restarted.sealedSegments().isEmpty());
+        restarted.close();
+    }
+
+    @Test
+    public void testTornTrailingLineIsSkipped() throws Exception {
+        ChatMessageJournal journal = new ChatMessageJournal(journalDir, false);
+        journal.append(message("m-1", "complete"));
+        Path sealed = journal.seal();
+
+        // Simulate a crash halfway through writing the next entry
+        Files.write(sealed, "{\"clientMessageId\":\"m-2\",\"chan".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        List<PendingChatMessage> recovered = journal.read(sealed);
+        assertEquals(1, recovered.size());
+        assertEquals("m-1", recovered.get(0).clientMessageId());
+        journal.close();
+    }
+
+    @Test
+    public void testSealWithoutEntriesReturnsNull() throws Exception {
+        ChatMessageJournal journal = new ChatMessageJournal(journalDir, false);
+        assertNull(journal.seal());
+        journal.close();
+        assertTrue(journal.sealedSegments().isEmpty());
+    }
+
+    private PendingChatMessage message(String clientMessageId, String content) {
+        return new PendingChatMessage(clientMessageId, 7L, 42L, content, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,102 @@
+package com.MediConnect.socialmedia.service.chat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class ChatWriteBehindBufferTest {
+
+    @TempDir
+    Path journalDir;
+
+    private final ChatMessageBatchWriter batchWriter = mock(ChatMessageBatchWriter.class);
+    private final List<String> written = new ArrayList<>();
+    private boolean databaseDown;
+
+    @BeforeEach
+    public void setup() {
+        // Message "bad" violates a constraint (e.g. its channel was deleted); the whole write containing it fails
+        doAnswer(invocation -> {
+            List<PendingChatMessage> messages = invocation.getArgument(0);
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            if (messages.stream().anyMatch(message -> message.clientMessageId().equals("bad"))) {
+                throw new DataIntegrityViolationException("fk_chat_messages_channel");
+            }
+            messages.forEach(message -> written.add(message.clientMessageId()));
+            return List.of();
+        }).when(batchWriter).write(anyList(), anyMap());
+    }
+
+    @Test
+    public void testRefusedMessageIsRejectedWithoutHoldingBackTheOthers() throws Exception {
+        // A segment left behind by a previous process, with the bad message in the middle
+        ChatMessageJournal previous = new ChatMessageJournal(journalDir, false);
+        previous.append(message("m-1"));
+        previous.append(message("bad"));
+        previous.append(message("m-2"));
+
+        ChatWriteBehindBuffer buffer = buffer();
+        buffer.enqueue(message("m-3"));
+        buffer.onApplicationReady();
+
+        assertEquals(List.of("m-1", "m-2", "m-3"), written);
+        assertTrue(files("sealed-").isEmpty());
+        List<Path> rejected = files("rejected-");
+        assertEquals(1, rejected.size());
+        String content = Files.readString(rejected.get(0), StandardCharsets.UTF_8);
+        assertTrue(content.contains("\"clientMessageId\":\"bad\"") && content.contains("fk_chat_messages_channel"));
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testSegmentIsKeptWhileTheDatabaseIsDown() throws Exception {
+        ChatWriteBehindBuffer buffer = buffer();
+        buffer.onApplicationReady();
+        databaseDown = true;
+        buffer.enqueue(message("m-1"));
+
+        buffer.flush();
+        assertTrue(written.isEmpty());
+        assertEquals(1, files("sealed-").size());
+        assertTrue(files("rejected-").isEmpty());
+
+        databaseDown = false;
+        buffer.flush();
+        assertEquals(List.of("m-1"), written);
+        assertTrue(files("sealed-").isEmpty());
+        buffer.shutdown();
+    }
+
+    private ChatWriteBehindBuffer buffer() {
+        return new ChatWriteBehindBuffer(batchWriter, 100, 10, true, journalDir.toString(), false);
+    }
+
+    private List<Path> files(String prefix) throws Exception {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).toList();
+        }
+    }
+
+    private PendingChatMessage message(String clientMessageId) {
+        return new PendingChatMessage(clientMessageId, 7L, 42L, "hello", System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,141 @@
+package com.MediConnect.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class FileDownloadsTest {
+
+    private static final String ETAG = "abc123";
+    private static final String BODY = "0123456789";
+
+    @TempDir
+    Path tempDir;
+
+    private MockMvc mockMvc;
+    private Path document;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        document = Files.writeString(tempDir.resolve("document.pdf"), BODY, StandardCharsets.UTF_8);
+        mockMvc = MockMvcBuilders.standaloneSetup(new DocumentController(new FileSystemResource(document))).build();
+    }
+
+    @Test
+    public void testFullGetCarriesETagAndBody() throws Exception {
+        mockMvc.perform(get("/document"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    public void testMatchingIfNoneMatchIsNotModified() throws Exception {
+        mockMvc.perform(get("/document").header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testStaleIfNoneMatchGetsTheDocument() throws Exception {
+        mockMvc.perform(get("/document").header(HttpHeaders.IF_NONE_MATCH, "\"older\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    public void testRangeIsPartialContent() throws Exception {
+        mockMvc.perform(get("/document").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + BODY.length()))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    public void testFileIsHandedToSendfileWhenSupported() throws Exception {
+        mockMvc.perform(get("/document").requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", document.toFile().getAbsolutePath()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) BODY.length()))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testRangeIsNotHandedToSendfile() throws Exception {
+        mockMvc.perform(get("/document")
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", (Object) null))
+                .andExpect(content().string("0123"));
+    }
+
+    @Test
+    public void testNoETagWithoutValidator() throws Exception {
+        // Legacy documents have no blob key, so there is nothing to validate against
+        MockMvc legacy = MockMvcBuilders.standaloneSetup(new LegacyDocumentController(new FileSystemResource(document))).build();
+        legacy.perform(get("/legacy").header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(content().string(BODY));
+    }
+
+    @RestController
+    static class DocumentController {
+
+        private final Resource document;
+
+        DocumentController(Resource document) {
+            this.document = document;
+        }
+
+        @GetMapping("/document")
+        public ResponseEntity<Resource> download(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            return FileDownloads.serve(request, response, document, ETAG, MediaType.APPLICATION_PDF,
+                    "inline; filename=\"document.pdf\"");
+        }
+    }
+
+    @RestController
+    static class LegacyDocumentController {
+
+        private final Resource document;
+
+        LegacyDocumentController(Resource document) {
+            this.document = document;
+        }
+
+        @GetMapping("/legacy")
+        public ResponseEntity<Resource> download(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            return FileDownloads.serve(request, response, document, null, MediaType.APPLICATION_PDF,
+                    "inline; filename=\"document.pdf\"");
+        }
+    }
+}
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef, useCallback } from 'react';
 import {
   IconButton,
   Badge,
@@ -24,6 +24,7 @@ import CalendarTodayIcon from '@mui/icons-material/CalendarToday';
 import MessageIcon from '@mui/icons-material/Message';
 import { useAuth } from '../context/AuthContext';
 import { useNavigate } from 'react-router-dom';
+import { useNotificationSocket, NotificationEvent } from '../hooks/useNotificationSocket';
 
 interface Notification {
   id: number;
@@ -44,6 +45,10 @@ interface Notification {
   };
 }
 
+// Highest notification id among the current one and the given notifications
+const newestId = (current: number | null, items: Notification[]): number | null =>
+  items.reduce<number | null>((max, n) => (max === null || n.id > max ? n.id : max), current);
+
 const NotificationBell: React.FC = () => {
   const { user } = useAuth();
   const navigate = useNavigate();
@@ -51,6 +56,57 @@ const NotificationBell: React.FC = () => {
   const [notifications, setNotifications] = useState<Notification[]>([]);
   const [unreadCount, setUnreadCount] = useState(0);
   const [loading, setLoading] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+  // Cursor for the next (older) page; null once everything has been loaded
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  // Newest notification id this client has seen; sent in the WebSocket resume handshake
+  const lastIdRef = useRef<number | null>(null);
+
+  // Apply a pushed notification event to local state
+  const handleNotificationEvent = useCallback((event: NotificationEvent) => {
+    switch (event.event) {
+      case 'created':
+      case 'updated':
+        if (event.notification) {
+          lastIdRef.current = newestId(lastIdRef.current, [event.notification]);
+          setNotifications(prev => [event.notification, ...prev.filter(n => n.id !== event.notification.id)]);
+        }
+        setUnreadCount(prev => Math.max(0, prev + (event.unreadDelta || 0)));
+        break;
+      case 'read':
+        setNotifications(prev => prev.map(n => event.ids?.includes(n.id) ? { ...n, isRead: true } : n));
+        setUnreadCount(prev => Math.max(0, prev + (event.unreadDelta || 0)));
+        break;
+      case 'read-all':
+        setNotifications(prev => prev.map(n => ({ ...n, isRead: true })));
+        setUnreadCount(0);
+        break;
+      case 'deleted':
+        setNotifications(prev => prev.filter(n => n.id !== event.id));
+        setUnreadCount(prev => Math.max(0, prev + (event.unreadDelta || 0)));
+        break;
+      case 'resume':
+        setUnreadCount(event.unreadCount || 0);
+        if (event.truncated) {
+          // Too much changed (or first connect): the list is reloaded from REST when the menu opens
+          setNotifications([]);
+          setNextCursor(null);
+        } else if (event.notifications && event.notifications.length > 0) {
+          const resumed: Notification[] = [...event.notifications].reverse(); // newest first
+          lastIdRef.current = newestId(lastIdRef.current, resumed);
+          setNotifications(prev => [...resumed, ...prev.filter(n => !resumed.some(r => r.id === n.id))]);
+        }
+        break;
+    }
+  }, []);
+
+  const getLastId = useCallback(() => lastIdRef.current, []);
+
+  const { connected } = useNotificationSocket({
+    token: user?.token,
+    getLastId,
+    onEvent: handleNotificationEvent,
+  });
 
   // Fetch unread count
   const fetchUnreadCount = async () => {
@@ -72,13 +128,14 @@ const NotificationBell: React.FC = () => {
     }
   };
 
-  // Fetch all notifications
-  const fetchNotifications = async () => {
+  // Fetch a page of notifications (newest first); without a cursor this replaces the list
+  const fetchNotifications = async (cursor?: string) => {
     if (!user?.token) return;
 
-    setLoading(true);
+    if (cursor) setLoadingMore(true); else setLoading(true);
     try {
-      const response = await fetch('http://localhost:8080/notifications', {
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+      const response = await fetch(`http://localhost:8080/notifications/page${query}`, {
         headers: {
           'Authorization': `Bearer ${user.token}`,
         },
@@ -86,12 +143,19 @@ const NotificationBell: React.FC = () => {
 
       if (response.ok) {
         const data = await response.json();
-        setNotifications(data.data || []);
+        const page: Notification[] = data.data || [];
+        if (cursor) {
+          setNotifications(prev => [...prev, ...page.filter(n => !prev.some(p => p.id === n.id))]);
+        } else {
+          setNotifications(page);
+        }
+        setNextCursor(data.nextCursor || null);
+        lastIdRef.current = newestId(lastIdRef.current, page);
       }
     } catch (error) {
       console.error('Error fetching notifications:', error);
     } finally {
-      setLoading(false);
+      if (cursor) setLoadingMore(false); else setLoading(false);
     }
   };
 
@@ -107,11 +171,11 @@ const NotificationBell: React.FC = () => {
         },
       });
 
-      // Update local state
+      // Update local state (while connected, the unread count follows the pushed "read" event)
       setNotifications(prev =>
         prev.map(n => n.id === notificationId ? { ...n, isRead: true } : n)
       );
-      fetchUnreadCount();
+      if (!connected) fetchUnreadCount();
     } catch (error) {
       console.error('Error marking notification as read:', error);
     }
@@ -376,12 +440,13 @@ const NotificationBell: React.FC = () => {
     }
   };
 
-  // Poll for new notifications every 30 seconds
+  // Poll the unread count only while the notification WebSocket is down (cold start / fallback)
   useEffect(() => {
+    if (connected) return;
     fetchUnreadCount();
     const interval = setInterval(fetchUnreadCount, 30000); // 30 seconds
     return () => clearInterval(interval);
-  }, [user]);
+  }, [user, connected]);
 
   // Handle scrolling to post after navigation (when coming from notification)
   useEffect(() => {
@@ -451,7 +516,8 @@ const NotificationBell: React.FC = () => {
 
   const handleClick = (event: React.MouseEvent<HTMLElement>) => {
     setAnchorEl(event.currentTarget);
-    fetchNotifications();
+    // While connected the list is kept current by pushed events; load it from REST otherwise
+    if (!connected || notifications.length === 0) fetchNotifications();
   };
 
   const handleClose = () => {
@@ -588,6 +654,13 @@ const NotificationBell: React.FC = () => {
                 <Divider />
               </React.Fragment>
             ))}
+            {nextCursor && (
+              <Box sx={{ display: 'flex', justifyContent: 'center', p: 1 }}>
+                <Button size="small" disabled={loadingMore} onClick={() => fetchNotifications(nextCursor)}>
+                  {loadingMore ? <CircularProgress size={18} /> : 'Load older'}
+                </Button>
+              </Box>
+            )}
           </List>
         )}
       </Menu>
@@ -1,4 +1,4 @@
-import React, { createContext, useContext, useState, ReactNode } from 'react';
+import React, { createContext, useContext, useState, useEffect, useCallback, ReactNode } from 'react';
 
 export type UserType = 'patient' | 'doctor' | 'admin' | null;
 
@@ -7,48 +7,123 @@ interface User {
   token: string;
   username?: string;
   id?: number;
+  refreshToken?: string;
 }
 
 interface AuthContextType {
   isAuthenticated: boolean;
   user: User | null;
-  login: (userType: UserType, token: string, username?: string, id?: number) => void;
+  login: (userType: UserType, token: string, username?: string, id?: number, refreshToken?: string) => void;
   logout: () => void;
 }
 
 const AuthContext = createContext<AuthContextType | undefined>(undefined);
 
+// Renew the access token this long before it expires
+const REFRESH_MARGIN_MS = 60 * 1000;
+
+// Expiry (ms since epoch) from the JWT payload, or null if the token cannot be decoded
+const tokenExpiry = (token: string): number | null => {
+  try {
+    const payload = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')));
+    return typeof payload.exp === 'number' ? payload.exp * 1000 : null;
+  } catch {
+    return null;
+  }
+};
+
+const readStoredUser = (): User | null => {
+  const storedUser = localStorage.getItem('user');
+  return storedUser ? JSON.parse(storedUser) : null;
+};
+
 export const AuthProvider = ({ children }: { children: ReactNode }) => {
   const [user, setUser] = useState<User | null>(() => {
     // Initialize from localStorage if available
-    const storedUser = localStorage.getItem('user');
-    return storedUser ? JSON.parse(storedUser) : null;
+    return readStoredUser();
   });
 
-  const login = (userType: UserType, token: string, username?: string, id?: number) => {
+  const login = (userType: UserType, token: string, username?: string, id?: number, refreshToken?: string) => {
     const userData = {
       type: userType,
       token,
       username,
       id,
+      refreshToken,
     };
     setUser(userData);
     // Persist to localStorage
     localStorage.setItem('user', JSON.stringify(userData));
   };
 
-  const logout = () => {
+  const logout = useCallback(() => {
+    const refreshToken = readStoredUser()?.refreshToken;
     setUser(null);
     // Clear localStorage
     localStorage.removeItem('user');
-  };
+    if (refreshToken) {
+      // End the session on the server too; the UI does not wait for it
+      fetch('http://localhost:8080/auth/logout', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken }),
+      }).catch(() => {});
+    }
+  }, []);
+
+  // Access tokens are short-lived: exchange the refresh token for a new pair shortly before expiry
+  useEffect(() => {
+    if (!user?.refreshToken) return;
+    const expiry = tokenExpiry(user.token);
+    if (expiry === null) return;
+
+    const refresh = async () => {
+      try {
+        const response = await fetch('http://localhost:8080/auth/refresh', {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json' },
+          body: JSON.stringify({ refreshToken: user.refreshToken }),
+        });
+        if (response.ok) {
+          const data = await response.json();
+          const userData = { ...user, token: data.token, refreshToken: data.refreshToken };
+          setUser(userData);
+          localStorage.setItem('user', JSON.stringify(userData));
+          return;
+        }
+        // Another tab may have rotated the refresh token first; carry on with its tokens
+        const stored = readStoredUser();
+        if (stored?.refreshToken && stored.refreshToken !== user.refreshToken) {
+          setUser(stored);
+        } else if (response.status === 401 || response.status === 403) {
+          logout();
+        }
+      } catch (err) {
+        console.error('Error refreshing session:', err);
+      }
+    };
+
+    const timer = setTimeout(refresh, Math.max(0, expiry - Date.now() - REFRESH_MARGIN_MS));
+    return () => clearTimeout(timer);
+  }, [user, logout]);
+
+  // Keep tabs in step: a login, refresh or logout in one tab applies to all of them
+  useEffect(() => {
+    const onStorage = (event: StorageEvent) => {
+      if (event.key === 'user') {
+        setUser(readStoredUser());
+      }
+    };
+    window.addEventListener('storage', onStorage);
+    return () => window.removeEventListener('storage', onStorage);
+  }, []);
 
   return (
-    <AuthContext.Provider value={{ 
-      isAuthenticated: user !== null, 
-      user, 
-      login, 
-      logout 
+    <AuthContext.Provider value={{
+      isAuthenticated: user !== null,
+      user,
+      login,
+      logout
     }}>
       {children}
     </AuthContext.Provider>
@@ -61,4 +136,4 @@ export const useAuth = () => {
     throw new Error('useAuth must be used within an AuthProvider');
   }
   return context;
-}; 
\ No newline at end of file
+};
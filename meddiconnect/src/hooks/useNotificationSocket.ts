@@ -0,0 +1,89 @@
+import { useEffect, useRef, useState } from 'react';
+import { Client, IMessage } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
+
+/**
+ * Events pushed by the backend on /user/queue/notifications
+ */
+export interface NotificationEvent {
+  event: 'created' | 'updated' | 'read' | 'read-all' | 'deleted' | 'resume';
+  notification?: any;
+  notifications?: any[];
+  ids?: number[];
+  id?: number;
+  unreadDelta?: number;
+  unreadCount?: number;
+  truncated?: boolean;
+}
+
+interface UseNotificationSocketOptions {
+  token: string | null | undefined;
+  // Newest notification id the client already has (sent in the resume handshake on every (re)connect)
+  getLastId: () => number | null;
+  onEvent: (event: NotificationEvent) => void;
+}
+
+/**
+ * Custom hook for live notifications over STOMP/SockJS.
+ * On every (re)connect it sends a resume handshake so nothing pushed while offline is missed;
+ * REST polling is only needed while this reports disconnected.
+ */
+export const useNotificationSocket = ({ token, getLastId, onEvent }: UseNotificationSocketOptions) => {
+  const [connected, setConnected] = useState(false);
+
+  // Use refs to avoid closure issues with callbacks
+  const onEventRef = useRef(onEvent);
+  const getLastIdRef = useRef(getLastId);
+
+  useEffect(() => {
+    onEventRef.current = onEvent;
+    getLastIdRef.current = getLastId;
+  }, [onEvent, getLastId]);
+
+  useEffect(() => {
+    if (!token) {
+      return;
+    }
+
+    const client = new Client({
+      webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+      connectHeaders: {
+        Authorization: `Bearer ${token}`,
+      },
+      reconnectDelay: 5000,
+      heartbeatIncoming: 10000,
+      heartbeatOutgoing: 10000,
+      onConnect: () => {
+        client.subscribe('/user/queue/notifications', (message: IMessage) => {
+          try {
+            onEventRef.current?.(JSON.parse(message.body));
+          } catch (error) {
+            console.error('Error parsing notification event:', error);
+          }
+        });
+
+        client.publish({
+          destination: '/app/notifications/resume',
+          body: JSON.stringify({ lastId: getLastIdRef.current?.() ?? null }),
+          headers: { 'content-type': 'application/json' },
+        });
+        setConnected(true);
+      },
+      onDisconnect: () => setConnected(false),
+      onWebSocketClose: () => setConnected(false),
+      onStompError: (frame) => {
+        console.error('Notification STOMP error:', frame.headers?.message || frame.body);
+        setConnected(false);
+      },
+    });
+
+    client.activate();
+
+    return () => {
+      client.deactivate();
+      setConnected(false);
+    };
+  }, [token]);
+
+  return { connected };
+};
@@ -193,6 +193,7 @@ export const useWebSocketChat = ({
 
     const message = {
       channelId: channelId,
+      clientMessageId: crypto.randomUUID(),
       content: content,
       senderUsername: senderUsername,
     };
@@ -10,6 +10,12 @@ interface VideoSignal {
   recipient?: string;
 }
 
+// The server batches ICE candidates from one sender into a single 'ice-candidates' message
+interface IncomingVideoSignal extends Omit<VideoSignal, 'type'> {
+  type: VideoSignal['type'] | 'ice-candidates';
+  candidates?: RTCIceCandidateInit[];
+}
+
 interface UseWebSocketVideoOptions {
   token: string | null;
   appointmentId: string | null;
@@ -84,19 +90,29 @@ export const useWebSocketVideo = ({
         setStompError(null);
         onConnectedRef.current?.();
 
-        // Subscribe to video topic for this appointment
+        // Subscribe to this user's signaling queue for the appointment (only the other participant's signals arrive here)
         if (subscriptionRef.current) {
           subscriptionRef.current.unsubscribe();
           subscriptionRef.current = null;
         }
 
         const subscription = client.subscribe(
-          `/topic/video/${appointmentId}`,
+          `/user/queue/video/${appointmentId}`,
           (message: IMessage) => {
             try {
-              const signal: VideoSignal = JSON.parse(message.body);
-              console.log('Received video signal:', signal);
-              onSignalReceivedRef.current?.(signal);
+              const signal: IncomingVideoSignal = JSON.parse(message.body);
+              if (signal.type === 'ice-candidates') {
+                (signal.candidates || []).forEach((candidate) => {
+                  onSignalReceivedRef.current?.({
+                    type: 'ice-candidate',
+                    candidate,
+                    sender: signal.sender,
+                    recipient: signal.recipient,
+                  });
+                });
+                return;
+              }
+              onSignalReceivedRef.current?.(signal as VideoSignal);
             } catch (error) {
               console.error('Error parsing video signal:', error);
             }
@@ -104,7 +120,7 @@ export const useWebSocketVideo = ({
         );
 
         subscriptionRef.current = subscription;
-        console.log(`Subscribed to video topic for appointment ${appointmentId}`);
+        console.log(`Subscribed to video signaling for appointment ${appointmentId}`);
       },
       onDisconnect: () => {
         console.log('Video WebSocket disconnected');
@@ -167,7 +183,6 @@ export const useWebSocketVideo = ({
           body: JSON.stringify(signal),
           headers: { 'content-type': 'application/json' },
         });
-        console.log('Sent video signal:', signal);
       } catch (e) {
         console.error('Error sending video signal via WebSocket:', e);
         onErrorRef.current?.('Failed to send signal via WebSocket.');
@@ -26,6 +26,7 @@ import {
   DoneAll as DoneAllIcon,
 } from '@mui/icons-material';
 import { useAuth } from '../context/AuthContext';
+import { useNotificationSocket, NotificationEvent } from '../hooks/useNotificationSocket';
 
 interface AdminProfile {
   username: string;
@@ -172,7 +173,7 @@ const AdminDashboard: React.FC = () => {
     }
   }, [getAuthHeader, logout, navigate, token]);
 
-  /** Fetch the full list of notifications displayed in the menu. */
+  /** Fetch the most recent notifications displayed in the menu. */
   const fetchNotifications = useCallback(async () => {
     if (!token) {
       setNotifications([]);
@@ -181,7 +182,7 @@ const AdminDashboard: React.FC = () => {
     setNotificationsLoading(true);
     setNotificationsError(null);
     try {
-      const response = await fetch('http://localhost:8080/notifications', {
+      const response = await fetch('http://localhost:8080/notifications/page?size=50', {
         headers: { Authorization: getAuthHeader() },
       });
       if (response.status === 401 || response.status === 403) {
@@ -219,6 +220,23 @@ const AdminDashboard: React.FC = () => {
     fetchUnreadNotifications();
   }, [fetchUnreadNotifications]);
 
+  /** Keep the badge live from pushed notification events (the menu list is still loaded on open). */
+  const handleNotificationEvent = useCallback((event: NotificationEvent) => {
+    if (event.event === 'resume' || event.event === 'read-all') {
+      setUnreadCount(event.unreadCount ?? 0);
+    } else if (event.unreadDelta) {
+      setUnreadCount((prev) => Math.max(0, prev + (event.unreadDelta ?? 0)));
+    }
+  }, []);
+
+  const getLastNotificationId = useCallback(() => null, []);
+
+  useNotificationSocket({
+    token,
+    getLastId: getLastNotificationId,
+    onEvent: handleNotificationEvent,
+  });
+
   const openNotifications = useCallback(
     async (event: React.MouseEvent<HTMLElement>) => {
       setNotificationsAnchorEl(event.currentTarget);
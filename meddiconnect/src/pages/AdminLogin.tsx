@@ -50,7 +50,7 @@ const AdminLogin: React.FC = () => {
 
       if (response.ok) {
         const data = await response.json();
-        login('admin', data.token, data.username);
+        login('admin', data.token, data.username, undefined, data.refreshToken);
         navigate('/admin/dashboard', { replace: true });
         return;
       }
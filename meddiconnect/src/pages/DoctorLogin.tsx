@@ -80,7 +80,7 @@ const DoctorLogin = () => {
           }
         }
         
-        login('doctor', data.token, values.username, userId);
+        login('doctor', data.token, values.username, userId, data.refreshToken);
         navigate('/doctor-dashboard');
       } else {
         console.error('Login failed:', data.message);
@@ -128,7 +128,7 @@ const DoctorLogin = () => {
             }
           }
           
-          login('doctor', data.token, username, userId);
+          login('doctor', data.token, username, userId, data.refreshToken);
           navigate('/doctor-dashboard');
         } else {
           setError(data.message || 'Invalid OTP');
@@ -95,7 +95,7 @@ const Login = () => {
           setError(null);
         } else if (data.status === 'success') {
           console.log('Patient login successful without 2FA');
-          login('patient', data.token, values.username);
+          login('patient', data.token, values.username, undefined, data.refreshToken);
           navigate('/patient-dashboard');
         }
       } else {
@@ -135,7 +135,7 @@ const Login = () => {
         setError(null);
       } else if (response.ok && data.status === 'success') {
         console.log('Doctor login successful without 2FA');
-        login('doctor', data.token, values.username);
+        login('doctor', data.token, values.username, undefined, data.refreshToken);
         navigate('/doctor-dashboard');
       } else {
         console.error('Doctor login failed:', data.message);
@@ -169,7 +169,7 @@ const Login = () => {
         if (data.status === 'success') {
           const userType = tabValue === 0 ? 'patient' : 'doctor';
           const dashboardPath = tabValue === 0 ? '/patient-dashboard' : '/doctor-dashboard';
-          login(userType, data.token, username);
+          login(userType, data.token, username, undefined, data.refreshToken);
           navigate(dashboardPath);
         } else {
           setError(data.message || 'Invalid OTP');
@@ -66,7 +66,7 @@ interface ChatChannel {
     specialty: string;
   };
   lastMessage?: {
-    id: number;
+    id?: number;
     content: string;
     sentAt: string;
     senderId: number;
@@ -76,8 +76,10 @@ interface ChatChannel {
 }
 
 // Chat message interface
+// id is only known once the message is stored; live messages carry just the clientMessageId
 interface ChatMessage {
-  id: number;
+  id?: number;
+  clientMessageId?: string;
   channelId: number;
   content: string;
   sentAt: string;
@@ -92,6 +94,9 @@ interface ChatMessage {
   };
 }
 
+// Live messages and history both carry the clientMessageId; older stored messages only have the id
+const messageKey = (message: ChatMessage) => message.clientMessageId ?? `id-${message.id}`;
+
 const PatientChat: React.FC = () => {
   const { user } = useAuth();
   const location = useLocation();
@@ -114,9 +119,10 @@ const PatientChat: React.FC = () => {
     token: user?.token || null,
     onMessage: (message) => {
       // Handle incoming real-time message
-      if (message && message.id) {
+      if (message && (message.clientMessageId || message.id)) {
         const newMessage: ChatMessage = {
           id: message.id,
+          clientMessageId: message.clientMessageId,
           channelId: message.channelId || selectedChannel?.id || 0,
           content: message.content,
           sentAt: message.sentAt,
@@ -132,7 +138,7 @@ const PatientChat: React.FC = () => {
 
         // Only add if not already in messages (avoid duplicates)
         setMessages((prev) => {
-          const exists = prev.some((m) => m.id === newMessage.id);
+          const exists = prev.some((m) => messageKey(m) === messageKey(newMessage));
           if (exists) return prev;
           const updated = [...prev, newMessage];
           // Scroll to bottom when new message arrives
@@ -341,6 +347,7 @@ const PatientChat: React.FC = () => {
           },
           body: JSON.stringify({
             content: messageContent,
+            clientMessageId: crypto.randomUUID(),
           }),
         });
         
@@ -353,6 +360,7 @@ const PatientChat: React.FC = () => {
           // Add real message from server
           const realMessage: ChatMessage = {
             id: data.data.id,
+            clientMessageId: data.data.clientMessageId,
             channelId: selectedChannel.id,
             content: data.data.content,
             sentAt: data.data.sentAt,
@@ -564,7 +572,7 @@ const PatientChat: React.FC = () => {
                     
                     return (
                       <Box
-                        key={message.id}
+                        key={messageKey(message)}
                         sx={{
                           display: 'flex',
                           justifyContent: isOwnMessage ? 'flex-end' : 'flex-start',
@@ -66,13 +66,13 @@ const PatientLogin = () => {
             if (profileResponse.ok) {
               const profileData = await profileResponse.json();
               const userId = profileData.data?.id;
-              login('patient', data.token, values.username, userId);
+              login('patient', data.token, values.username, userId, data.refreshToken);
             } else {
-              login('patient', data.token, values.username);
+              login('patient', data.token, values.username, undefined, data.refreshToken);
             }
           } catch (err) {
             console.error('Error fetching profile:', err);
-            login('patient', data.token, values.username);
+            login('patient', data.token, values.username, undefined, data.refreshToken);
           }
           navigate('/patient-dashboard');
         }
@@ -112,13 +112,13 @@ const PatientLogin = () => {
             if (profileResponse.ok) {
               const profileData = await profileResponse.json();
               const userId = profileData.data?.id;
-              login('patient', data.token, username, userId);
+              login('patient', data.token, username, userId, data.refreshToken);
             } else {
-              login('patient', data.token, username);
+              login('patient', data.token, username, undefined, data.refreshToken);
             }
           } catch (err) {
             console.error('Error fetching profile:', err);
-            login('patient', data.token, username);
+            login('patient', data.token, username, undefined, data.refreshToken);
           }
           navigate('/patient-dashboard');
         } else {